@@ -1,11 +1,13 @@
 plugins {
   id("adventure.common-conventions")
+  id("me.champeau.jmh")
 }
 
 dependencies {
   api("net.kyori:examination-api:1.3.0")
   api("net.kyori:examination-string:1.3.0")
   compileOnlyApi("org.jetbrains:annotations:22.0.0")
+  testImplementation("org.openjdk.jol:jol-core:0.16")
 }
 
 applyJarMetadata("net.kyori.adventure.nbt")
@@ -0,0 +1,114 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Reads and writes chunk sections holding 4096-entry block state and heightmap arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArrayCodecBenchmark {
+  private static final int SECTIONS = 24;
+  private static final int PALETTE_SIZE = 4096;
+
+  private CompoundBinaryTag tag;
+  private byte[] bytes;
+  private ByteBuffer direct;
+
+  @Setup(Level.Trial)
+  public void prepare() throws IOException {
+    final Random random = new Random(42);
+    final ListBinaryTag.Builder<CompoundBinaryTag> sections = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+    for (int i = 0; i < SECTIONS; i++) {
+      final long[] states = new long[PALETTE_SIZE];
+      final int[] heights = new int[PALETTE_SIZE];
+      for (int j = 0; j < PALETTE_SIZE; j++) {
+        states[j] = random.nextLong();
+        heights[j] = random.nextInt(384);
+      }
+      sections.add(CompoundBinaryTag.builder()
+        .putByte("Y", (byte) i)
+        .putLongArray("BlockStates", states)
+        .putIntArray("Heights", heights)
+        .build());
+    }
+    this.tag = CompoundBinaryTag.builder().put("Sections", sections.build()).build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(this.tag, output);
+    this.bytes = output.toByteArray();
+    this.direct = ByteBuffer.allocateDirect(this.bytes.length);
+    this.direct.put(this.bytes).flip();
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readStream() throws IOException {
+    return BinaryTagIO.unlimitedReader().read(new ByteArrayInputStream(this.bytes));
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readBuffer() throws IOException {
+    return BinaryTagIO.unlimitedReader().read(ByteBuffer.wrap(this.bytes));
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readDirectBuffer() throws IOException {
+    return BinaryTagIO.unlimitedReader().read(this.direct.duplicate());
+  }
+
+  @Benchmark
+  public byte[] write() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(this.bytes.length);
+    BinaryTagIO.writer().write(this.tag, output);
+    return output.toByteArray();
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+      .include(ArrayCodecBenchmark.class.getSimpleName())
+      .forks(1)
+      .build();
+
+    new Runner(opt).run();
+  }
+}
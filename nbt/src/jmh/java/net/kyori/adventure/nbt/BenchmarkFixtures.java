@@ -0,0 +1,160 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.Random;
+
+/**
+ * Tags shaped like the player and chunk data a server reads and writes most.
+ */
+final class BenchmarkFixtures {
+  static final String PLAYER = "player";
+  static final String CHUNK = "chunk";
+
+  private static final String[] ITEMS = {"minecraft:diamond_sword", "minecraft:cobblestone", "minecraft:torch", "minecraft:bread", "minecraft:oak_log", "minecraft:iron_pickaxe"};
+  private static final String[] BLOCKS = {"minecraft:stone", "minecraft:dirt", "minecraft:grass_block", "minecraft:deepslate", "minecraft:water", "minecraft:air", "minecraft:coal_ore", "minecraft:iron_ore"};
+
+  private BenchmarkFixtures() {
+  }
+
+  static CompoundBinaryTag fixture(final String name) {
+    switch (name) {
+      case PLAYER:
+        return player();
+      case CHUNK:
+        return chunk();
+      default:
+        throw new IllegalArgumentException(name);
+    }
+  }
+
+  static CompoundBinaryTag item(final int slot) {
+    final CompoundBinaryTag.Builder item = CompoundBinaryTag.builder()
+      .putByte("Slot", (byte) slot)
+      .putString("id", ITEMS[slot % ITEMS.length])
+      .putByte("Count", (byte) (1 + slot * 7 % 64));
+    if (slot % ITEMS.length == 0) {
+      final ListBinaryTag.Builder<CompoundBinaryTag> enchantments = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+      for (int i = 0; i < 3; i++) {
+        enchantments.add(CompoundBinaryTag.builder().putString("id", "minecraft:enchantment_" + i).putShort("lvl", (short) (i + 1)).build());
+      }
+      item.put("tag", CompoundBinaryTag.builder()
+        .putInt("Damage", slot * 13 % 1561)
+        .putInt("RepairCost", 3)
+        .put("Enchantments", enchantments.build())
+        .put("display", CompoundBinaryTag.builder().putString("Name", "{\"text\":\"Item in slot " + slot + "\"}").build())
+        .build());
+    }
+    return item.build();
+  }
+
+  static CompoundBinaryTag player() {
+    final ListBinaryTag.Builder<CompoundBinaryTag> inventory = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+    for (int slot = 0; slot < 36; slot++) {
+      inventory.add(item(slot));
+    }
+    final ListBinaryTag.Builder<CompoundBinaryTag> attributes = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+    for (final String attribute : new String[]{"generic.max_health", "generic.movement_speed", "generic.armor", "generic.attack_damage"}) {
+      attributes.add(CompoundBinaryTag.builder().putString("Name", "minecraft:" + attribute).putDouble("Base", attribute.length() / 4d).build());
+    }
+    return CompoundBinaryTag.builder()
+      .putInt("DataVersion", 2730)
+      .putString("Dimension", "minecraft:overworld")
+      .putIntArray("UUID", new int[]{0x1a2b3c4d, 0x5e6f7081, 0x92a3b4c5, 0xd6e7f809})
+      .put("Pos", ListBinaryTag.builder(BinaryTagTypes.DOUBLE).add(DoubleBinaryTag.of(-213.5d)).add(DoubleBinaryTag.of(64d)).add(DoubleBinaryTag.of(1045.25d)).build())
+      .put("Motion", ListBinaryTag.builder(BinaryTagTypes.DOUBLE).add(DoubleBinaryTag.of(0d)).add(DoubleBinaryTag.of(-0.0784d)).add(DoubleBinaryTag.of(0d)).build())
+      .put("Rotation", ListBinaryTag.builder(BinaryTagTypes.FLOAT).add(FloatBinaryTag.of(87.5f)).add(FloatBinaryTag.of(12.3f)).build())
+      .putFloat("Health", 20f)
+      .putInt("foodLevel", 17)
+      .putFloat("foodSaturationLevel", 2.4f)
+      .putInt("XpLevel", 30)
+      .putFloat("XpP", 0.42f)
+      .putInt("playerGameType", 0)
+      .putBoolean("OnGround", true)
+      .put("abilities", CompoundBinaryTag.builder()
+        .putBoolean("flying", false)
+        .putBoolean("mayfly", false)
+        .putBoolean("instabuild", false)
+        .putFloat("walkSpeed", 0.1f)
+        .putFloat("flySpeed", 0.05f)
+        .build())
+      .put("Attributes", attributes.build())
+      .put("Inventory", inventory.build())
+      .put("EnderItems", ListBinaryTag.empty())
+      .build();
+  }
+
+  static CompoundBinaryTag chunk() {
+    final Random random = new Random(42);
+    final ListBinaryTag.Builder<CompoundBinaryTag> sections = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+    for (int y = -4; y < 20; y++) {
+      final ListBinaryTag.Builder<CompoundBinaryTag> palette = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+      for (final String block : BLOCKS) {
+        palette.add(CompoundBinaryTag.builder().putString("Name", block).build());
+      }
+      final long[] states = new long[256];
+      for (int i = 0; i < states.length; i++) {
+        states[i] = random.nextLong();
+      }
+      sections.add(CompoundBinaryTag.builder()
+        .putByte("Y", (byte) y)
+        .put("block_states", CompoundBinaryTag.builder().put("palette", palette.build()).putLongArray("data", states).build())
+        .put("biomes", CompoundBinaryTag.builder()
+          .put("palette", ListBinaryTag.builder(BinaryTagTypes.STRING).add(StringBinaryTag.of("minecraft:plains")).build())
+          .build())
+        .putByteArray("SkyLight", new byte[2048])
+        .build());
+    }
+    final long[] heights = new long[37];
+    for (int i = 0; i < heights.length; i++) {
+      heights[i] = random.nextLong();
+    }
+    final ListBinaryTag.Builder<CompoundBinaryTag> blockEntities = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+    for (int i = 0; i < 4; i++) {
+      final ListBinaryTag.Builder<CompoundBinaryTag> items = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+      for (int slot = 0; slot < 27; slot += 3) {
+        items.add(item(slot));
+      }
+      blockEntities.add(CompoundBinaryTag.builder()
+        .putString("id", "minecraft:chest")
+        .putInt("x", i * 3)
+        .putInt("y", 64)
+        .putInt("z", -i)
+        .put("Items", items.build())
+        .build());
+    }
+    return CompoundBinaryTag.builder()
+      .putInt("DataVersion", 2730)
+      .putInt("xPos", -14)
+      .putInt("zPos", 65)
+      .putInt("yPos", -4)
+      .putString("Status", "full")
+      .putLong("LastUpdate", 1_837_465L)
+      .putLong("InhabitedTime", 12_044L)
+      .put("sections", sections.build())
+      .put("Heightmaps", CompoundBinaryTag.builder().putLongArray("MOTION_BLOCKING", heights).putLongArray("WORLD_SURFACE", heights.clone()).build())
+      .put("block_entities", blockEntities.build())
+      .build();
+  }
+}
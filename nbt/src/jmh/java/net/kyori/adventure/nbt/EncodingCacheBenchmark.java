@@ -0,0 +1,106 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Repeatedly writes the same item tag, with and without a cached encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EncodingCacheBenchmark {
+  @Param({"false", "true"})
+  private boolean cached;
+
+  private BinaryTagIO.Writer writer;
+  private CompoundBinaryTag tag;
+  private ByteBuffer buffer;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    this.writer = this.cached ? BinaryTagIO.writer().cacheEncoding() : BinaryTagIO.writer();
+    final ListBinaryTag.Builder<CompoundBinaryTag> enchantments = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+    for (int i = 0; i < 8; i++) {
+      enchantments.add(CompoundBinaryTag.builder().putString("id", "minecraft:enchantment_" + i).putShort("lvl", (short) i).build());
+    }
+    final ListBinaryTag.Builder<StringBinaryTag> lore = ListBinaryTag.builder(BinaryTagTypes.STRING);
+    for (int i = 0; i < 4; i++) {
+      lore.add(StringBinaryTag.of("{\"text\":\"A line of lore number " + i + "\",\"italic\":false}"));
+    }
+    this.tag = CompoundBinaryTag.builder()
+      .putString("id", "minecraft:diamond_sword")
+      .putByte("Count", (byte) 1)
+      .put("tag", CompoundBinaryTag.builder()
+        .putInt("Damage", 12)
+        .put("Enchantments", enchantments.build())
+        .put("display", CompoundBinaryTag.builder()
+          .putString("Name", "{\"text\":\"Sword of Testing\"}")
+          .put("Lore", lore.build())
+          .build())
+        .build())
+      .build();
+    this.buffer = ByteBuffer.allocateDirect((int) this.writer.sizeOf(this.tag));
+  }
+
+  @Benchmark
+  public byte[] writeStream() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(this.buffer.capacity());
+    this.writer.write(this.tag, output);
+    return output.toByteArray();
+  }
+
+  @Benchmark
+  public ByteBuffer writeBuffer() throws IOException {
+    this.buffer.clear();
+    this.writer.write(this.tag, this.buffer);
+    return this.buffer;
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+      .include(EncodingCacheBenchmark.class.getSimpleName())
+      .forks(1)
+      .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares editing list tags one element at a time against copying the whole list for every edit, as list tags did before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListBinaryTagEditBenchmark {
+  @Param({"10", "100", "1000"})
+  private int size;
+
+  private StringBinaryTag[] elements;
+  private ListBinaryTag full;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    this.elements = new StringBinaryTag[this.size];
+    for (int i = 0; i < this.size; i++) {
+      this.elements[i] = StringBinaryTag.of("line " + i);
+    }
+    ListBinaryTag list = ListBinaryTag.empty();
+    for (final StringBinaryTag element : this.elements) {
+      list = list.add(element);
+    }
+    this.full = list;
+  }
+
+  @Benchmark
+  public ListBinaryTag append() {
+    ListBinaryTag list = ListBinaryTag.empty();
+    for (final StringBinaryTag element : this.elements) {
+      list = list.add(element);
+    }
+    return list;
+  }
+
+  @Benchmark
+  public ListBinaryTag appendCopyOnWrite() {
+    List<BinaryTag> tags = new ArrayList<>();
+    for (final StringBinaryTag element : this.elements) {
+      tags = new ArrayList<>(tags);
+      tags.add(element);
+    }
+    return ListBinaryTag.of(BinaryTagTypes.STRING, tags);
+  }
+
+  @Benchmark
+  public ListBinaryTag set() {
+    ListBinaryTag list = this.full;
+    for (int i = 0; i < this.size; i++) {
+      list = list.set(i, this.elements[this.size - 1 - i], null);
+    }
+    return list;
+  }
+
+  @Benchmark
+  public List<BinaryTag> setCopyOnWrite() {
+    List<BinaryTag> tags = new ArrayList<>(this.full.size());
+    this.full.forEach(tags::add);
+    for (int i = 0; i < this.size; i++) {
+      tags = new ArrayList<>(tags);
+      tags.set(i, this.elements[this.size - 1 - i]);
+    }
+    return tags;
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+      .include(ListBinaryTagEditBenchmark.class.getSimpleName())
+      .forks(1)
+      .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Reads an inventory of items, whose counts, damage values and flags are small numbers, with and without the shared
+ * short, int and long tags.
+ *
+ * <p>The second benchmark runs in a fork whose {@code numberCacheHigh} is below {@code numberCacheLow}, which empties
+ * the short, int and long caches. Byte tags and the float and double constants are always shared, so both benchmarks
+ * share those.</p>
+ *
+ * <p>Run with the GC profiler ({@code -prof gc}, as {@link #main(String[])} does) and compare
+ * {@code gc.alloc.rate.norm} between the two benchmarks.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NumberTagCacheBenchmark {
+  private ByteBuffer encoded;
+
+  @Setup(Level.Trial)
+  public void prepare() throws IOException {
+    final ListBinaryTag.Builder<CompoundBinaryTag> items = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+    for (int i = 0; i < 36; i++) {
+      items.add(CompoundBinaryTag.builder()
+        .putByte("Slot", (byte) i)
+        .putString("id", "minecraft:item_" + i % 6)
+        .putByte("Count", (byte) (1 + i % 64))
+        .put("tag", CompoundBinaryTag.builder()
+          .putInt("Damage", i * 7 % 250)
+          .putByte("Unbreakable", (byte) (i % 2))
+          .putInt("RepairCost", i % 4)
+          .putShort("lvl", (short) (1 + i % 5))
+          .putFloat("DropChance", i % 3 == 0 ? 1f : 0f)
+          .build())
+        .build());
+    }
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(CompoundBinaryTag.builder().put("Inventory", items.build()).build(), output);
+    this.encoded = ByteBuffer.wrap(output.toByteArray()).asReadOnlyBuffer();
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readCached() throws IOException {
+    return BinaryTagIO.reader().read(this.encoded.duplicate());
+  }
+
+  @Benchmark
+  @Fork(jvmArgsAppend = "-Dnet.kyori.adventure.nbt.numberCacheHigh=-129")
+  public CompoundBinaryTag readWithoutWholeNumberCaches() throws IOException {
+    return BinaryTagIO.reader().read(this.encoded.duplicate());
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+      .include(NumberTagCacheBenchmark.class.getSimpleName())
+      .addProfiler(GCProfiler.class)
+      .forks(1)
+      .build();
+
+    new Runner(opt).run();
+  }
+}
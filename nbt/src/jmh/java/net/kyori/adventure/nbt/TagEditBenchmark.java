@@ -0,0 +1,138 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Builds and updates player data through chains of {@link CompoundBinaryTag#put(String, BinaryTag)} and
+ * {@link ListBinaryTag#add(BinaryTag)}, as plugins editing a player's state do, and through batched
+ * {@link CompoundBinaryTag#edit(java.util.function.Consumer) edits}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagEditBenchmark {
+  private CompoundBinaryTag player;
+  private CompoundBinaryTag[] items;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    this.player = BenchmarkFixtures.player();
+    this.items = new CompoundBinaryTag[36];
+    for (int slot = 0; slot < this.items.length; slot++) {
+      this.items[slot] = BenchmarkFixtures.item(slot);
+    }
+  }
+
+  @Benchmark
+  public CompoundBinaryTag putChain() {
+    return CompoundBinaryTag.empty()
+      .putInt("DataVersion", 2730)
+      .putString("Dimension", "minecraft:overworld")
+      .putFloat("Health", 20f)
+      .putInt("foodLevel", 17)
+      .putFloat("foodSaturationLevel", 2.4f)
+      .putInt("XpLevel", 30)
+      .putFloat("XpP", 0.42f)
+      .putInt("playerGameType", 0)
+      .putBoolean("OnGround", true)
+      .putShort("SleepTimer", (short) 0)
+      .putShort("HurtTime", (short) 0)
+      .putInt("SelectedItemSlot", 4);
+  }
+
+  @Benchmark
+  public CompoundBinaryTag updateChain() {
+    return this.player
+      .putFloat("Health", 19.5f)
+      .putInt("foodLevel", 16)
+      .putFloat("XpP", 0.43f)
+      .putBoolean("OnGround", false)
+      .put("Motion", ListBinaryTag.builder(BinaryTagTypes.DOUBLE).add(DoubleBinaryTag.of(0.1d)).add(DoubleBinaryTag.of(0.42d)).add(DoubleBinaryTag.of(0d)).build());
+  }
+
+  @Benchmark
+  public ListBinaryTag addChain() {
+    ListBinaryTag inventory = ListBinaryTag.empty();
+    for (final CompoundBinaryTag item : this.items) {
+      inventory = inventory.add(item);
+    }
+    return inventory;
+  }
+
+  @Benchmark
+  public CompoundBinaryTag replaceInventory() {
+    ListBinaryTag inventory = this.player.getList("Inventory");
+    for (int slot = 0; slot < inventory.size(); slot++) {
+      final CompoundBinaryTag item = inventory.getCompound(slot);
+      inventory = inventory.set(slot, item.putByte("Count", (byte) (item.getByte("Count") + 1)), null);
+    }
+    return this.player.put("Inventory", inventory);
+  }
+
+  @Benchmark
+  public CompoundBinaryTag patchNested() {
+    final CompoundBinaryTag abilities = this.player.getCompound("abilities")
+      .putBoolean("flying", true)
+      .putBoolean("mayfly", true)
+      .putFloat("flySpeed", 0.1f);
+    return this.player
+      .putFloat("Health", 19.5f)
+      .putInt("foodLevel", 16)
+      .put("abilities", abilities);
+  }
+
+  @Benchmark
+  public CompoundBinaryTag patchNestedEdit() {
+    return this.player.edit(player -> {
+      player.putFloat("Health", 19.5f).putInt("foodLevel", 16);
+      player.editCompound("abilities")
+        .putBoolean("flying", true)
+        .putBoolean("mayfly", true)
+        .putFloat("flySpeed", 0.1f);
+    });
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+      .include(TagEditBenchmark.class.getSimpleName())
+      .forks(1)
+      .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Parses tags in string format, such as the item tags of legacy hover events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagStringReadBenchmark {
+  @Param({"item", "arrays"})
+  private String input;
+
+  private String snbt;
+
+  @Setup(Level.Trial)
+  public void prepare() throws IOException {
+    final CompoundBinaryTag tag;
+    if (this.input.equals("item")) {
+      final ListBinaryTag.Builder<CompoundBinaryTag> enchantments = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+      for (int i = 0; i < 8; i++) {
+        enchantments.add(CompoundBinaryTag.builder().putString("id", "minecraft:enchantment_" + i).putShort("lvl", (short) i).build());
+      }
+      tag = CompoundBinaryTag.builder()
+        .putString("id", "minecraft:diamond_sword")
+        .putByte("Count", (byte) 1)
+        .put("tag", CompoundBinaryTag.builder()
+          .putInt("Damage", 12)
+          .putDouble("Weight", 1.5d)
+          .put("Enchantments", enchantments.build())
+          .put("display", CompoundBinaryTag.builder()
+            .putString("Name", "{\"text\":\"Sword of Testing\"}")
+            .build())
+          .build())
+        .build();
+    } else {
+      final int[] ints = new int[256];
+      final long[] longs = new long[256];
+      for (int i = 0; i < ints.length; i++) {
+        ints[i] = i * 31;
+        longs[i] = i * 0x0101010101L;
+      }
+      tag = CompoundBinaryTag.builder().putIntArray("ints", ints).putLongArray("longs", longs).build();
+    }
+    this.snbt = TagStringIO.get().asString(tag);
+  }
+
+  @Benchmark
+  public CompoundBinaryTag asCompound() throws IOException {
+    return TagStringIO.get().asCompound(this.snbt);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+      .include(TagStringReadBenchmark.class.getSimpleName())
+      .forks(1)
+      .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+abstract class AbstractCompoundBinaryTag extends AbstractBinaryTag implements CompoundBinaryTag {
+  public boolean contains(final @NotNull String key, final @NotNull BinaryTagType<?> type) {
+    return this.get(key, type) != null;
+  }
+
+  // the tag under key if it is of a type compatible with type, looked up once
+  private @Nullable BinaryTag get(final @NotNull String key, final @NotNull BinaryTagType<?> type) {
+    final @Nullable BinaryTag tag = this.get(key);
+    return tag != null && type.test(tag.type()) ? tag : null;
+  }
+
+  @Override
+  public byte getByte(final @NotNull String key, final byte defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.BYTE);
+    return tag != null ? ((NumberBinaryTag) tag).byteValue() : defaultValue;
+  }
+
+  @Override
+  public short getShort(final @NotNull String key, final short defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.SHORT);
+    return tag != null ? ((NumberBinaryTag) tag).shortValue() : defaultValue;
+  }
+
+  @Override
+  public int getInt(final @NotNull String key, final int defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.INT);
+    return tag != null ? ((NumberBinaryTag) tag).intValue() : defaultValue;
+  }
+
+  @Override
+  public long getLong(final @NotNull String key, final long defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.LONG);
+    return tag != null ? ((NumberBinaryTag) tag).longValue() : defaultValue;
+  }
+
+  @Override
+  public float getFloat(final @NotNull String key, final float defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.FLOAT);
+    return tag != null ? ((NumberBinaryTag) tag).floatValue() : defaultValue;
+  }
+
+  @Override
+  public double getDouble(final @NotNull String key, final double defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.DOUBLE);
+    return tag != null ? ((NumberBinaryTag) tag).doubleValue() : defaultValue;
+  }
+
+  @Override
+  public byte@NotNull[] getByteArray(final @NotNull String key) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.BYTE_ARRAY);
+    return tag != null ? ((ByteArrayBinaryTag) tag).value() : new byte[0];
+  }
+
+  @Override
+  public byte@NotNull[] getByteArray(final @NotNull String key, final byte@NotNull[] defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.BYTE_ARRAY);
+    return tag != null ? ((ByteArrayBinaryTag) tag).value() : defaultValue;
+  }
+
+  @Override
+  public @NotNull String getString(final @NotNull String key, final @NotNull String defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.STRING);
+    return tag != null ? ((StringBinaryTag) tag).value() : defaultValue;
+  }
+
+  @Override
+  public @NotNull ListBinaryTag getList(final @NotNull String key, final @NotNull ListBinaryTag defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.LIST);
+    return tag != null ? (ListBinaryTag) tag : defaultValue;
+  }
+
+  @Override
+  public @NotNull ListBinaryTag getList(final @NotNull String key, final @NotNull BinaryTagType<? extends BinaryTag> expectedType, final @NotNull ListBinaryTag defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.LIST);
+    if (tag != null && expectedType.test(((ListBinaryTag) tag).elementType())) {
+      return (ListBinaryTag) tag;
+    }
+    return defaultValue;
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag getCompound(final @NotNull String key, final @NotNull CompoundBinaryTag defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.COMPOUND);
+    return tag != null ? (CompoundBinaryTag) tag : defaultValue;
+  }
+
+  @Override
+  public int@NotNull[] getIntArray(final @NotNull String key) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.INT_ARRAY);
+    return tag != null ? ((IntArrayBinaryTag) tag).value() : new int[0];
+  }
+
+  @Override
+  public int@NotNull[] getIntArray(final @NotNull String key, final int@NotNull[] defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.INT_ARRAY);
+    return tag != null ? ((IntArrayBinaryTag) tag).value() : defaultValue;
+  }
+
+  @Override
+  public long@NotNull[] getLongArray(final @NotNull String key) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.LONG_ARRAY);
+    return tag != null ? ((LongArrayBinaryTag) tag).value() : new long[0];
+  }
+
+  @Override
+  public long@NotNull[] getLongArray(final @NotNull String key, final long@NotNull[] defaultValue) {
+    final @Nullable BinaryTag tag = this.get(key, BinaryTagTypes.LONG_ARRAY);
+    return tag != null ? ((LongArrayBinaryTag) tag).value() : defaultValue;
+  }
+}
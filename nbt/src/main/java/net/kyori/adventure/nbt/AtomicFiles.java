@@ -0,0 +1,110 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces files atomically, by writing a temporary file beside them and moving it into place.
+ */
+final class AtomicFiles {
+  private AtomicFiles() {
+  }
+
+  /**
+   * Replaces the contents of {@code path}.
+   *
+   * <p>The temporary file is created with the default permissions for new files, or those of {@code path} if it
+   * exists. Its contents, and the directory after the move, are forced to storage where the platform allows.</p>
+   *
+   * @param path the file to replace
+   * @param contents writes the new contents
+   * @throws IOException if an exception was encountered while writing or moving the file
+   */
+  static void write(final Path path, final Contents contents) throws IOException {
+    final Path directory = path.toAbsolutePath().getParent();
+    final Path temp = create(directory, path.getFileName().toString());
+    try {
+      try(final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        contents.write(channel);
+        channel.force(true); // the contents must be durable before the file replaces the old one
+      }
+      copyPermissions(path, temp);
+      try {
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+      forceDirectory(directory);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  // unlike Files.createTempFile, this does not restrict the file to its owner
+  private static Path create(final Path directory, final String name) throws IOException {
+    while (true) {
+      final Path temp = directory.resolve(name + "." + Integer.toUnsignedString(ThreadLocalRandom.current().nextInt(), 36) + ".tmp");
+      try {
+        FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+        return temp;
+      } catch (final FileAlreadyExistsException e) {
+        // try another name
+      }
+    }
+  }
+
+  private static void copyPermissions(final Path from, final Path to) throws IOException {
+    final PosixFileAttributeView source = Files.getFileAttributeView(from, PosixFileAttributeView.class);
+    final PosixFileAttributeView target = Files.getFileAttributeView(to, PosixFileAttributeView.class);
+    if (source != null && target != null && Files.exists(from)) {
+      target.setPermissions(source.readAttributes().permissions());
+    }
+  }
+
+  // makes the rename durable; not every platform can open a directory for this
+  private static void forceDirectory(final Path directory) {
+    try(final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (final IOException e) {
+      // the move has happened, only its durability is unknown
+    }
+  }
+
+  /**
+   * Writes the contents of a file.
+   */
+  interface Contents {
+    void write(final FileChannel channel) throws IOException;
+  }
+}
@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import net.kyori.examination.Examinable;
 import org.jetbrains.annotations.NotNull;
 
@@ -40,6 +41,21 @@ public interface BinaryTag extends BinaryTagLike, Examinable {
    */
   @NotNull BinaryTagType<? extends BinaryTag> type();
 
+  /**
+   * Visits this tag and any tags it contains.
+   *
+   * <p>The visitor is notified in the same order as when the encoded tag is read with
+   * {@link BinaryTagIO.Reader#visit(java.io.DataInput, BinaryTagVisitor)}. Each tag calls the visitor method for its own
+   * type, so no type checks or casts are needed to walk a tree. Array values are passed without being copied, and must
+   * not be modified.</p>
+   *
+   * @param visitor the visitor
+   * @return {@code false} if the visitor halted the walk
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException;
+
   @Override
   default @NotNull BinaryTag asBinaryTag() {
     return this;
@@ -0,0 +1,522 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A structural difference between two compound tags, which can be applied to turn one into the other.
+ *
+ * <p>Diffs recurse into nested compounds and lists, so a change deep inside a tag only records that change. Subtrees
+ * that are shared between both tags, as they are when one tag was derived from the other with {@code put} or
+ * {@code remove}, are recognised by identity and skipped, so computing a diff costs about as much as the changes
+ * themselves rather than the size of the tags.</p>
+ *
+ * <p>A diff is encoded as a compound tag by {@link #asBinaryTag()}, to be sent or stored like any other tag, and
+ * decoded by {@link #fromBinaryTag(CompoundBinaryTag)}. A compound patch holds any of {@code add} and {@code set}
+ * (compounds of new values for added and replaced keys), {@code patch} (a compound of nested patches) and
+ * {@code remove} (a list of removed keys). A list patch holds the sizes {@code from} and {@code length} of the list
+ * before and after, and any of {@code set} and {@code patch} keyed by element index, and {@code add} (a list of
+ * appended elements).</p>
+ *
+ * @since 4.10.0
+ */
+public final class BinaryTagDiff implements BinaryTagLike {
+  private static final String ADD = "add";
+  private static final String SET = "set";
+  private static final String PATCH = "patch";
+  private static final String REMOVE = "remove";
+  private static final String FROM = "from";
+  private static final String LENGTH = "length";
+
+  private final CompoundPatch root;
+
+  private BinaryTagDiff(final CompoundPatch root) {
+    this.root = root;
+  }
+
+  /**
+   * Computes the changes that turn {@code from} into {@code to}.
+   *
+   * @param from the original tag
+   * @param to the changed tag
+   * @return the diff
+   * @since 4.10.0
+   */
+  public static @NotNull BinaryTagDiff between(final @NotNull CompoundBinaryTag from, final @NotNull CompoundBinaryTag to) {
+    return new BinaryTagDiff(CompoundPatch.between(requireNonNull(from, "from"), requireNonNull(to, "to")));
+  }
+
+  /**
+   * Decodes a diff from the tag produced by {@link #asBinaryTag()}.
+   *
+   * @param tag the encoded diff
+   * @return the diff
+   * @throws IllegalArgumentException if the tag is not a valid encoded diff
+   * @since 4.10.0
+   */
+  public static @NotNull BinaryTagDiff fromBinaryTag(final @NotNull CompoundBinaryTag tag) {
+    return new BinaryTagDiff(CompoundPatch.decode(tag));
+  }
+
+  /**
+   * Gets whether this diff has no changes.
+   *
+   * @return whether this diff is empty
+   * @since 4.10.0
+   */
+  public boolean isEmpty() {
+    return this.root.isEmpty();
+  }
+
+  /**
+   * Applies this diff to a tag.
+   *
+   * <p>Unchanged parts of {@code tag} are shared with the result.</p>
+   *
+   * @param tag the tag to apply this diff to, usually equal to the original tag of the diff
+   * @return the patched tag
+   * @throws IllegalArgumentException if a nested change does not match the structure of {@code tag}
+   * @since 4.10.0
+   */
+  public @NotNull CompoundBinaryTag apply(final @NotNull CompoundBinaryTag tag) {
+    return this.root.apply(requireNonNull(tag, "tag"));
+  }
+
+  /**
+   * Gets the paths of added values.
+   *
+   * <p>Paths are keys separated by {@code .}, with list elements selected by a {@code [index]} suffix, such as
+   * {@code Inventory[2].id}.</p>
+   *
+   * @return the paths
+   * @since 4.10.0
+   */
+  public @NotNull List<String> added() {
+    final Paths paths = new Paths();
+    this.root.paths("", paths);
+    return Collections.unmodifiableList(paths.added);
+  }
+
+  /**
+   * Gets the paths of removed values.
+   *
+   * @return the paths
+   * @see #added() for the path format
+   * @since 4.10.0
+   */
+  public @NotNull List<String> removed() {
+    final Paths paths = new Paths();
+    this.root.paths("", paths);
+    return Collections.unmodifiableList(paths.removed);
+  }
+
+  /**
+   * Gets the paths of values that were replaced.
+   *
+   * <p>Only the innermost replaced values are included, not the compounds and lists containing them.</p>
+   *
+   * @return the paths
+   * @see #added() for the path format
+   * @since 4.10.0
+   */
+  public @NotNull List<String> changed() {
+    final Paths paths = new Paths();
+    this.root.paths("", paths);
+    return Collections.unmodifiableList(paths.changed);
+  }
+
+  /**
+   * Encodes this diff as a compound tag.
+   *
+   * @return the encoded diff
+   * @since 4.10.0
+   */
+  @Override
+  public @NotNull CompoundBinaryTag asBinaryTag() {
+    return this.root.encode();
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) return true;
+    if (other == null || this.getClass() != other.getClass()) return false;
+    return this.asBinaryTag().equals(((BinaryTagDiff) other).asBinaryTag());
+  }
+
+  @Override
+  public int hashCode() {
+    return this.asBinaryTag().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "BinaryTagDiff{added=" + this.added() + ", removed=" + this.removed() + ", changed=" + this.changed() + "}";
+  }
+
+  // the change from one value to another, or null if they are equal
+  static @Nullable Patch diff(final BinaryTag from, final BinaryTag to) {
+    if (from == to) return null;
+    final BinaryTagType<? extends BinaryTag> type = from.type();
+    if (type != to.type()) return new Replace(to);
+    if (type == BinaryTagTypes.COMPOUND) {
+      final CompoundPatch patch = CompoundPatch.between((CompoundBinaryTag) from, (CompoundBinaryTag) to);
+      return patch.isEmpty() ? null : patch;
+    } else if (type == BinaryTagTypes.LIST) {
+      return ListPatch.between((ListBinaryTag) from, (ListBinaryTag) to);
+    }
+    return from.equals(to) ? null : new Replace(to);
+  }
+
+  static String child(final String prefix, final String key) {
+    return prefix.isEmpty() ? key : prefix + '.' + key;
+  }
+
+  static String element(final String prefix, final int index) {
+    return prefix + '[' + index + ']';
+  }
+
+  static final class Paths {
+    final List<String> added = new ArrayList<>();
+    final List<String> removed = new ArrayList<>();
+    final List<String> changed = new ArrayList<>();
+  }
+
+  abstract static class Patch {
+    abstract BinaryTag apply(final BinaryTag tag);
+
+    abstract void paths(final String path, final Paths paths);
+  }
+
+  // a value replaced outright
+  static final class Replace extends Patch {
+    final BinaryTag value;
+
+    Replace(final BinaryTag value) {
+      this.value = value;
+    }
+
+    @Override
+    BinaryTag apply(final BinaryTag tag) {
+      return this.value;
+    }
+
+    @Override
+    void paths(final String path, final Paths paths) {
+      paths.changed.add(path);
+    }
+  }
+
+  static final class CompoundPatch extends Patch {
+    final Map<String, BinaryTag> added = new LinkedHashMap<>();
+    final Map<String, Patch> changed = new LinkedHashMap<>();
+    final List<String> removed = new ArrayList<>();
+
+    static CompoundPatch between(final CompoundBinaryTag from, final CompoundBinaryTag to) {
+      final CompoundPatch patch = new CompoundPatch();
+      if (from == to) return patch;
+      final @Nullable CompoundBinaryTagImpl fromImpl = impl(from);
+      final @Nullable CompoundBinaryTagImpl toImpl = impl(to);
+      if (fromImpl != null && toImpl != null && fromImpl.tags() instanceof PersistentTagMap && toImpl.tags() instanceof PersistentTagMap) {
+        ((PersistentTagMap) fromImpl.tags()).diff((PersistentTagMap) toImpl.tags(), patch::record);
+      } else {
+        for (final String key : from.keySet()) {
+          patch.record(key, from.get(key), to.get(key));
+        }
+        for (final String key : to.keySet()) {
+          if (from.get(key) == null) patch.record(key, null, to.get(key));
+        }
+      }
+      return patch;
+    }
+
+    private static @Nullable CompoundBinaryTagImpl impl(final CompoundBinaryTag tag) {
+      if (tag instanceof LazyCompoundBinaryTag) {
+        return ((LazyCompoundBinaryTag) tag).materialized();
+      }
+      return tag instanceof CompoundBinaryTagImpl ? (CompoundBinaryTagImpl) tag : null;
+    }
+
+    private void record(final String key, final @Nullable BinaryTag from, final @Nullable BinaryTag to) {
+      if (from == null) {
+        this.added.put(key, to);
+      } else if (to == null) {
+        this.removed.add(key);
+      } else {
+        final @Nullable Patch patch = diff(from, to);
+        if (patch != null) this.changed.put(key, patch);
+      }
+    }
+
+    boolean isEmpty() {
+      return this.added.isEmpty() && this.changed.isEmpty() && this.removed.isEmpty();
+    }
+
+    @Override
+    BinaryTag apply(final BinaryTag tag) {
+      if (!(tag instanceof CompoundBinaryTag)) {
+        throw new IllegalArgumentException("Cannot apply a compound patch to a " + tag.type());
+      }
+      return this.apply((CompoundBinaryTag) tag);
+    }
+
+    CompoundBinaryTag apply(final CompoundBinaryTag tag) {
+      CompoundBinaryTag result = tag;
+      for (final String key : this.removed) {
+        result = result.remove(key);
+      }
+      for (final Map.Entry<String, BinaryTag> entry : this.added.entrySet()) {
+        result = result.put(entry.getKey(), entry.getValue());
+      }
+      for (final Map.Entry<String, Patch> entry : this.changed.entrySet()) {
+        final Patch patch = entry.getValue();
+        if (patch instanceof Replace) {
+          result = result.put(entry.getKey(), ((Replace) patch).value);
+        } else {
+          final @Nullable BinaryTag current = result.get(entry.getKey());
+          if (current == null) {
+            throw new IllegalArgumentException("Cannot patch missing key '" + entry.getKey() + "'");
+          }
+          result = result.put(entry.getKey(), patch.apply(current));
+        }
+      }
+      return result;
+    }
+
+    @Override
+    void paths(final String path, final Paths paths) {
+      for (final String key : this.added.keySet()) {
+        paths.added.add(child(path, key));
+      }
+      for (final String key : this.removed) {
+        paths.removed.add(child(path, key));
+      }
+      for (final Map.Entry<String, Patch> entry : this.changed.entrySet()) {
+        entry.getValue().paths(child(path, entry.getKey()), paths);
+      }
+    }
+
+    CompoundBinaryTag encode() {
+      final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder();
+      if (!this.added.isEmpty()) {
+        builder.put(ADD, CompoundBinaryTag.from(this.added));
+      }
+      final CompoundBinaryTag.Builder set = CompoundBinaryTag.builder();
+      final CompoundBinaryTag.Builder patch = CompoundBinaryTag.builder();
+      for (final Map.Entry<String, Patch> entry : this.changed.entrySet()) {
+        encodeEntry(entry.getKey(), entry.getValue(), set, patch);
+      }
+      putIfNotEmpty(builder, SET, set.build());
+      putIfNotEmpty(builder, PATCH, patch.build());
+      if (!this.removed.isEmpty()) {
+        final ListBinaryTag.Builder<StringBinaryTag> removed = ListBinaryTag.builder(BinaryTagTypes.STRING);
+        for (final String key : this.removed) {
+          removed.add(StringBinaryTag.of(key));
+        }
+        builder.put(REMOVE, removed.build());
+      }
+      return builder.build();
+    }
+
+    static CompoundPatch decode(final CompoundBinaryTag tag) {
+      final CompoundPatch patch = new CompoundPatch();
+      for (final Map.Entry<String, ? extends BinaryTag> entry : compound(tag, ADD)) {
+        patch.added.put(entry.getKey(), entry.getValue());
+      }
+      for (final Map.Entry<String, ? extends BinaryTag> entry : compound(tag, SET)) {
+        patch.changed.put(entry.getKey(), new Replace(entry.getValue()));
+      }
+      for (final Map.Entry<String, ? extends BinaryTag> entry : compound(tag, PATCH)) {
+        patch.changed.put(entry.getKey(), decodePatch(entry.getValue()));
+      }
+      for (final BinaryTag key : tag.getList(REMOVE)) {
+        if (!(key instanceof StringBinaryTag)) {
+          throw new IllegalArgumentException("Removed keys must be strings, but found a " + key.type());
+        }
+        patch.removed.add(((StringBinaryTag) key).value());
+      }
+      return patch;
+    }
+  }
+
+  static final class ListPatch extends Patch {
+    final int from;
+    final int length;
+    final Map<Integer, Patch> changed = new TreeMap<>();
+    final List<BinaryTag> added = new ArrayList<>();
+
+    ListPatch(final int from, final int length) {
+      this.from = from;
+      this.length = length;
+    }
+
+    static @Nullable Patch between(final ListBinaryTag from, final ListBinaryTag to) {
+      if (from.elementType() != to.elementType()) return new Replace(to);
+      final int common = Math.min(from.size(), to.size());
+      final ListPatch patch = new ListPatch(from.size(), to.size());
+      int replaced = 0;
+      for (int i = 0; i < common; i++) {
+        final @Nullable Patch element = diff(from.get(i), to.get(i));
+        if (element != null) {
+          patch.changed.put(i, element);
+          if (element instanceof Replace) replaced++;
+        }
+      }
+      if (common > 0 && replaced == common) return new Replace(to); // nothing in common, sending the list is smaller
+      for (int i = common; i < to.size(); i++) {
+        patch.added.add(to.get(i));
+      }
+      if (patch.changed.isEmpty() && patch.from == patch.length) return null;
+      return patch;
+    }
+
+    @Override
+    BinaryTag apply(final BinaryTag tag) {
+      if (!(tag instanceof ListBinaryTag)) {
+        throw new IllegalArgumentException("Cannot apply a list patch to a " + tag.type());
+      }
+      ListBinaryTag result = (ListBinaryTag) tag;
+      if (result.size() != this.from) {
+        throw new IllegalArgumentException("Cannot apply a list patch for " + this.from + " elements to a list of " + result.size());
+      }
+      while (result.size() > this.length) {
+        result = result.remove(result.size() - 1, null);
+      }
+      for (final Map.Entry<Integer, Patch> entry : this.changed.entrySet()) {
+        final int index = entry.getKey();
+        result = result.set(index, entry.getValue().apply(result.get(index)), null);
+      }
+      for (final BinaryTag element : this.added) {
+        result = result.add(element);
+      }
+      return result;
+    }
+
+    @Override
+    void paths(final String path, final Paths paths) {
+      for (final Map.Entry<Integer, Patch> entry : this.changed.entrySet()) {
+        entry.getValue().paths(element(path, entry.getKey()), paths);
+      }
+      for (int i = 0; i < this.added.size(); i++) {
+        paths.added.add(element(path, this.from + i));
+      }
+      for (int i = this.length; i < this.from; i++) {
+        paths.removed.add(element(path, i));
+      }
+    }
+
+    CompoundBinaryTag encode() {
+      final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder()
+        .putInt(FROM, this.from)
+        .putInt(LENGTH, this.length);
+      final CompoundBinaryTag.Builder set = CompoundBinaryTag.builder();
+      final CompoundBinaryTag.Builder patch = CompoundBinaryTag.builder();
+      for (final Map.Entry<Integer, Patch> entry : this.changed.entrySet()) {
+        encodeEntry(Integer.toString(entry.getKey()), entry.getValue(), set, patch);
+      }
+      putIfNotEmpty(builder, SET, set.build());
+      putIfNotEmpty(builder, PATCH, patch.build());
+      if (!this.added.isEmpty()) {
+        builder.put(ADD, ListBinaryTag.from(this.added));
+      }
+      return builder.build();
+    }
+
+    static ListPatch decode(final CompoundBinaryTag tag) {
+      final ListPatch patch = new ListPatch(tag.getInt(FROM), tag.getInt(LENGTH));
+      if (patch.from < 0 || patch.length < 0) {
+        throw new IllegalArgumentException("List sizes must not be negative");
+      }
+      for (final Map.Entry<String, ? extends BinaryTag> entry : compound(tag, SET)) {
+        patch.changed.put(index(entry.getKey(), patch), new Replace(entry.getValue()));
+      }
+      for (final Map.Entry<String, ? extends BinaryTag> entry : compound(tag, PATCH)) {
+        patch.changed.put(index(entry.getKey(), patch), decodePatch(entry.getValue()));
+      }
+      for (final BinaryTag element : tag.getList(ADD)) {
+        patch.added.add(element);
+      }
+      if (patch.added.size() != Math.max(0, patch.length - patch.from)) {
+        throw new IllegalArgumentException("List patch from " + patch.from + " to " + patch.length + " elements has " + patch.added.size() + " added elements");
+      }
+      return patch;
+    }
+
+    private static int index(final String key, final ListPatch patch) {
+      final int index;
+      try {
+        index = Integer.parseInt(key);
+      } catch (final NumberFormatException ex) {
+        throw new IllegalArgumentException("Invalid list index '" + key + "'", ex);
+      }
+      if (index < 0 || index >= Math.min(patch.from, patch.length)) {
+        throw new IllegalArgumentException("List index " + index + " is out of bounds");
+      }
+      return index;
+    }
+  }
+
+  static void encodeEntry(final String key, final Patch patch, final CompoundBinaryTag.Builder set, final CompoundBinaryTag.Builder nested) {
+    if (patch instanceof Replace) {
+      set.put(key, ((Replace) patch).value);
+    } else if (patch instanceof CompoundPatch) {
+      nested.put(key, ((CompoundPatch) patch).encode());
+    } else {
+      nested.put(key, ((ListPatch) patch).encode());
+    }
+  }
+
+  // a nested patch, where list patches are told apart by their sizes
+  static Patch decodePatch(final BinaryTag tag) {
+    if (!(tag instanceof CompoundBinaryTag)) {
+      throw new IllegalArgumentException("Patches must be compounds, but found a " + tag.type());
+    }
+    final CompoundBinaryTag compound = (CompoundBinaryTag) tag;
+    return compound.get(FROM) != null ? ListPatch.decode(compound) : CompoundPatch.decode(compound);
+  }
+
+  static CompoundBinaryTag compound(final CompoundBinaryTag tag, final String key) {
+    final @Nullable BinaryTag value = tag.get(key);
+    if (value == null) return CompoundBinaryTag.empty();
+    if (!(value instanceof CompoundBinaryTag)) {
+      throw new IllegalArgumentException("Expected a compound at '" + key + "', but found a " + value.type());
+    }
+    return (CompoundBinaryTag) value;
+  }
+
+  static void putIfNotEmpty(final CompoundBinaryTag.Builder builder, final String key, final CompoundBinaryTag value) {
+    if (!value.keySet().isEmpty()) {
+      builder.put(key, value);
+    }
+  }
+}
@@ -28,14 +28,19 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.util.Map;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Serialization operations for binary tags.
  *
@@ -88,6 +93,19 @@ public final class BinaryTagIO {
     return new BinaryTagReaderImpl(sizeLimitBytes);
   }
 
+  /**
+   * Fully decodes a compound tag read by a {@link Reader#lazy() lazy reader}.
+   *
+   * <p>The returned tag no longer references the buffer it was read from.</p>
+   *
+   * @param tag the compound tag
+   * @return the fully decoded compound tag, or {@code tag} if it was already fully decoded
+   * @since 4.10.0
+   */
+  public static @NotNull CompoundBinaryTag materialize(final @NotNull CompoundBinaryTag tag) {
+    return (CompoundBinaryTag) LazyCompoundBinaryTag.materialize(tag);
+  }
+
   /**
    * Returns {@link Writer}, used to write binary tags.
    *
@@ -243,7 +261,49 @@ public final class BinaryTagIO {
    *
    * @since 4.4.0
    */
+  @ApiStatus.NonExtendable
   public interface Reader {
+    /**
+     * Gets a reader with the same size limit, that decodes compound tags lazily.
+     *
+     * <p>A lazy reader still validates the whole tag when reading it. The entries of each compound are only decoded
+     * when they are first requested, and any modification decodes all entries of the modified compound.</p>
+     *
+     * <p>Compound tags read from a {@link ByteBuffer} or mapped file keep a reference to it until they are
+     * {@link BinaryTagIO#materialize(CompoundBinaryTag) materialized}. Input streams and files are read fully into memory
+     * first, and a {@link DataInput} is read eagerly.</p>
+     *
+     * @return a lazy reader
+     * @since 4.10.0
+     */
+    @NotNull Reader lazy();
+
+    /**
+     * Gets a reader with the same settings, that interns the keys of compound tags.
+     *
+     * <p>Keys are looked up by their encoded bytes in a bounded table shared by all interning readers, so a key seen
+     * before is returned without being decoded again, and repeated keys share a single string instance. The table is
+     * lossy: a new key may evict an older one, and long keys are never interned.</p>
+     *
+     * @return a key-interning reader
+     * @since 4.10.0
+     */
+    @NotNull Reader internKeys();
+
+    /**
+     * Gets a reader with the same settings, that shares a single instance between equal compound and list tags.
+     *
+     * <p>Each compound and list read is looked up in a bounded table shared by all deduplicating readers, and replaced
+     * by an equal tag read before if there is one. Repeated subtrees, such as the enchantments and display data of many
+     * similar items, then take up memory once and compare equal by identity. The table is lossy and only weakly
+     * references its tags. Tags are only shared if their compounds hold entries in the same order, so the result
+     * encodes to the same bytes as the input. Compounds read by a {@link #lazy() lazy} reader are not deduplicated.</p>
+     *
+     * @return a deduplicating reader
+     * @since 4.10.0
+     */
+    @NotNull Reader deduplicate();
+
     /**
      * Reads a binary tag from {@code path}.
      *
@@ -304,6 +364,34 @@ public final class BinaryTagIO {
      */
     @NotNull CompoundBinaryTag read(final @NotNull DataInput input) throws IOException;
 
+    /**
+     * Reads a binary tag from {@code buffer}.
+     *
+     * <p>Reading starts at the current position of the buffer, and the position will be advanced past the end of the tag.
+     * The byte order of the buffer is ignored, as binary tags are always big-endian.</p>
+     *
+     * <p>Data is read directly from the buffer, without any intermediate streams or copies.
+     * Only uncompressed data can be read this way.</p>
+     *
+     * @param buffer the buffer
+     * @return a binary tag
+     * @throws IOException if an exception was encountered while reading the tag
+     * @since 4.10.0
+     */
+    @NotNull CompoundBinaryTag read(final @NotNull ByteBuffer buffer) throws IOException;
+
+    /**
+     * Reads a binary tag from {@code path}, by mapping the file into memory.
+     *
+     * <p>The file must contain uncompressed data, and is read as described in {@link #read(ByteBuffer)}.</p>
+     *
+     * @param path the path
+     * @return a binary tag
+     * @throws IOException if an exception was encountered while reading the tag
+     * @since 4.10.0
+     */
+    @NotNull CompoundBinaryTag readMapped(final @NotNull Path path) throws IOException;
+
     /**
      * Reads a binary tag, with a name, from {@code path}.
      *
@@ -363,6 +451,125 @@ public final class BinaryTagIO {
      * @since 4.4.0
      */
     Map.@NotNull Entry<String, CompoundBinaryTag> readNamed(final @NotNull DataInput input) throws IOException;
+
+    /**
+     * Reads a binary tag, with a name, from {@code buffer}.
+     *
+     * <p>The buffer is read as described in {@link #read(ByteBuffer)}.</p>
+     *
+     * @param buffer the buffer
+     * @return a binary tag
+     * @throws IOException if an exception was encountered while reading the tag
+     * @since 4.10.0
+     */
+    Map.@NotNull Entry<String, CompoundBinaryTag> readNamed(final @NotNull ByteBuffer buffer) throws IOException;
+
+    /**
+     * Reads a binary tag from {@code path}, notifying {@code visitor} of each tag instead of creating them.
+     *
+     * @param path the path
+     * @param compression the compression format
+     * @param visitor the visitor
+     * @throws IOException if an exception was encountered while reading or visiting the tag
+     * @since 4.10.0
+     */
+    void visit(final @NotNull Path path, final @NotNull Compression compression, final @NotNull BinaryTagVisitor visitor) throws IOException;
+
+    /**
+     * Reads a binary tag from {@code input}, notifying {@code visitor} of each tag instead of creating them.
+     *
+     * <p>Only the tag being visited is held in memory, so inputs of any size can be visited with
+     * an {@link BinaryTagIO#unlimitedReader() unlimited} reader.</p>
+     *
+     * @param input the input stream
+     * @param compression the compression format
+     * @param visitor the visitor
+     * @throws IOException if an exception was encountered while reading or visiting the tag
+     * @since 4.10.0
+     */
+    void visit(final @NotNull InputStream input, final @NotNull Compression compression, final @NotNull BinaryTagVisitor visitor) throws IOException;
+
+    /**
+     * Reads a binary tag from {@code buffer}, notifying {@code visitor} of each tag instead of creating them.
+     *
+     * <p>The buffer is read as described in {@link #read(ByteBuffer)}.</p>
+     *
+     * @param buffer the buffer
+     * @param visitor the visitor
+     * @throws IOException if an exception was encountered while reading or visiting the tag
+     * @since 4.10.0
+     */
+    void visit(final @NotNull ByteBuffer buffer, final @NotNull BinaryTagVisitor visitor) throws IOException;
+
+    /**
+     * Reads a binary tag from {@code input}, notifying {@code visitor} of each tag instead of creating them.
+     *
+     * @param input the input
+     * @param visitor the visitor
+     * @throws IOException if an exception was encountered while reading or visiting the tag
+     * @since 4.10.0
+     */
+    void visit(final @NotNull DataInput input, final @NotNull BinaryTagVisitor visitor) throws IOException;
+
+    /**
+     * Reads only the values at {@code paths} from {@code path}.
+     *
+     * @param path the path
+     * @param compression the compression format
+     * @param paths the paths to read, as described in {@link #readPaths(DataInput, String...)}
+     * @return a compound tag containing only the selected values
+     * @throws IOException if an exception was encountered while reading the tag
+     * @throws IllegalArgumentException if a path is malformed
+     * @since 4.10.0
+     */
+    @NotNull CompoundBinaryTag readPaths(final @NotNull Path path, final @NotNull Compression compression, final @NotNull String@NotNull... paths) throws IOException;
+
+    /**
+     * Reads only the values at {@code paths} from {@code input}.
+     *
+     * @param input the input stream
+     * @param compression the compression format
+     * @param paths the paths to read, as described in {@link #readPaths(DataInput, String...)}
+     * @return a compound tag containing only the selected values
+     * @throws IOException if an exception was encountered while reading the tag
+     * @throws IllegalArgumentException if a path is malformed
+     * @since 4.10.0
+     */
+    @NotNull CompoundBinaryTag readPaths(final @NotNull InputStream input, final @NotNull Compression compression, final @NotNull String@NotNull... paths) throws IOException;
+
+    /**
+     * Reads only the values at {@code paths} from {@code buffer}.
+     *
+     * <p>The buffer is read as described in {@link #read(ByteBuffer)}.</p>
+     *
+     * @param buffer the buffer
+     * @param paths the paths to read, as described in {@link #readPaths(DataInput, String...)}
+     * @return a compound tag containing only the selected values
+     * @throws IOException if an exception was encountered while reading the tag
+     * @throws IllegalArgumentException if a path is malformed
+     * @since 4.10.0
+     */
+    @NotNull CompoundBinaryTag readPaths(final @NotNull ByteBuffer buffer, final @NotNull String@NotNull... paths) throws IOException;
+
+    /**
+     * Reads only the values at {@code paths} from {@code input}, skipping over all other tags without creating them.
+     *
+     * <p>A path is a sequence of keys separated by {@code .}, such as {@code Data.Player.Pos}. A key followed by {@code []}
+     * selects within each element of the list at that key, so {@code Inventory[].id} selects the {@code id} of every
+     * compound in the {@code Inventory} list.</p>
+     *
+     * <p>The returned compound has the same structure as the input, but only contains the selected values. Compounds in
+     * which nothing was selected are left out, except for list elements, which are kept as empty tags to preserve
+     * their positions.</p>
+     *
+     * @param input the input
+     * @param paths the paths to read
+     * @return a compound tag containing only the selected values
+     * @throws IOException if an exception was encountered while reading the tag
+     * @throws IllegalArgumentException if a path is malformed
+     * @since 4.10.0
+     */
+    @NotNull CompoundBinaryTag readPaths(final @NotNull DataInput input, final @NotNull String@NotNull... paths) throws IOException;
   }
 
   /**
@@ -370,7 +577,22 @@ public final class BinaryTagIO {
    *
    * @since 4.4.0
    */
+  @ApiStatus.NonExtendable
   public interface Writer {
+    /**
+     * Gets a writer that caches the encoded form of the tags it writes.
+     *
+     * <p>Tags are immutable, so the encoded bytes of a compound tag written by this writer are kept on the tag, through
+     * a soft reference, and copied out when the same tag instance is written again. A cached compound nested in
+     * another tag is also reused by any writer. Modifying a tag creates a new instance, which is encoded afresh.</p>
+     *
+     * <p>This suits tags that are written many times, such as those broadcast to many players.</p>
+     *
+     * @return a caching writer
+     * @since 4.10.0
+     */
+    @NotNull Writer cacheEncoding();
+
     /**
      * Writes a binary tag to {@code path} with a {@code compression} type.
      *
@@ -426,6 +648,35 @@ public final class BinaryTagIO {
      */
     void write(final @NotNull CompoundBinaryTag tag, final @NotNull DataOutput output) throws IOException;
 
+    /**
+     * Writes a binary tag into {@code buffer}, starting at its position.
+     *
+     * <p>The position of the buffer is advanced past the written tag, which takes exactly
+     * {@link #sizeOf(CompoundBinaryTag)} bytes. The tag is written in big-endian byte order, whatever the order of the
+     * buffer.</p>
+     *
+     * @param tag the tag
+     * @param buffer the buffer
+     * @throws BufferOverflowException if the tag does not fit in the remaining bytes of the buffer, in which case
+     *     nothing is written
+     * @throws IOException if an exception was encountered while writing the tag
+     * @since 4.10.0
+     */
+    void write(final @NotNull CompoundBinaryTag tag, final @NotNull ByteBuffer buffer) throws IOException;
+
+    /**
+     * Writes a binary tag to {@code channel}, without compression.
+     *
+     * <p>The tag is encoded into a buffer drained into the channel whenever it fills up. The channel is expected to be
+     * in blocking mode, and is not closed.</p>
+     *
+     * @param tag the tag
+     * @param channel the channel
+     * @throws IOException if an exception was encountered while writing the tag
+     * @since 4.10.0
+     */
+    void write(final @NotNull CompoundBinaryTag tag, final @NotNull WritableByteChannel channel) throws IOException;
+
     /**
      * Writes a binary tag, with a name, to {@code path}.
      *
@@ -480,6 +731,48 @@ public final class BinaryTagIO {
      * @since 4.4.0
      */
     void writeNamed(final Map.@NotNull Entry<String, CompoundBinaryTag> tag, final @NotNull DataOutput output) throws IOException;
+
+    /**
+     * Gets the number of bytes {@code tag} is written as, without compression.
+     *
+     * <p>This is the exact number of bytes written by {@link #write(CompoundBinaryTag, DataOutput)}. Sizes are
+     * cached on each compound and list tag, so asking again for the size of the same tag, or of a tag sharing nested
+     * tags with it, is cheap.</p>
+     *
+     * @param tag the tag
+     * @return the size of the tag in bytes
+     * @since 4.10.0
+     */
+    long sizeOf(final @NotNull CompoundBinaryTag tag);
+
+    /**
+     * Writes binary tags to their paths with a {@code compression} type, in parallel on {@code executor}.
+     *
+     * <p>Each tag is written to a temporary file in the directory of its path, which is then moved into place
+     * atomically where the file system supports it, so a path never holds a partially written tag. Existing files keep
+     * their permissions, and new files get the default permissions of the platform.</p>
+     *
+     * <p>A failure to write one tag does not stop the others from being written.</p>
+     *
+     * @param tags the tags to write, by path
+     * @param compression the compression type
+     * @param executor the executor to write on
+     * @return a future completing once all tags have been written, or exceptionally if any could not be
+     * @since 4.10.0
+     */
+    @NotNull CompletableFuture<Void> writeAll(final @NotNull Map<Path, CompoundBinaryTag> tags, final @NotNull Compression compression, final @NotNull Executor executor);
+
+    /**
+     * Creates a visitor that writes the tags it visits to {@code output}.
+     *
+     * <p>The first compound visited is written as the root tag, with an empty name. Tags must be visited in the order
+     * {@link Reader#visit(DataInput, BinaryTagVisitor)} would visit them.</p>
+     *
+     * @param output the output
+     * @return a writing visitor
+     * @since 4.10.0
+     */
+    @NotNull BinaryTagVisitor visitor(final @NotNull DataOutput output);
   }
 
   /**
@@ -514,46 +807,116 @@ public final class BinaryTagIO {
      *
      * @since 4.4.0
      */
-    public static final Compression GZIP = new Compression() {
-      @Override
-      @NotNull InputStream decompress(final @NotNull InputStream is) throws IOException {
-        return new GZIPInputStream(is);
-      }
-
-      @Override
-      @NotNull OutputStream compress(final @NotNull OutputStream os) throws IOException {
-        return new GZIPOutputStream(os);
-      }
-
-      @Override
-      public String toString() {
-        return "Compression.GZIP";
-      }
-    };
+    public static final Compression GZIP = DeflateCompression.create(true, Deflater.DEFAULT_COMPRESSION);
     /**
      * <a href="https://en.wikipedia.org/wiki/Zlib">ZLIB</a> compression.
      *
      * @since 4.6.0
      */
-    public static final Compression ZLIB = new Compression() {
-      @Override
-      @NotNull InputStream decompress(final @NotNull InputStream is) {
-        return new InflaterInputStream(is);
-      }
+    public static final Compression ZLIB = DeflateCompression.create(false, Deflater.DEFAULT_COMPRESSION);
 
-      @Override
-      @NotNull OutputStream compress(final @NotNull OutputStream os) {
-        return new DeflaterOutputStream(os);
-      }
+    /**
+     * Gets <a href="https://en.wikipedia.org/wiki/Gzip">GZIP</a> compression at a compression level.
+     *
+     * <p>Compressed output is readable by any GZIP compression. Deflaters and inflaters are pooled per level and reused
+     * once the stream using them is closed.</p>
+     *
+     * @param level the compression level, from {@code 0} to {@code 9}, or {@code -1} for the default level
+     * @return the compression
+     * @throws IllegalArgumentException if the level is out of range
+     * @since 4.10.0
+     */
+    public static @NotNull Compression gzip(final int level) {
+      return DeflateCompression.create(true, level);
+    }
 
-      @Override
-      public String toString() {
-        return "Compression.ZLIB";
-      }
-    };
+    /**
+     * Gets <a href="https://en.wikipedia.org/wiki/Zlib">ZLIB</a> compression at a compression level.
+     *
+     * <p>Compressed output is readable by any ZLIB compression. Deflaters and inflaters are pooled per level and reused
+     * once the stream using them is closed.</p>
+     *
+     * @param level the compression level, from {@code 0} to {@code 9}, or {@code -1} for the default level
+     * @return the compression
+     * @throws IllegalArgumentException if the level is out of range
+     * @since 4.10.0
+     */
+    public static @NotNull Compression zlib(final int level) {
+      return DeflateCompression.create(false, level);
+    }
+
+    /**
+     * Creates a custom compression.
+     *
+     * <p>Streams returned by the functions are closed once a tag has been read or written, and must not close the
+     * stream they wrap until then.</p>
+     *
+     * @param name the name of the compression
+     * @param decompressor a function wrapping a compressed input stream
+     * @param compressor a function wrapping an output stream to compress to
+     * @return the compression
+     * @since 4.10.0
+     */
+    public static @NotNull Compression of(final @NotNull String name, final @NotNull Decompressor decompressor, final @NotNull Compressor compressor) {
+      requireNonNull(name, "name");
+      requireNonNull(decompressor, "decompressor");
+      requireNonNull(compressor, "compressor");
+      return new Compression() {
+        @Override
+        @NotNull InputStream decompress(final @NotNull InputStream is) throws IOException {
+          return decompressor.decompress(is);
+        }
+
+        @Override
+        @NotNull OutputStream compress(final @NotNull OutputStream os) throws IOException {
+          return compressor.compress(os);
+        }
+
+        @Override
+        public String toString() {
+          return "Compression." + name;
+        }
+      };
+    }
 
     abstract @NotNull InputStream decompress(final @NotNull InputStream is) throws IOException;
 
     abstract @NotNull OutputStream compress(final @NotNull OutputStream os) throws IOException;
+
+    /**
+     * A function wrapping a compressed input stream.
+     *
+     * @since 4.10.0
+     */
+    @FunctionalInterface
+    public interface Decompressor {
+      /**
+       * Wraps a compressed input stream.
+       *
+       * @param input the compressed input
+       * @return a stream of the decompressed data
+       * @throws IOException if an exception is encountered while reading
+       * @since 4.10.0
+       */
+      @NotNull InputStream decompress(final @NotNull InputStream input) throws IOException;
+    }
+
+    /**
+     * A function wrapping an output stream to compress to.
+     *
+     * @since 4.10.0
+     */
+    @FunctionalInterface
+    public interface Compressor {
+      /**
+       * Wraps an output stream to compress to.
+       *
+       * @param output the output for compressed data
+       * @return a stream compressing data written to it
+       * @throws IOException if an exception is encountered while writing
+       * @since 4.10.0
+       */
+      @NotNull OutputStream compress(final @NotNull OutputStream output) throws IOException;
+    }
   }
 }
@@ -0,0 +1,140 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads only the values at selected paths, skipping over everything else.
+ *
+ * <p>A path is a sequence of keys separated by {@code .}, where a key followed by {@code []} selects within each element
+ * of the list at that key, and {@code [][]} within each element of each nested list. For example, {@code Inventory[].id} selects the {@code id} of each compound in the
+ * {@code Inventory} list.</p>
+ */
+final class BinaryTagPathReader {
+  private BinaryTagPathReader() {
+  }
+
+  /**
+   * Parses paths into a tree of selections.
+   *
+   * @param paths the paths
+   * @return the root selection
+   * @throws IllegalArgumentException if a path is malformed
+   */
+  static Selection parse(final String... paths) {
+    final Selection root = new Selection();
+    for (final String path : paths) {
+      Selection selection = root;
+      for (final String segment : path.split("\\.", -1)) {
+        int end = segment.length();
+        while (segment.startsWith("[]", end - 2)) {
+          end -= 2;
+        }
+        final String key = segment.substring(0, end);
+        if (key.isEmpty()) {
+          throw new IllegalArgumentException("Empty key in path '" + path + "'");
+        }
+        selection = selection.keys.computeIfAbsent(key, k -> new Selection());
+        for (int i = end; i < segment.length(); i += 2) {
+          if (selection.elements == null) {
+            selection.elements = new Selection();
+          }
+          selection = selection.elements;
+        }
+      }
+      selection.all = true;
+    }
+    return root;
+  }
+
+  /**
+   * Reads the selected entries of a compound.
+   *
+   * @param input the input, positioned after the type of the compound
+   * @param selection the selected entries
+   * @return a compound containing only the selected entries
+   * @throws IOException if an exception was encountered while reading
+   */
+  @SuppressWarnings("try")
+  static CompoundBinaryTag readCompound(final DataInput input, final Selection selection) throws IOException {
+    try(final BinaryTagScope ignored = TrackingDataInput.enter(input)) {
+      final TagMap.Builder tags = new TagMap.Builder();
+      BinaryTagType<? extends BinaryTag> type;
+      while ((type = BinaryTagType.of(input.readByte())) != BinaryTagTypes.END) {
+        final String key = TrackingDataInput.readKey(input);
+        final @Nullable Selection entry = selection.keys.get(key);
+        final @Nullable BinaryTag tag = entry == null ? null : read(type, input, entry);
+        if (tag != null) {
+          tags.put(key, tag);
+        } else if (entry == null) {
+          BinaryTagType.skip(type, input);
+        }
+      }
+      return new CompoundBinaryTagImpl(tags.build());
+    }
+  }
+
+  // read the selected parts of a tag, or consume it and return null if nothing was selected
+  @SuppressWarnings("try")
+  private static @Nullable BinaryTag read(final BinaryTagType<? extends BinaryTag> type, final DataInput input, final Selection selection) throws IOException {
+    if (selection.all) {
+      return type.read(input);
+    } else if (type == BinaryTagTypes.COMPOUND && !selection.keys.isEmpty()) {
+      final CompoundBinaryTag compound = readCompound(input, selection);
+      return compound.keySet().isEmpty() ? null : compound;
+    } else if (type == BinaryTagTypes.LIST && selection.elements != null) {
+      final BinaryTagType<? extends BinaryTag> elementType = BinaryTagType.of(input.readByte());
+      final int length = input.readInt();
+      if (!selection.elements.all && elementType != BinaryTagTypes.COMPOUND && elementType != BinaryTagTypes.LIST) {
+        BinaryTagType.skipElements(elementType, length, input);
+        return null;
+      }
+      try(final BinaryTagScope ignored = TrackingDataInput.enter(input, length * 8L)) {
+        final List<BinaryTag> tags = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+          final @Nullable BinaryTag tag = read(elementType, input, selection.elements);
+          // keep positions of elements, even those where nothing was selected
+          tags.add(tag != null ? tag : elementType == BinaryTagTypes.COMPOUND ? CompoundBinaryTag.empty() : ListBinaryTag.empty());
+        }
+        return ListBinaryTag.of(elementType, tags);
+      }
+    }
+    BinaryTagType.skip(type, input);
+    return null;
+  }
+
+  // the selected keys of a compound, or elements of a list
+  static final class Selection {
+    final Map<String, Selection> keys = new HashMap<>();
+    @Nullable Selection elements;
+    boolean all;
+  }
+}
@@ -28,22 +28,53 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Map;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import static net.kyori.adventure.nbt.IOStreamUtil.closeShield;
 
 @SuppressWarnings("DuplicatedCode")
 final class BinaryTagReaderImpl implements BinaryTagIO.Reader {
   private final long maxBytes;
+  private final boolean lazy;
+  private final @Nullable KeyInterner interner;
+  private final @Nullable TagInterner tagInterner;
   static final BinaryTagIO.Reader UNLIMITED = new BinaryTagReaderImpl(-1L);
   static final BinaryTagIO.Reader DEFAULT_LIMIT = new BinaryTagReaderImpl(0x20_00a);
 
   BinaryTagReaderImpl(final long maxBytes) {
+    this(maxBytes, false, null, null);
+  }
+
+  private BinaryTagReaderImpl(final long maxBytes, final boolean lazy, final @Nullable KeyInterner interner, final @Nullable TagInterner tagInterner) {
     this.maxBytes = maxBytes;
+    this.lazy = lazy;
+    this.interner = interner;
+    this.tagInterner = tagInterner;
+  }
+
+  @Override
+  public BinaryTagIO.@NotNull Reader lazy() {
+    return this.lazy ? this : new BinaryTagReaderImpl(this.maxBytes, true, this.interner, this.tagInterner);
+  }
+
+  @Override
+  public BinaryTagIO.@NotNull Reader internKeys() {
+    return this.interner != null ? this : new BinaryTagReaderImpl(this.maxBytes, this.lazy, KeyInterner.SHARED, this.tagInterner);
+  }
+
+  @Override
+  public BinaryTagIO.@NotNull Reader deduplicate() {
+    return this.tagInterner != null ? this : new BinaryTagReaderImpl(this.maxBytes, this.lazy, this.interner, TagInterner.SHARED);
   }
 
   @Override
@@ -55,21 +86,39 @@ final class BinaryTagReaderImpl implements BinaryTagIO.Reader {
 
   @Override
   public @NotNull CompoundBinaryTag read(final @NotNull InputStream input, final BinaryTagIO.@NotNull Compression compression) throws IOException {
+    if (this.lazy) {
+      return this.read(this.readFully(input, compression));
+    }
     try(final DataInputStream dis = new DataInputStream(new BufferedInputStream(compression.decompress(closeShield(input))))) {
       return this.read((DataInput) dis);
     }
   }
 
+  @Override
+  public @NotNull CompoundBinaryTag read(final @NotNull ByteBuffer buffer) throws IOException {
+    final ByteBuffer view = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    final CompoundBinaryTag tag = this.read(new ByteBufferDataInput(view, this.maxBytes, 0, this.interner, this.tagInterner));
+    buffer.position(view.position());
+    return tag;
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag readMapped(final @NotNull Path path) throws IOException {
+    try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return this.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
   @Override
   public @NotNull CompoundBinaryTag read(@NotNull DataInput input) throws IOException {
-    if (!(input instanceof TrackingDataInput)) {
-      input = new TrackingDataInput(input, this.maxBytes);
+    if (!(input instanceof TrackingDataInput) && !(input instanceof ByteBufferDataInput)) {
+      input = new TrackingDataInput(input, this.maxBytes, this.interner, this.tagInterner);
     }
 
     final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(input.readByte());
     requireCompound(type);
     input.skipBytes(input.readUnsignedShort()); // read empty name
-    return BinaryTagTypes.COMPOUND.read(input);
+    return this.readCompound(input);
   }
 
   @Override
@@ -81,17 +130,122 @@ final class BinaryTagReaderImpl implements BinaryTagIO.Reader {
 
   @Override
   public Map.@NotNull Entry<String, CompoundBinaryTag> readNamed(final @NotNull InputStream input, final BinaryTagIO.@NotNull Compression compression) throws IOException {
+    if (this.lazy) {
+      return this.readNamed(this.readFully(input, compression));
+    }
     try(final DataInputStream dis = new DataInputStream(new BufferedInputStream(compression.decompress(closeShield(input))))) {
       return this.readNamed((DataInput) dis);
     }
   }
 
+  @Override
+  public Map.@NotNull Entry<String, CompoundBinaryTag> readNamed(final @NotNull ByteBuffer buffer) throws IOException {
+    final ByteBuffer view = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    final Map.Entry<String, CompoundBinaryTag> tag = this.readNamed(new ByteBufferDataInput(view, this.maxBytes, 0, this.interner, this.tagInterner));
+    buffer.position(view.position());
+    return tag;
+  }
+
   @Override
   public Map.@NotNull Entry<String, CompoundBinaryTag> readNamed(final @NotNull DataInput input) throws IOException {
     final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(input.readByte());
     requireCompound(type);
     final String name = input.readUTF();
-    return new AbstractMap.SimpleImmutableEntry<>(name, BinaryTagTypes.COMPOUND.read(input));
+    return new AbstractMap.SimpleImmutableEntry<>(name, this.readCompound(input));
+  }
+
+  @Override
+  public void visit(final @NotNull Path path, final BinaryTagIO.@NotNull Compression compression, final @NotNull BinaryTagVisitor visitor) throws IOException {
+    try(final InputStream is = Files.newInputStream(path)) {
+      this.visit(is, compression, visitor);
+    }
+  }
+
+  @Override
+  public void visit(final @NotNull InputStream input, final BinaryTagIO.@NotNull Compression compression, final @NotNull BinaryTagVisitor visitor) throws IOException {
+    try(final DataInputStream dis = new DataInputStream(new BufferedInputStream(compression.decompress(closeShield(input))))) {
+      this.visit((DataInput) dis, visitor);
+    }
+  }
+
+  @Override
+  public void visit(final @NotNull ByteBuffer buffer, final @NotNull BinaryTagVisitor visitor) throws IOException {
+    final ByteBuffer view = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    this.visit(new ByteBufferDataInput(view, this.maxBytes, 0, this.interner, this.tagInterner), visitor);
+    buffer.position(view.position());
+  }
+
+  @Override
+  public void visit(@NotNull DataInput input, final @NotNull BinaryTagVisitor visitor) throws IOException {
+    if (!(input instanceof TrackingDataInput) && !(input instanceof ByteBufferDataInput)) {
+      input = new TrackingDataInput(input, this.maxBytes, this.interner, this.tagInterner);
+    }
+
+    final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(input.readByte());
+    requireCompound(type);
+    input.skipBytes(input.readUnsignedShort()); // read empty name
+    BinaryTagVisitorReader.visit(type, input, visitor);
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag readPaths(final @NotNull Path path, final BinaryTagIO.@NotNull Compression compression, final @NotNull String@NotNull... paths) throws IOException {
+    try(final InputStream is = Files.newInputStream(path)) {
+      return this.readPaths(is, compression, paths);
+    }
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag readPaths(final @NotNull InputStream input, final BinaryTagIO.@NotNull Compression compression, final @NotNull String@NotNull... paths) throws IOException {
+    try(final DataInputStream dis = new DataInputStream(new BufferedInputStream(compression.decompress(closeShield(input))))) {
+      return this.readPaths((DataInput) dis, paths);
+    }
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag readPaths(final @NotNull ByteBuffer buffer, final @NotNull String@NotNull... paths) throws IOException {
+    final ByteBuffer view = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    final CompoundBinaryTag tag = this.readPaths(new ByteBufferDataInput(view, this.maxBytes, 0, this.interner, this.tagInterner), paths);
+    buffer.position(view.position());
+    return tag;
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag readPaths(@NotNull DataInput input, final @NotNull String@NotNull... paths) throws IOException {
+    final BinaryTagPathReader.Selection selection = BinaryTagPathReader.parse(paths);
+    if (!(input instanceof TrackingDataInput) && !(input instanceof ByteBufferDataInput)) {
+      input = new TrackingDataInput(input, this.maxBytes, this.interner, this.tagInterner);
+    }
+
+    final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(input.readByte());
+    requireCompound(type);
+    input.skipBytes(input.readUnsignedShort()); // read empty name
+    return BinaryTagPathReader.readCompound(input, selection);
+  }
+
+  private CompoundBinaryTag readCompound(final DataInput input) throws IOException {
+    if (this.lazy && input instanceof ByteBufferDataInput) {
+      return (CompoundBinaryTag) LazyCompoundBinaryTag.read(BinaryTagTypes.COMPOUND, (ByteBufferDataInput) input);
+    }
+    return BinaryTagTypes.COMPOUND.read(input);
+  }
+
+  // read the remainder of a stream into memory, so that it can be read lazily
+  private ByteBuffer readFully(final InputStream input, final BinaryTagIO.Compression compression) throws IOException {
+    try(final InputStream is = compression.decompress(closeShield(input))) {
+      byte[] bytes = new byte[8192];
+      int length = 0;
+      int read;
+      while ((read = is.read(bytes, length, bytes.length - length)) != -1) {
+        length += read;
+        if (this.maxBytes > 0 && length > this.maxBytes) {
+          throw new IOException("The read NBT was longer than the maximum allowed size of " + this.maxBytes + " bytes!");
+        }
+        if (length == bytes.length) {
+          bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+      }
+      return ByteBuffer.wrap(bytes, 0, length);
+    }
   }
 
   private static void requireCompound(final BinaryTagType<? extends BinaryTag> type) throws IOException {
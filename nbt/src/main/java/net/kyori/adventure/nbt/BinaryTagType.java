@@ -28,6 +28,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -76,6 +77,143 @@ public abstract class BinaryTagType<T extends BinaryTag> implements Predicate<Bi
     ((BinaryTagType<T>) type).write(tag, output);
   }
 
+  // the size in bytes of a tag of type, or -1 if it is not fixed
+  static int fixedSize(final BinaryTagType<? extends BinaryTag> type) {
+    if (type == BinaryTagTypes.END) {
+      return 0;
+    } else if (type == BinaryTagTypes.BYTE) {
+      return Byte.BYTES;
+    } else if (type == BinaryTagTypes.SHORT) {
+      return Short.BYTES;
+    } else if (type == BinaryTagTypes.INT || type == BinaryTagTypes.FLOAT) {
+      return Integer.BYTES;
+    } else if (type == BinaryTagTypes.LONG || type == BinaryTagTypes.DOUBLE) {
+      return Long.BYTES;
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the number of bytes a tag is written as, excluding its type id and name.
+   *
+   * <p>The sizes of compound and list tags are cached on the tag instance.</p>
+   *
+   * @param tag the tag
+   * @return the encoded size
+   */
+  static long size(final BinaryTag tag) {
+    final BinaryTagType<? extends BinaryTag> type = tag.type();
+    final int size = fixedSize(type);
+    if (size >= 0) {
+      return size;
+    } else if (type == BinaryTagTypes.STRING) {
+      return Short.BYTES + ModifiedUtf8.length(((StringBinaryTag) tag).value());
+    } else if (type == BinaryTagTypes.BYTE_ARRAY) {
+      return Integer.BYTES + (long) ((ByteArrayBinaryTag) tag).size();
+    } else if (type == BinaryTagTypes.INT_ARRAY) {
+      return Integer.BYTES + ((IntArrayBinaryTag) tag).size() * (long) Integer.BYTES;
+    } else if (type == BinaryTagTypes.LONG_ARRAY) {
+      return Integer.BYTES + ((LongArrayBinaryTag) tag).size() * (long) Long.BYTES;
+    } else if (tag instanceof ListBinaryTagImpl) {
+      return ((ListBinaryTagImpl) tag).encodedSize();
+    } else if (tag instanceof CompoundBinaryTagImpl) {
+      return ((CompoundBinaryTagImpl) tag).encodedSize();
+    } else if (tag instanceof LazyCompoundBinaryTag) {
+      return ((LazyCompoundBinaryTag) tag).encodedSize();
+    } else if (type == BinaryTagTypes.LIST) {
+      return listSize((ListBinaryTag) tag);
+    } else if (type == BinaryTagTypes.COMPOUND) {
+      return compoundSize((CompoundBinaryTag) tag);
+    }
+    throw new IllegalArgumentException("Unknown tag type " + type);
+  }
+
+  static long listSize(final ListBinaryTag tag) {
+    final int elementSize = fixedSize(tag.elementType());
+    long size = Byte.BYTES + Integer.BYTES;
+    if (elementSize >= 0) {
+      return size + tag.size() * (long) elementSize;
+    }
+    for (final BinaryTag element : tag) {
+      size += size(element);
+    }
+    return size;
+  }
+
+  static long compoundSize(final CompoundBinaryTag tag) {
+    long size = Byte.BYTES; // end tag
+    for (final Map.Entry<String, ? extends BinaryTag> entry : tag) {
+      size += Byte.BYTES + Short.BYTES + ModifiedUtf8.length(entry.getKey()) + size(entry.getValue());
+    }
+    return size;
+  }
+
+  /**
+   * Skips over a tag without creating it, while applying the same depth and size limits as reading it.
+   *
+   * @param type the tag type
+   * @param input the input
+   * @throws IOException if an exception was encountered while reading
+   */
+  @SuppressWarnings("try")
+  static void skip(final BinaryTagType<? extends BinaryTag> type, final DataInput input) throws IOException {
+    final int size = fixedSize(type);
+    if (size >= 0) {
+      skipFully(input, size);
+    } else if (type == BinaryTagTypes.STRING) {
+      skipFully(input, input.readUnsignedShort());
+    } else if (type == BinaryTagTypes.BYTE_ARRAY || type == BinaryTagTypes.INT_ARRAY || type == BinaryTagTypes.LONG_ARRAY) {
+      final long length = input.readInt() * (long) (type == BinaryTagTypes.BYTE_ARRAY ? Byte.BYTES : type == BinaryTagTypes.INT_ARRAY ? Integer.BYTES : Long.BYTES);
+      try(final BinaryTagScope ignored = TrackingDataInput.enter(input, length)) {
+        skipFully(input, length);
+      }
+    } else if (type == BinaryTagTypes.LIST) {
+      final BinaryTagType<? extends BinaryTag> elementType = of(input.readByte());
+      skipElements(elementType, input.readInt(), input);
+    } else if (type == BinaryTagTypes.COMPOUND) {
+      try(final BinaryTagScope ignored = TrackingDataInput.enter(input)) {
+        BinaryTagType<? extends BinaryTag> entryType;
+        while ((entryType = of(input.readByte())) != BinaryTagTypes.END) {
+          skipFully(input, input.readUnsignedShort());
+          skip(entryType, input);
+        }
+      }
+    } else {
+      throw new IOException("Cannot skip a tag of type " + type);
+    }
+  }
+
+  // skip over the elements of a list, after its element type and length
+  @SuppressWarnings("try")
+  static void skipElements(final BinaryTagType<? extends BinaryTag> elementType, final int length, final DataInput input) throws IOException {
+    final int elementSize = fixedSize(elementType);
+    try(final BinaryTagScope ignored = TrackingDataInput.enter(input, length * 8L)) {
+      if (elementSize >= 0) {
+        skipFully(input, length * (long) elementSize);
+      } else {
+        for (int i = 0; i < length; i++) {
+          skip(elementType, input);
+        }
+      }
+    }
+  }
+
+  private static void skipFully(final DataInput input, final long length) throws IOException {
+    if (length < 0) {
+      throw new IOException("Negative length " + length);
+    }
+    long remaining = length;
+    while (remaining > 0) {
+      final int skipped = input.skipBytes((int) Math.min(remaining, Integer.MAX_VALUE));
+      if (skipped > 0) {
+        remaining -= skipped;
+      } else {
+        input.readByte(); // throws at the end of the input
+        remaining--;
+      }
+    }
+  }
+
   static @NotNull BinaryTagType<? extends BinaryTag> of(final byte id) {
     for (int i = 0; i < TYPES.size(); i++) {
       final BinaryTagType<? extends BinaryTag> type = TYPES.get(i);
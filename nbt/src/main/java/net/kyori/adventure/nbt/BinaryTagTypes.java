@@ -24,9 +24,9 @@
 package net.kyori.adventure.nbt;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * All known binary tag types.
@@ -99,7 +99,7 @@ public final class BinaryTagTypes {
    *
    * @since 4.0.0
    */
-  public static final BinaryTagType<StringBinaryTag> STRING = BinaryTagType.register(StringBinaryTag.class, (byte) 8, input -> StringBinaryTag.of(input.readUTF()), (tag, output) -> output.writeUTF(tag.value()));
+  public static final BinaryTagType<StringBinaryTag> STRING = BinaryTagType.register(StringBinaryTag.class, (byte) 8, input -> StringBinaryTag.of(input.readUTF()), (tag, output) -> ModifiedUtf8.write(output, tag.value()));
   /**
    * {@link ListBinaryTag}.
    *
@@ -110,16 +110,25 @@ public final class BinaryTagTypes {
     final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(input.readByte());
     final int length = input.readInt();
     try(final BinaryTagScope ignored = TrackingDataInput.enter(input, length * 8L)) {
+      final PackedTagList packed = PackedTagList.read(type, input, length);
+      if (packed != null) {
+        return TrackingDataInput.intern(input, ListBinaryTag.of(type, packed));
+      }
       final List<BinaryTag> tags = new ArrayList<>(length);
       for (int i = 0; i < length; i++) {
         tags.add(type.read(input));
       }
-      return ListBinaryTag.of(type, tags);
+      return TrackingDataInput.intern(input, ListBinaryTag.of(type, tags));
     }
   }, (tag, output) -> {
     output.writeByte(tag.elementType().id());
     final int size = tag.size();
     output.writeInt(size);
+    final PackedTagList packed = tag instanceof ListBinaryTagImpl ? ((ListBinaryTagImpl) tag).packed() : null;
+    if (packed != null) {
+      packed.write(output);
+      return;
+    }
     for (final BinaryTag item : tag) {
       BinaryTagType.write(item.type(), item, output);
     }
@@ -132,23 +141,33 @@ public final class BinaryTagTypes {
   @SuppressWarnings("try")
   public static final BinaryTagType<CompoundBinaryTag> COMPOUND = BinaryTagType.register(CompoundBinaryTag.class, (byte) 10, input -> {
     try(final BinaryTagScope ignored = TrackingDataInput.enter(input)) {
-      final Map<String, BinaryTag> tags = new HashMap<>();
+      final TagMap.Builder tags = new TagMap.Builder();
       BinaryTagType<? extends BinaryTag> type;
       while ((type = BinaryTagType.of(input.readByte())) != BinaryTagTypes.END) {
-        final String key = input.readUTF();
+        final String key = TrackingDataInput.readKey(input);
         final BinaryTag tag = type.read(input);
         tags.put(key, tag);
       }
-      return new CompoundBinaryTagImpl(tags);
+      return TrackingDataInput.intern(input, new CompoundBinaryTagImpl(tags.build()));
     }
   }, (tag, output) -> {
+    if (tag instanceof LazyCompoundBinaryTag) {
+      ((LazyCompoundBinaryTag) tag).write(output);
+      return;
+    } else if (tag instanceof CompoundBinaryTagImpl) {
+      final byte@Nullable[] encoding = ((CompoundBinaryTagImpl) tag).cachedEncoding();
+      if (encoding != null) {
+        output.write(encoding);
+        return;
+      }
+    }
     for (final Map.Entry<String, ? extends BinaryTag> entry : tag) {
       final BinaryTag value = entry.getValue();
       if (value != null) {
         final BinaryTagType<? extends BinaryTag> type = value.type();
         output.writeByte(type.id());
         if (type != BinaryTagTypes.END) {
-          output.writeUTF(entry.getKey());
+          ModifiedUtf8.write(output, entry.getKey());
           BinaryTagType.write(type, value, output);
         }
       }
@@ -165,18 +184,13 @@ public final class BinaryTagTypes {
     final int length = input.readInt();
     try(final BinaryTagScope ignored = TrackingDataInput.enter(input, length * 4L)) {
       final int[] value = new int[length];
-      for (int i = 0; i < length; i++) {
-        value[i] = input.readInt();
-      }
+      PrimitiveArrayIO.readInts(input, value);
       return IntArrayBinaryTag.of(value);
     }
   }, (tag, output) -> {
     final int[] value = IntArrayBinaryTagImpl.value(tag);
-    final int length = value.length;
-    output.writeInt(length);
-    for (int i = 0; i < length; i++) {
-      output.writeInt(value[i]);
-    }
+    output.writeInt(value.length);
+    PrimitiveArrayIO.writeInts(output, value);
   });
   /**
    * {@link LongArrayBinaryTag}.
@@ -188,18 +202,13 @@ public final class BinaryTagTypes {
     final int length = input.readInt();
     try(final BinaryTagScope ignored = TrackingDataInput.enter(input, length * 8L)) {
       final long[] value = new long[length];
-      for (int i = 0; i < length; i++) {
-        value[i] = input.readLong();
-      }
+      PrimitiveArrayIO.readLongs(input, value);
       return LongArrayBinaryTag.of(value);
     }
   }, (tag, output) -> {
     final long[] value = LongArrayBinaryTagImpl.value(tag);
-    final int length = value.length;
-    output.writeInt(length);
-    for (int i = 0; i < length; i++) {
-      output.writeLong(value[i]);
-    }
+    output.writeInt(value.length);
+    PrimitiveArrayIO.writeLongs(output, value);
   });
 
   private BinaryTagTypes() {
@@ -0,0 +1,253 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A visitor of binary tags, notified of each tag as it is read without creating any tag objects.
+ *
+ * <p>Visitors are driven by {@link BinaryTagIO.Reader#visit(java.io.DataInput, BinaryTagVisitor)} and its variants,
+ * or by {@link BinaryTag#visit(BinaryTagVisitor)} for tags already in memory, and
+ * {@link BinaryTagIO.Writer#visitor(java.io.DataOutput)} provides a visitor that writes the tags it visits.</p>
+ *
+ * <p>Every method returns a {@link Result} controlling how reading continues. All methods continue by default.</p>
+ *
+ * @since 4.10.0
+ */
+public interface BinaryTagVisitor {
+  /**
+   * Visits the start of a compound tag.
+   *
+   * <p>Returning {@link Result#SKIP} skips all entries of the compound, and {@link #visitCompoundEnd()} is not called.</p>
+   *
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitCompoundStart() throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits the key of an entry in a compound tag, before its value is visited.
+   *
+   * <p>Returning {@link Result#SKIP} skips the value of the entry.</p>
+   *
+   * @param key the key
+   * @param type the type of the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitKey(final @NotNull String key, final @NotNull BinaryTagType<? extends BinaryTag> type) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits the end of a compound tag.
+   *
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitCompoundEnd() throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits the start of a list tag.
+   *
+   * <p>Returning {@link Result#SKIP} skips all elements of the list, and {@link #visitListEnd()} is not called.</p>
+   *
+   * @param elementType the type of the elements
+   * @param size the number of elements
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitListStart(final @NotNull BinaryTagType<? extends BinaryTag> elementType, final int size) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits the end of a list tag.
+   *
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitListEnd() throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits a byte tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitByte(final byte value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits a short tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitShort(final short value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits an int tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitInt(final int value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits a long tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitLong(final long value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits a float tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitFloat(final float value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits a double tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitDouble(final double value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits a string tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitString(final @NotNull String value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits a byte array tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitByteArray(final byte@NotNull[] value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits an int array tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitIntArray(final int@NotNull[] value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Visits a long array tag.
+   *
+   * @param value the value
+   * @return how to continue
+   * @throws IOException if an exception was encountered while visiting
+   * @since 4.10.0
+   */
+  default @NotNull Result visitLongArray(final long@NotNull[] value) throws IOException {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * How reading should continue after visiting a tag.
+   *
+   * @since 4.10.0
+   */
+  enum Result {
+    /**
+     * Continue reading.
+     *
+     * @since 4.10.0
+     */
+    CONTINUE,
+    /**
+     * Skip the contents of the compound or list being started, or the value of the entry being visited.
+     *
+     * <p>Elsewhere, this is the same as {@link #CONTINUE}.</p>
+     *
+     * @since 4.10.0
+     */
+    SKIP,
+    /**
+     * Stop reading immediately.
+     *
+     * @since 4.10.0
+     */
+    HALT
+  }
+}
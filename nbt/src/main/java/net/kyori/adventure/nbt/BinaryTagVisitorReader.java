@@ -0,0 +1,111 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.IOException;
+import net.kyori.adventure.nbt.BinaryTagVisitor.Result;
+
+/**
+ * Drives a {@link BinaryTagVisitor} from an input, without creating tags.
+ */
+final class BinaryTagVisitorReader {
+  private BinaryTagVisitorReader() {
+  }
+
+  /**
+   * Reads a tag of {@code type}, notifying {@code visitor}.
+   *
+   * @param type the tag type
+   * @param input the input
+   * @param visitor the visitor
+   * @return {@code false} if the visitor halted reading
+   * @throws IOException if an exception was encountered while reading or visiting
+   */
+  @SuppressWarnings("try")
+  static boolean visit(final BinaryTagType<? extends BinaryTag> type, final DataInput input, final BinaryTagVisitor visitor) throws IOException {
+    if (type == BinaryTagTypes.COMPOUND) {
+      final Result start = visitor.visitCompoundStart();
+      if (start == Result.HALT) return false;
+      if (start == Result.SKIP) {
+        BinaryTagType.skip(type, input);
+        return true;
+      }
+      try(final BinaryTagScope ignored = TrackingDataInput.enter(input)) {
+        BinaryTagType<? extends BinaryTag> entryType;
+        while ((entryType = BinaryTagType.of(input.readByte())) != BinaryTagTypes.END) {
+          final Result key = visitor.visitKey(TrackingDataInput.readKey(input), entryType);
+          if (key == Result.HALT) return false;
+          if (key == Result.SKIP) {
+            BinaryTagType.skip(entryType, input);
+          } else if (!visit(entryType, input, visitor)) {
+            return false;
+          }
+        }
+      }
+      return visitor.visitCompoundEnd() != Result.HALT;
+    } else if (type == BinaryTagTypes.LIST) {
+      final BinaryTagType<? extends BinaryTag> elementType = BinaryTagType.of(input.readByte());
+      final int length = input.readInt();
+      final Result start = visitor.visitListStart(elementType, length);
+      if (start == Result.HALT) return false;
+      if (start == Result.SKIP) {
+        BinaryTagType.skipElements(elementType, length, input);
+        return true;
+      }
+      try(final BinaryTagScope ignored = TrackingDataInput.enter(input, length * 8L)) {
+        for (int i = 0; i < length; i++) {
+          if (!visit(elementType, input, visitor)) return false;
+        }
+      }
+      return visitor.visitListEnd() != Result.HALT;
+    }
+    return visitValue(type, input, visitor) != Result.HALT;
+  }
+
+  private static Result visitValue(final BinaryTagType<? extends BinaryTag> type, final DataInput input, final BinaryTagVisitor visitor) throws IOException {
+    if (type == BinaryTagTypes.BYTE) {
+      return visitor.visitByte(input.readByte());
+    } else if (type == BinaryTagTypes.SHORT) {
+      return visitor.visitShort(input.readShort());
+    } else if (type == BinaryTagTypes.INT) {
+      return visitor.visitInt(input.readInt());
+    } else if (type == BinaryTagTypes.LONG) {
+      return visitor.visitLong(input.readLong());
+    } else if (type == BinaryTagTypes.FLOAT) {
+      return visitor.visitFloat(input.readFloat());
+    } else if (type == BinaryTagTypes.DOUBLE) {
+      return visitor.visitDouble(input.readDouble());
+    } else if (type == BinaryTagTypes.STRING) {
+      return visitor.visitString(input.readUTF());
+    } else if (type == BinaryTagTypes.BYTE_ARRAY) {
+      return visitor.visitByteArray(ByteArrayBinaryTagImpl.value(BinaryTagTypes.BYTE_ARRAY.read(input)));
+    } else if (type == BinaryTagTypes.INT_ARRAY) {
+      return visitor.visitIntArray(IntArrayBinaryTagImpl.value(BinaryTagTypes.INT_ARRAY.read(input)));
+    } else if (type == BinaryTagTypes.LONG_ARRAY) {
+      return visitor.visitLongArray(LongArrayBinaryTagImpl.value(BinaryTagTypes.LONG_ARRAY.read(input)));
+    }
+    return Result.CONTINUE; // an end tag has no value
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A visitor that writes the tags it visits.
+ *
+ * <p>The first compound visited is written as the root tag, with an empty name. Tags must be visited in the same
+ * order they would be read in, and lists must be given their final size when they are started.</p>
+ */
+final class BinaryTagVisitorWriter implements BinaryTagVisitor {
+  private final DataOutput output;
+  private boolean started;
+
+  BinaryTagVisitorWriter(final DataOutput output) {
+    this.output = output;
+  }
+
+  @Override
+  public @NotNull Result visitCompoundStart() throws IOException {
+    if (!this.started) {
+      this.started = true;
+      this.output.writeByte(BinaryTagTypes.COMPOUND.id());
+      this.output.writeUTF(""); // write empty name
+    }
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitKey(final @NotNull String key, final @NotNull BinaryTagType<? extends BinaryTag> type) throws IOException {
+    this.output.writeByte(type.id());
+    ModifiedUtf8.write(this.output, key);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitCompoundEnd() throws IOException {
+    this.output.writeByte(BinaryTagTypes.END.id());
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitListStart(final @NotNull BinaryTagType<? extends BinaryTag> elementType, final int size) throws IOException {
+    this.output.writeByte(elementType.id());
+    this.output.writeInt(size);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitByte(final byte value) throws IOException {
+    this.output.writeByte(value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitShort(final short value) throws IOException {
+    this.output.writeShort(value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitInt(final int value) throws IOException {
+    this.output.writeInt(value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitLong(final long value) throws IOException {
+    this.output.writeLong(value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitFloat(final float value) throws IOException {
+    this.output.writeFloat(value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitDouble(final double value) throws IOException {
+    this.output.writeDouble(value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitString(final @NotNull String value) throws IOException {
+    ModifiedUtf8.write(this.output, value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitByteArray(final byte@NotNull[] value) throws IOException {
+    this.output.writeInt(value.length);
+    this.output.write(value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitIntArray(final int@NotNull[] value) throws IOException {
+    this.output.writeInt(value.length);
+    PrimitiveArrayIO.writeInts(this.output, value);
+    return Result.CONTINUE;
+  }
+
+  @Override
+  public @NotNull Result visitLongArray(final long@NotNull[] value) throws IOException {
+    this.output.writeInt(value.length);
+    PrimitiveArrayIO.writeLongs(this.output, value);
+    return Result.CONTINUE;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.util.Map;
+import net.kyori.adventure.nbt.BinaryTagVisitor.Result;
+
+/**
+ * Drives a {@link BinaryTagVisitor} from tags in memory, in the same order {@link BinaryTagVisitorReader} would from
+ * their encoded form.
+ */
+final class BinaryTagWalker {
+  private BinaryTagWalker() {
+  }
+
+  static boolean visitCompound(final CompoundBinaryTag tag, final BinaryTagVisitor visitor) throws IOException {
+    final Result start = visitor.visitCompoundStart();
+    if (start != Result.CONTINUE) return start == Result.SKIP;
+    for (final Map.Entry<String, ? extends BinaryTag> entry : tag) {
+      final BinaryTag value = entry.getValue();
+      final Result key = visitor.visitKey(entry.getKey(), value.type());
+      if (key == Result.HALT) return false;
+      if (key == Result.CONTINUE && !value.visit(visitor)) return false;
+    }
+    return visitor.visitCompoundEnd() != Result.HALT;
+  }
+
+  static boolean visitList(final ListBinaryTag tag, final BinaryTagVisitor visitor) throws IOException {
+    final BinaryTagType<? extends BinaryTag> elementType = tag.elementType();
+    final int size = tag.size();
+    final Result start = visitor.visitListStart(elementType, size);
+    if (start != Result.CONTINUE) return start == Result.SKIP;
+    final PackedTagList packed = tag instanceof ListBinaryTagImpl ? ((ListBinaryTagImpl) tag).packed() : null;
+    if (packed != null) {
+      // visit the primitives directly, rather than creating a tag for each
+      for (int i = 0; i < size; i++) {
+        if (visitPacked(elementType, packed, i, visitor) == Result.HALT) return false;
+      }
+    } else {
+      for (final BinaryTag element : tag) {
+        if (!element.visit(visitor)) return false;
+      }
+    }
+    return visitor.visitListEnd() != Result.HALT;
+  }
+
+  private static Result visitPacked(final BinaryTagType<? extends BinaryTag> elementType, final PackedTagList packed, final int index, final BinaryTagVisitor visitor) throws IOException {
+    if (elementType == BinaryTagTypes.INT) {
+      return visitor.visitInt(packed.intValue(index));
+    } else if (elementType == BinaryTagTypes.LONG) {
+      return visitor.visitLong(packed.longValue(index));
+    } else if (elementType == BinaryTagTypes.FLOAT) {
+      return visitor.visitFloat(packed.floatValue(index));
+    } else {
+      return visitor.visitDouble(packed.doubleValue(index));
+    }
+  }
+}
@@ -28,15 +28,35 @@ import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import org.jetbrains.annotations.NotNull;
 
 import static net.kyori.adventure.nbt.IOStreamUtil.closeShield;
 
 final class BinaryTagWriterImpl implements BinaryTagIO.Writer {
-  static final BinaryTagIO.Writer INSTANCE = new BinaryTagWriterImpl();
+  static final BinaryTagIO.Writer INSTANCE = new BinaryTagWriterImpl(false);
+  private static final BinaryTagIO.Writer CACHING = new BinaryTagWriterImpl(true);
+  private static final int CHANNEL_BUFFER_SIZE = 0x10000;
+  private final boolean cacheEncoding;
+
+  private BinaryTagWriterImpl(final boolean cacheEncoding) {
+    this.cacheEncoding = cacheEncoding;
+  }
+
+  @Override
+  public BinaryTagIO.@NotNull Writer cacheEncoding() {
+    return CACHING;
+  }
 
   @Override
   public void write(final @NotNull CompoundBinaryTag tag, final @NotNull Path path, final BinaryTagIO.@NotNull Compression compression) throws IOException {
@@ -56,7 +76,37 @@ final class BinaryTagWriterImpl implements BinaryTagIO.Writer {
   public void write(final @NotNull CompoundBinaryTag tag, final @NotNull DataOutput output) throws IOException {
     output.writeByte(BinaryTagTypes.COMPOUND.id());
     output.writeUTF(""); // write empty name
-    BinaryTagTypes.COMPOUND.write(tag, output);
+    this.writePayload(tag, output);
+  }
+
+  private void writePayload(final CompoundBinaryTag tag, final DataOutput output) throws IOException {
+    if (this.cacheEncoding && tag instanceof CompoundBinaryTagImpl) {
+      output.write(((CompoundBinaryTagImpl) tag).encoding());
+    } else {
+      BinaryTagTypes.COMPOUND.write(tag, output);
+    }
+  }
+
+  @Override
+  public void write(final @NotNull CompoundBinaryTag tag, final @NotNull ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < this.sizeOf(tag)) {
+      throw new BufferOverflowException();
+    }
+    final ByteBuffer view = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    this.write(tag, new ByteBufferDataOutput(view));
+    buffer.position(view.position());
+  }
+
+  @Override
+  public void write(final @NotNull CompoundBinaryTag tag, final @NotNull WritableByteChannel channel) throws IOException {
+    final ByteBufferDataOutput output = new ByteBufferDataOutput(ByteBuffer.allocate((int) Math.min(this.sizeOf(tag), CHANNEL_BUFFER_SIZE)), channel);
+    this.write(tag, output);
+    output.flush();
+  }
+
+  @Override
+  public long sizeOf(final @NotNull CompoundBinaryTag tag) {
+    return Byte.BYTES + Short.BYTES + BinaryTagType.size(tag); // type and empty name
   }
 
   @Override
@@ -77,6 +127,38 @@ final class BinaryTagWriterImpl implements BinaryTagIO.Writer {
   public void writeNamed(final Map.@NotNull Entry<String, CompoundBinaryTag> tag, final @NotNull DataOutput output) throws IOException {
     output.writeByte(BinaryTagTypes.COMPOUND.id());
     output.writeUTF(tag.getKey());
-    BinaryTagTypes.COMPOUND.write(tag.getValue(), output);
+    this.writePayload(tag.getValue(), output);
+  }
+
+  @Override
+  public @NotNull CompletableFuture<Void> writeAll(final @NotNull Map<Path, CompoundBinaryTag> tags, final BinaryTagIO.@NotNull Compression compression, final @NotNull Executor executor) {
+    final CompletableFuture<?>[] futures = new CompletableFuture<?>[tags.size()];
+    int i = 0;
+    for (final Map.Entry<Path, CompoundBinaryTag> entry : tags.entrySet()) {
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+      futures[i++] = future;
+      try {
+        executor.execute(() -> {
+          try {
+            this.writeAtomically(entry.getValue(), entry.getKey(), compression);
+            future.complete(null);
+          } catch (final Throwable t) {
+            future.completeExceptionally(t);
+          }
+        });
+      } catch (final RejectedExecutionException e) {
+        future.completeExceptionally(e);
+      }
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
+  private void writeAtomically(final CompoundBinaryTag tag, final Path path, final BinaryTagIO.Compression compression) throws IOException {
+    AtomicFiles.write(path, channel -> this.write(tag, Channels.newOutputStream(channel), compression));
+  }
+
+  @Override
+  public @NotNull BinaryTagVisitor visitor(final @NotNull DataOutput output) {
+    return new BinaryTagVisitorWriter(output);
   }
 }
@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -47,6 +48,11 @@ public interface ByteArrayBinaryTag extends ArrayBinaryTag, Iterable<Byte> {
     return BinaryTagTypes.BYTE_ARRAY;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitByteArray(ByteArrayBinaryTagImpl.value(this)) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
 import org.jetbrains.annotations.Debug;
@@ -57,13 +58,7 @@ public interface ByteBinaryTag extends NumberBinaryTag {
    * @since 4.0.0
    */
   static @NotNull ByteBinaryTag of(final byte value) {
-    if (value == 0) {
-      return ZERO;
-    } else if (value == 1) {
-      return ONE;
-    } else {
-      return new ByteBinaryTagImpl(value);
-    }
+    return ByteBinaryTagImpl.of(value);
   }
 
   @Override
@@ -71,6 +66,11 @@ public interface ByteBinaryTag extends NumberBinaryTag {
     return BinaryTagTypes.BYTE;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitByte(this.value()) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
@@ -82,8 +82,19 @@ public interface ByteBinaryTag extends NumberBinaryTag {
 
 @Debug.Renderer(text = "\"0x\" + Integer.toString(this.value, 16)", hasChildren = "false")
 final class ByteBinaryTagImpl extends AbstractBinaryTag implements ByteBinaryTag {
+  private static final ByteBinaryTag[] CACHE = new ByteBinaryTag[256];
   private final byte value;
 
+  static ByteBinaryTag of(final byte value) {
+    final int index = value - Byte.MIN_VALUE;
+    ByteBinaryTag tag = CACHE[index];
+    if (tag == null) {
+      tag = value == 0 ? ZERO : value == 1 ? ONE : new ByteBinaryTagImpl(value);
+      CACHE[index] = tag;
+    }
+    return tag;
+  }
+
   ByteBinaryTagImpl(final byte value) {
     this.value = value;
   }
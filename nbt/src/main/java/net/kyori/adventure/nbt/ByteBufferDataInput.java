@@ -0,0 +1,249 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link DataInput} reading directly from a {@link ByteBuffer}, with the same depth and size tracking as {@link TrackingDataInput}.
+ *
+ * <p>The buffer is expected to be in big-endian byte order. Bytes read are counted from the position of the buffer when this input was created.</p>
+ */
+final class ByteBufferDataInput implements DataInput, BinaryTagScope {
+  private final ByteBuffer buffer;
+  private final int start;
+  private final long maxLength;
+  private final ModifiedUtf8 utf = new ModifiedUtf8();
+  private final @Nullable KeyInterner interner;
+  private final @Nullable TagInterner tagInterner;
+  private int depth;
+
+  ByteBufferDataInput(final ByteBuffer buffer, final long maxLength) {
+    this(buffer, maxLength, 0, null);
+  }
+
+  ByteBufferDataInput(final ByteBuffer buffer, final long maxLength, final int depth, final @Nullable KeyInterner interner) {
+    this(buffer, maxLength, depth, interner, null);
+  }
+
+  ByteBufferDataInput(final ByteBuffer buffer, final long maxLength, final int depth, final @Nullable KeyInterner interner, final @Nullable TagInterner tagInterner) {
+    this.buffer = buffer;
+    this.start = buffer.position();
+    this.maxLength = maxLength;
+    this.depth = depth;
+    this.interner = interner;
+    this.tagInterner = tagInterner;
+  }
+
+  public ByteBuffer buffer() {
+    return this.buffer;
+  }
+
+  public int depth() {
+    return this.depth;
+  }
+
+  public @Nullable KeyInterner interner() {
+    return this.interner;
+  }
+
+  public @Nullable TagInterner tagInterner() {
+    return this.tagInterner;
+  }
+
+  // enter a nesting level that pre-allocates storage
+  public ByteBufferDataInput enter(final long expectedSize) throws IOException {
+    if (this.depth++ > TrackingDataInput.MAX_DEPTH) {
+      throw new IOException("NBT read exceeded maximum depth of " + TrackingDataInput.MAX_DEPTH);
+    }
+
+    this.ensureMaxLength(expectedSize);
+    return this;
+  }
+
+  public ByteBufferDataInput enter() throws IOException {
+    return this.enter(0);
+  }
+
+  public void exit() throws IOException {
+    this.depth--;
+    this.ensureMaxLength(0);
+  }
+
+  private void ensureMaxLength(final long expected) throws IOException {
+    if (this.maxLength > 0 && (this.buffer.position() - this.start) + expected > this.maxLength) {
+      throw new IOException("The read NBT was longer than the maximum allowed size of " + this.maxLength + " bytes!");
+    }
+  }
+
+  private void require(final int length) throws EOFException {
+    if (this.buffer.remaining() < length) {
+      throw new EOFException("Expected " + length + " more bytes, but only " + this.buffer.remaining() + " were available");
+    }
+  }
+
+  // consume length bytes, returning a big-endian view of them
+  public ByteBuffer bulk(final long length) throws IOException {
+    if (this.buffer.remaining() < length) {
+      throw new EOFException("Expected " + length + " more bytes, but only " + this.buffer.remaining() + " were available");
+    }
+    final ByteBuffer view = this.buffer.slice();
+    view.limit((int) length);
+    this.buffer.position(this.buffer.position() + (int) length);
+    return view;
+  }
+
+  @Override
+  public void readFully(final byte@NotNull[] array) throws IOException {
+    this.readFully(array, 0, array.length);
+  }
+
+  @Override
+  public void readFully(final byte@NotNull[] array, final int off, final int len) throws IOException {
+    this.require(len);
+    this.buffer.get(array, off, len);
+  }
+
+  @Override
+  public int skipBytes(final int n) {
+    final int skipped = Math.max(0, Math.min(n, this.buffer.remaining()));
+    this.buffer.position(this.buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return this.readByte() != 0;
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    this.require(Byte.BYTES);
+    return this.buffer.get();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException {
+    return this.readByte() & 0xff;
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    this.require(Short.BYTES);
+    return this.buffer.getShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException {
+    return this.readShort() & 0xffff;
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    this.require(Character.BYTES);
+    return this.buffer.getChar();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    this.require(Integer.BYTES);
+    return this.buffer.getInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    this.require(Long.BYTES);
+    return this.buffer.getLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    this.require(Float.BYTES);
+    return this.buffer.getFloat();
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    this.require(Double.BYTES);
+    return this.buffer.getDouble();
+  }
+
+  @Override
+  public @Nullable String readLine() {
+    if (!this.buffer.hasRemaining()) {
+      return null;
+    }
+    final StringBuilder line = new StringBuilder();
+    while (this.buffer.hasRemaining()) {
+      final char c = (char) (this.buffer.get() & 0xff);
+      if (c == '\n') {
+        break;
+      } else if (c == '\r') {
+        if (this.buffer.hasRemaining() && this.buffer.get(this.buffer.position()) == '\n') {
+          this.buffer.get();
+        }
+        break;
+      }
+      line.append(c);
+    }
+    return line.toString();
+  }
+
+  @Override
+  public @NotNull String readUTF() throws IOException {
+    return this.readUTF(null);
+  }
+
+  // read a compound key, through the key interner if there is one
+  public @NotNull String readKey() throws IOException {
+    return this.readUTF(this.interner);
+  }
+
+  private String readUTF(final @Nullable KeyInterner interner) throws IOException {
+    final int length = this.readUnsignedShort();
+    this.require(length);
+    final byte[] bytes;
+    final int offset;
+    if (this.buffer.hasArray()) { // decode in place
+      bytes = this.buffer.array();
+      offset = this.buffer.arrayOffset() + this.buffer.position();
+      this.buffer.position(this.buffer.position() + length);
+    } else {
+      bytes = this.utf.bytes(length);
+      offset = 0;
+      this.buffer.get(bytes, 0, length);
+    }
+    return interner != null ? interner.intern(bytes, offset, length, this.utf) : this.utf.decode(bytes, offset, length);
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.exit();
+  }
+}
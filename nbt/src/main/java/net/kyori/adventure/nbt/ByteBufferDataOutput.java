@@ -0,0 +1,191 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link DataOutput} writing directly into a {@link ByteBuffer}.
+ *
+ * <p>The buffer is expected to be in big-endian byte order. When writing to a channel, the buffer is drained into the
+ * channel whenever it fills up, and must be {@link #flush() flushed} once done. Otherwise, writing past the end of the
+ * buffer throws a {@link BufferOverflowException}.</p>
+ */
+final class ByteBufferDataOutput implements DataOutput {
+  private final ByteBuffer buffer;
+  private final @Nullable WritableByteChannel channel;
+
+  ByteBufferDataOutput(final ByteBuffer buffer) {
+    this(buffer, null);
+  }
+
+  ByteBufferDataOutput(final ByteBuffer buffer, final @Nullable WritableByteChannel channel) {
+    this.buffer = buffer;
+    this.channel = channel;
+  }
+
+  // write the buffered bytes to the channel, if there is one
+  public void flush() throws IOException {
+    if (this.channel == null) return;
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+    this.buffer.clear();
+  }
+
+  private void require(final int length) throws IOException {
+    if (this.buffer.remaining() < length) {
+      if (this.channel == null) throw new BufferOverflowException();
+      this.flush();
+    }
+  }
+
+  // reserve length bytes, returning a big-endian view of them, or null if they do not fit in the buffer of a channel
+  public @Nullable ByteBuffer bulk(final long length) throws IOException {
+    if (this.buffer.remaining() < length) {
+      if (this.channel == null) throw new BufferOverflowException();
+      this.flush();
+      if (this.buffer.remaining() < length) return null;
+    }
+    final ByteBuffer view = this.buffer.slice();
+    view.limit((int) length);
+    this.buffer.position(this.buffer.position() + (int) length);
+    return view;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    this.require(Byte.BYTES);
+    this.buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(final byte@NotNull[] b) throws IOException {
+    this.write(b, 0, b.length);
+  }
+
+  @Override
+  public void write(final byte@NotNull[] b, final int off, final int len) throws IOException {
+    if (this.channel == null || len <= this.buffer.capacity()) {
+      this.require(len);
+      this.buffer.put(b, off, len);
+      return;
+    }
+    int offset = off;
+    final int end = off + len;
+    while (offset < end) {
+      if (!this.buffer.hasRemaining()) {
+        this.flush();
+      }
+      final int count = Math.min(end - offset, this.buffer.remaining());
+      this.buffer.put(b, offset, count);
+      offset += count;
+    }
+  }
+
+  @Override
+  public void writeBoolean(final boolean v) throws IOException {
+    this.write(v ? 1 : 0);
+  }
+
+  @Override
+  public void writeByte(final int v) throws IOException {
+    this.write(v);
+  }
+
+  @Override
+  public void writeShort(final int v) throws IOException {
+    this.require(Short.BYTES);
+    this.buffer.putShort((short) v);
+  }
+
+  @Override
+  public void writeChar(final int v) throws IOException {
+    this.require(Character.BYTES);
+    this.buffer.putChar((char) v);
+  }
+
+  @Override
+  public void writeInt(final int v) throws IOException {
+    this.require(Integer.BYTES);
+    this.buffer.putInt(v);
+  }
+
+  @Override
+  public void writeLong(final long v) throws IOException {
+    this.require(Long.BYTES);
+    this.buffer.putLong(v);
+  }
+
+  @Override
+  public void writeFloat(final float v) throws IOException {
+    this.require(Float.BYTES);
+    this.buffer.putFloat(v);
+  }
+
+  @Override
+  public void writeDouble(final double v) throws IOException {
+    this.require(Double.BYTES);
+    this.buffer.putDouble(v);
+  }
+
+  @Override
+  public void writeBytes(final @NotNull String s) throws IOException {
+    for (int i = 0; i < s.length(); i++) {
+      this.write(s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeChars(final @NotNull String s) throws IOException {
+    for (int i = 0; i < s.length(); i++) {
+      this.writeChar(s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeUTF(final @NotNull String s) throws IOException {
+    final int length = ModifiedUtf8.length(s);
+    if (length > ModifiedUtf8.MAX_LENGTH) {
+      throw new UTFDataFormatException("Encoded string too long: " + length + " bytes");
+    }
+    this.writeShort(length);
+    if (this.buffer.hasArray() && this.buffer.remaining() >= length) { // encode in place
+      ModifiedUtf8.encode(s, this.buffer.array(), this.buffer.arrayOffset() + this.buffer.position());
+      this.buffer.position(this.buffer.position() + length);
+    } else {
+      final byte[] bytes = new byte[length];
+      ModifiedUtf8.encode(s, bytes, 0);
+      this.write(bytes);
+    }
+  }
+}
@@ -25,13 +25,17 @@ package net.kyori.adventure.nbt;
 
 /**
  * A character buffer designed to be inspected by a parser.
+ *
+ * <p>Characters are copied into an array once, so the parser can scan them without going through {@link CharSequence#charAt(int)}.</p>
  */
 final class CharBuffer {
   private final CharSequence sequence;
+  private final char[] chars;
   private int index;
 
   CharBuffer(final CharSequence sequence) {
     this.sequence = sequence;
+    this.chars = sequence.toString().toCharArray();
   }
 
   /**
@@ -40,11 +44,11 @@ final class CharBuffer {
    * @return The current character
    */
   public char peek() {
-    return this.sequence.charAt(this.index);
+    return this.chars[this.index];
   }
 
   public char peek(final int offset) {
-    return this.sequence.charAt(this.index + offset);
+    return this.chars[this.index + offset];
   }
 
   /**
@@ -53,7 +57,7 @@ final class CharBuffer {
    * @return current character
    */
   public char take() {
-    return this.sequence.charAt(this.index++);
+    return this.chars[this.index++];
   }
 
   public boolean advance() {
@@ -62,11 +66,36 @@ final class CharBuffer {
   }
 
   public boolean hasMore() {
-    return this.index < this.sequence.length();
+    return this.index < this.chars.length;
   }
 
   public boolean hasMore(final int offset) {
-    return this.index + offset < this.sequence.length();
+    return this.index + offset < this.chars.length;
+  }
+
+  public int index() {
+    return this.index;
+  }
+
+  /**
+   * Get the character at an absolute position.
+   *
+   * @param index the position
+   * @return the character
+   */
+  public char charAt(final int index) {
+    return this.chars[index];
+  }
+
+  /**
+   * Get the characters between two absolute positions.
+   *
+   * @param start the start position, inclusive
+   * @param end the end position, exclusive
+   * @return the characters
+   */
+  public String substring(final int start, final int end) {
+    return new String(this.chars, start, end - start);
   }
 
   /**
@@ -78,10 +107,10 @@ final class CharBuffer {
   public CharSequence takeUntil(char until) throws StringTagParseException {
     until = Character.toLowerCase(until);
     int endIdx = -1;
-    for (int idx = this.index; idx < this.sequence.length(); ++idx) {
-      if (this.sequence.charAt(idx) == Tokens.ESCAPE_MARKER) {
+    for (int idx = this.index; idx < this.chars.length; ++idx) {
+      if (this.chars[idx] == Tokens.ESCAPE_MARKER) {
         idx++;
-      } else if (Character.toLowerCase(this.sequence.charAt(idx)) == until) {
+      } else if (Character.toLowerCase(this.chars[idx]) == until) {
         endIdx = idx;
         break;
       }
@@ -90,11 +119,43 @@ final class CharBuffer {
       throw this.makeError("No occurrence of " + until + " was found");
     }
 
-    final CharSequence result = this.sequence.subSequence(this.index, endIdx);
+    final CharSequence result = this.substring(this.index, endIdx);
     this.index = endIdx + 1;
     return result;
   }
 
+  /**
+   * Take the rest of a quoted string, and advance the reader index past the closing {@code quote}.
+   *
+   * <p>Escape markers are removed, and the characters after them taken literally.</p>
+   *
+   * @param quote the quote the string was opened with
+   * @return the unescaped contents of the string
+   * @throws StringTagParseException if the string is not closed
+   */
+  public String takeQuoted(final char quote) throws StringTagParseException {
+    final int start = this.index;
+    StringBuilder builder = null; // only needed if there are escapes
+    int last = start;
+    for (int idx = start; idx < this.chars.length; idx++) {
+      final char c = this.chars[idx];
+      if (c == Tokens.ESCAPE_MARKER) {
+        if (builder == null) {
+          builder = new StringBuilder(idx - start + 16);
+        }
+        builder.append(this.chars, last, idx - last);
+        last = ++idx; // keep the escaped character
+      } else if (c == quote) {
+        this.index = idx + 1;
+        if (builder == null) {
+          return this.substring(start, idx);
+        }
+        return builder.append(this.chars, last, idx - last).toString();
+      }
+    }
+    throw this.makeError("No occurrence of " + quote + " was found");
+  }
+
   /**
    * Assert that the next non-whitespace character is the provided parameter.
    *
@@ -134,7 +195,7 @@ final class CharBuffer {
   }
 
   public CharBuffer skipWhitespace() {
-    while (this.hasMore() && Character.isWhitespace(this.peek())) this.advance();
+    while (this.index < this.chars.length && Character.isWhitespace(this.chars[this.index])) this.index++;
     return this;
   }
 
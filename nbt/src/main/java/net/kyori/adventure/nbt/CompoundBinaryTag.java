@@ -23,9 +23,10 @@
  */
 package net.kyori.adventure.nbt;
 
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -55,7 +56,7 @@ public interface CompoundBinaryTag extends BinaryTag, CompoundTagSetter<Compound
    */
   static @NotNull CompoundBinaryTag from(final @NotNull Map<String, ? extends BinaryTag> tags) {
     if (tags.isEmpty()) return empty();
-    return new CompoundBinaryTagImpl(new HashMap<>(tags)); // explicitly copy
+    return new CompoundBinaryTagImpl(tags); // copied into an immutable map
   }
 
   /**
@@ -73,6 +74,11 @@ public interface CompoundBinaryTag extends BinaryTag, CompoundTagSetter<Compound
     return BinaryTagTypes.COMPOUND;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return BinaryTagWalker.visitCompound(this, visitor);
+  }
+
   /**
    * Gets a set of all keys.
    *
@@ -414,6 +420,23 @@ public interface CompoundBinaryTag extends BinaryTag, CompoundTagSetter<Compound
    */
   long@NotNull[] getLongArray(final @NotNull String key, final long@NotNull[] defaultValue);
 
+  /**
+   * Applies a batch of edits to this tag and its nested compounds, and returns the result.
+   *
+   * <p>The edits are recorded by a {@link Mutable} that is only usable within {@code action}, and are applied once it
+   * completes. Each compound that changes is copied only once, however many of its entries are edited, which makes
+   * this cheaper than chaining {@code put} calls for several keys or for keys deep within nested compounds.</p>
+   *
+   * <p>If the edits leave every value as it was, this tag is returned.</p>
+   *
+   * @param action the edits to apply
+   * @return the edited compound tag
+   * @since 4.10.0
+   */
+  default @NotNull CompoundBinaryTag edit(final @NotNull Consumer<? super Mutable> action) {
+    return CompoundEditor.edit(this, action);
+  }
+
   /**
    * A compound tag builder.
    *
@@ -428,4 +451,34 @@ public interface CompoundBinaryTag extends BinaryTag, CompoundTagSetter<Compound
      */
     @NotNull CompoundBinaryTag build();
   }
+
+  /**
+   * A mutable view of a compound tag, used to batch edits.
+   *
+   * @see CompoundBinaryTag#edit(Consumer)
+   * @since 4.10.0
+   */
+  interface Mutable extends CompoundTagSetter<Mutable> {
+    /**
+     * Gets the current value of a tag.
+     *
+     * @param key the key
+     * @return the tag, or {@code null}
+     * @since 4.10.0
+     */
+    @Nullable BinaryTag get(final @NotNull String key);
+
+    /**
+     * Gets a mutable view of the compound stored under {@code key}.
+     *
+     * <p>Edits made through the view are stored under {@code key} when the outer edit completes. If there is no
+     * compound under {@code key}, the view starts out empty: a value of another type is replaced by the edited compound,
+     * and a missing value is only added if something was put into the view.</p>
+     *
+     * @param key the key
+     * @return a mutable view of the nested compound
+     * @since 4.10.0
+     */
+    @NotNull Mutable editCompound(final @NotNull String key);
+  }
 }
@@ -23,8 +23,10 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -38,202 +40,112 @@ import org.jetbrains.annotations.Nullable;
 import static java.util.Objects.requireNonNull;
 
 @Debug.Renderer(text = "\"CompoundBinaryTag[length=\" + this.tags.size() + \"]\"", childrenArray = "this.tags.entrySet().toArray()", hasChildren = "!this.tags.isEmpty()")
-final class CompoundBinaryTagImpl extends AbstractBinaryTag implements CompoundBinaryTag {
-  static final CompoundBinaryTag EMPTY = new CompoundBinaryTagImpl(Collections.emptyMap());
-  private final Map<String, BinaryTag> tags;
+final class CompoundBinaryTagImpl extends AbstractCompoundBinaryTag {
+  static final CompoundBinaryTag EMPTY = new CompoundBinaryTagImpl(SmallTagMap.EMPTY);
+  private final TagMap tags;
   private final int hashCode;
+  private volatile long encodedSize = -1L; // computed on demand
+  private volatile @Nullable SoftReference<byte[]> encoding; // set once written by a caching writer
 
-  CompoundBinaryTagImpl(final Map<String, BinaryTag> tags) {
-    this.tags = Collections.unmodifiableMap(tags);
-    this.hashCode = tags.hashCode();
-  }
-
-  public boolean contains(final @NotNull String key, final @NotNull BinaryTagType<?> type) {
-    final @Nullable BinaryTag tag = this.tags.get(key);
-    return tag != null && type.test(tag.type());
-  }
-
-  @Override
-  public @NotNull Set<String> keySet() {
-    return Collections.unmodifiableSet(this.tags.keySet());
+  CompoundBinaryTagImpl(final Map<String, ? extends BinaryTag> tags) {
+    this(TagMap.of(tags));
   }
 
-  @Override
-  public @Nullable BinaryTag get(final String key) {
-    return this.tags.get(key);
-  }
-
-  @Override
-  public @NotNull CompoundBinaryTag put(final @NotNull String key, final @NotNull BinaryTag tag) {
-    return this.edit(map -> map.put(key, tag));
-  }
-
-  @Override
-  public @NotNull CompoundBinaryTag put(final @NotNull CompoundBinaryTag tag) {
-    return this.edit(map -> {
-      for (final String key : tag.keySet()) {
-        map.put(key, tag.get(key));
-      }
-    });
-  }
-
-  @Override
-  public @NotNull CompoundBinaryTag put(final @NotNull Map<String, ? extends BinaryTag> tags) {
-    return this.edit(map -> map.putAll(tags));
-  }
-
-  @Override
-  public @NotNull CompoundBinaryTag remove(final @NotNull String key, final @Nullable Consumer<? super BinaryTag> removed) {
-    if (!this.tags.containsKey(key)) {
-      return this;
-    }
-    return this.edit(map -> {
-      final BinaryTag tag = map.remove(key);
-      if (removed != null) {
-        removed.accept(tag);
-      }
-    });
-  }
-
-  @Override
-  public byte getByte(final @NotNull String key, final byte defaultValue) {
-    if (this.contains(key, BinaryTagTypes.BYTE)) {
-      return ((NumberBinaryTag) this.tags.get(key)).byteValue();
-    }
-    return defaultValue;
-  }
-
-  @Override
-  public short getShort(final @NotNull String key, final short defaultValue) {
-    if (this.contains(key, BinaryTagTypes.SHORT)) {
-      return ((NumberBinaryTag) this.tags.get(key)).shortValue();
-    }
-    return defaultValue;
-  }
-
-  @Override
-  public int getInt(final @NotNull String key, final int defaultValue) {
-    if (this.contains(key, BinaryTagTypes.INT)) {
-      return ((NumberBinaryTag) this.tags.get(key)).intValue();
-    }
-    return defaultValue;
+  CompoundBinaryTagImpl(final TagMap tags) {
+    this.tags = tags;
+    this.hashCode = tags.hashCode();
   }
 
-  @Override
-  public long getLong(final @NotNull String key, final long defaultValue) {
-    if (this.contains(key, BinaryTagTypes.LONG)) {
-      return ((NumberBinaryTag) this.tags.get(key)).longValue();
-    }
-    return defaultValue;
+  TagMap tags() {
+    return this.tags;
   }
 
-  @Override
-  public float getFloat(final @NotNull String key, final float defaultValue) {
-    if (this.contains(key, BinaryTagTypes.FLOAT)) {
-      return ((NumberBinaryTag) this.tags.get(key)).floatValue();
+  long encodedSize() {
+    long size = this.encodedSize;
+    if (size < 0) {
+      size = BinaryTagType.compoundSize(this);
+      this.encodedSize = size;
     }
-    return defaultValue;
+    return size;
   }
 
-  @Override
-  public double getDouble(final @NotNull String key, final double defaultValue) {
-    if (this.contains(key, BinaryTagTypes.DOUBLE)) {
-      return ((NumberBinaryTag) this.tags.get(key)).doubleValue();
-    }
-    return defaultValue;
+  // the encoded payload of this compound, if it has been cached and not yet collected
+  byte@Nullable[] cachedEncoding() {
+    final SoftReference<byte[]> encoding = this.encoding;
+    return encoding != null ? encoding.get() : null;
   }
 
-  @Override
-  public byte@NotNull[] getByteArray(final @NotNull String key) {
-    if (this.contains(key, BinaryTagTypes.BYTE_ARRAY)) {
-      return ((ByteArrayBinaryTag) this.tags.get(key)).value();
+  // the encoded payload of this compound, encoding and caching it if necessary
+  byte[] encoding() throws IOException {
+    byte[] bytes = this.cachedEncoding();
+    if (bytes == null) {
+      bytes = new byte[Math.toIntExact(this.encodedSize())];
+      BinaryTagTypes.COMPOUND.write(this, new ByteBufferDataOutput(ByteBuffer.wrap(bytes)));
+      this.encoding = new SoftReference<>(bytes);
     }
-    return new byte[0];
+    return bytes;
   }
 
   @Override
-  public byte@NotNull[] getByteArray(final @NotNull String key, final byte@NotNull[] defaultValue) {
-    if (this.contains(key, BinaryTagTypes.BYTE_ARRAY)) {
-      return ((ByteArrayBinaryTag) this.tags.get(key)).value();
-    }
-    return defaultValue;
+  public @NotNull Set<String> keySet() {
+    return Collections.unmodifiableSet(this.tags.keySet());
   }
 
   @Override
-  public @NotNull String getString(final @NotNull String key, final @NotNull String defaultValue) {
-    if (this.contains(key, BinaryTagTypes.STRING)) {
-      return ((StringBinaryTag) this.tags.get(key)).value();
-    }
-    return defaultValue;
+  public @Nullable BinaryTag get(final String key) {
+    return this.tags.get(key);
   }
 
   @Override
-  public @NotNull ListBinaryTag getList(final @NotNull String key, final @NotNull ListBinaryTag defaultValue) {
-    if (this.contains(key, BinaryTagTypes.LIST)) {
-      return (ListBinaryTag) this.tags.get(key);
-    }
-    return defaultValue;
+  public @NotNull CompoundBinaryTag put(final @NotNull String key, final @NotNull BinaryTag tag) {
+    return this.with(this.tags.with(key, tag));
   }
 
   @Override
-  public @NotNull ListBinaryTag getList(final @NotNull String key, final @NotNull BinaryTagType<? extends BinaryTag> expectedType, final @NotNull ListBinaryTag defaultValue) {
-    if (this.contains(key, BinaryTagTypes.LIST)) {
-      final ListBinaryTag tag = (ListBinaryTag) this.tags.get(key);
-      if (expectedType.test(tag.elementType())) {
-        return tag;
-      }
+  public @NotNull CompoundBinaryTag put(final @NotNull CompoundBinaryTag tag) {
+    TagMap tags = this.tags;
+    for (final String key : tag.keySet()) {
+      tags = tags.with(key, tag.get(key));
     }
-    return defaultValue;
+    return this.with(tags);
   }
 
   @Override
-  public @NotNull CompoundBinaryTag getCompound(final @NotNull String key, final @NotNull CompoundBinaryTag defaultValue) {
-    if (this.contains(key, BinaryTagTypes.COMPOUND)) {
-      return (CompoundBinaryTag) this.tags.get(key);
+  public @NotNull CompoundBinaryTag put(final @NotNull Map<String, ? extends BinaryTag> tags) {
+    if (this.tags.isEmpty()) {
+      return this.with(TagMap.of(tags));
     }
-    return defaultValue;
-  }
-
-  @Override
-  public int@NotNull[] getIntArray(final @NotNull String key) {
-    if (this.contains(key, BinaryTagTypes.INT_ARRAY)) {
-      return ((IntArrayBinaryTag) this.tags.get(key)).value();
+    TagMap result = this.tags;
+    for (final Map.Entry<String, ? extends BinaryTag> entry : tags.entrySet()) {
+      result = result.with(entry.getKey(), entry.getValue());
     }
-    return new int[0];
+    return this.with(result);
   }
 
   @Override
-  public int@NotNull[] getIntArray(final @NotNull String key, final int@NotNull[] defaultValue) {
-    if (this.contains(key, BinaryTagTypes.INT_ARRAY)) {
-      return ((IntArrayBinaryTag) this.tags.get(key)).value();
+  public @NotNull CompoundBinaryTag remove(final @NotNull String key, final @Nullable Consumer<? super BinaryTag> removed) {
+    final @Nullable BinaryTag tag = this.tags.get(key);
+    if (tag == null) {
+      return this;
     }
-    return defaultValue;
-  }
-
-  @Override
-  public long@NotNull[] getLongArray(final @NotNull String key) {
-    if (this.contains(key, BinaryTagTypes.LONG_ARRAY)) {
-      return ((LongArrayBinaryTag) this.tags.get(key)).value();
+    if (removed != null) {
+      removed.accept(tag);
     }
-    return new long[0];
+    return this.with(this.tags.without(key));
   }
 
-  @Override
-  public long@NotNull[] getLongArray(final @NotNull String key, final long@NotNull[] defaultValue) {
-    if (this.contains(key, BinaryTagTypes.LONG_ARRAY)) {
-      return ((LongArrayBinaryTag) this.tags.get(key)).value();
+  private CompoundBinaryTag with(final TagMap tags) {
+    if (tags == this.tags) {
+      return this;
     }
-    return defaultValue;
-  }
-
-  private CompoundBinaryTag edit(final Consumer<Map<String, BinaryTag>> consumer) {
-    final Map<String, BinaryTag> tags = new HashMap<>(this.tags);
-    consumer.accept(tags);
     return new CompoundBinaryTagImpl(tags);
   }
 
   @Override
   public boolean equals(final Object that) {
+    if (that instanceof LazyCompoundBinaryTag) {
+      return this.equals(((LazyCompoundBinaryTag) that).materialized());
+    }
     return this == that || (that instanceof CompoundBinaryTagImpl && this.tags.equals(((CompoundBinaryTagImpl) that).tags));
   }
 
@@ -0,0 +1,207 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records edits to a compound and its nested compounds, and applies them all at once when frozen.
+ *
+ * <p>Changes are kept beside the original compound rather than applied to it, so that each edited compound is copied
+ * once no matter how many of its entries change.</p>
+ */
+final class CompoundEditor implements CompoundBinaryTag.Mutable {
+  private final @Nullable CompoundEditor parent;
+  private final CompoundEditor root;
+  private final CompoundBinaryTag original;
+  private final boolean created; // whether there was no value to edit, so an empty result is dropped
+  // new values, in the order they were first set; a null value marks a removed key
+  private final Map<String, @Nullable BinaryTag> changes = new LinkedHashMap<>();
+  private final Map<String, CompoundEditor> children = new LinkedHashMap<>();
+  private @Nullable CompoundBinaryTag frozen; // the result of freeze, until the next change here or below
+  private boolean closed; // only used on the root
+
+  CompoundEditor(final CompoundBinaryTag original) {
+    this(null, original, false);
+  }
+
+  private CompoundEditor(final @Nullable CompoundEditor parent, final CompoundBinaryTag original, final boolean created) {
+    this.parent = parent;
+    this.root = parent != null ? parent.root : this;
+    this.original = original;
+    this.created = created;
+  }
+
+  static CompoundBinaryTag edit(final CompoundBinaryTag original, final Consumer<? super CompoundBinaryTag.Mutable> action) {
+    final CompoundEditor editor = new CompoundEditor(original);
+    try {
+      action.accept(editor);
+      return editor.freeze();
+    } finally {
+      editor.closed = true;
+    }
+  }
+
+  private void checkOpen() {
+    if (this.root.closed) {
+      throw new IllegalStateException("This compound can no longer be edited");
+    }
+  }
+
+  @Override
+  public @Nullable BinaryTag get(final @NotNull String key) {
+    this.checkOpen();
+    final CompoundEditor child = this.children.get(key);
+    if (child != null) {
+      final @Nullable CompoundBinaryTag tag = child.result();
+      if (tag != null) return tag;
+    }
+    if (this.changes.containsKey(key)) return this.changes.get(key);
+    return this.original.get(key);
+  }
+
+  @Override
+  public CompoundBinaryTag.@NotNull Mutable editCompound(final @NotNull String key) {
+    this.checkOpen();
+    CompoundEditor child = this.children.get(key);
+    if (child == null) {
+      final BinaryTag current = this.get(key);
+      child = current instanceof CompoundBinaryTag
+        ? new CompoundEditor(this, (CompoundBinaryTag) current, false)
+        : new CompoundEditor(this, CompoundBinaryTag.empty(), current == null);
+      this.children.put(key, child);
+      this.changed(); // a value of another type is replaced
+    }
+    return child;
+  }
+
+  @Override
+  public CompoundBinaryTag.@NotNull Mutable put(final @NotNull String key, final @NotNull BinaryTag tag) {
+    this.checkOpen();
+    requireNonNull(key, "key");
+    requireNonNull(tag, "tag");
+    this.children.remove(key);
+    this.changes.put(key, tag);
+    this.changed();
+    return this;
+  }
+
+  @Override
+  public CompoundBinaryTag.@NotNull Mutable put(final @NotNull CompoundBinaryTag tag) {
+    for (final String key : tag.keySet()) {
+      this.put(key, tag.get(key));
+    }
+    return this;
+  }
+
+  @Override
+  public CompoundBinaryTag.@NotNull Mutable put(final @NotNull Map<String, ? extends BinaryTag> tags) {
+    for (final Map.Entry<String, ? extends BinaryTag> entry : tags.entrySet()) {
+      this.put(entry.getKey(), entry.getValue());
+    }
+    return this;
+  }
+
+  @Override
+  public CompoundBinaryTag.@NotNull Mutable remove(final @NotNull String key, final @Nullable Consumer<? super BinaryTag> removed) {
+    final @Nullable BinaryTag tag = this.get(key);
+    if (tag == null) return this;
+    this.children.remove(key);
+    this.changes.put(key, null);
+    this.changed();
+    if (removed != null) {
+      removed.accept(tag);
+    }
+    return this;
+  }
+
+  // drops the frozen results of this compound and the compounds containing it; a compound is only frozen after its children
+  private void changed() {
+    for (CompoundEditor editor = this; editor != null && editor.frozen != null; editor = editor.parent) {
+      editor.frozen = null;
+    }
+  }
+
+  // the frozen compound, or null if this editor was created for a missing value and nothing was written to it
+  private @Nullable CompoundBinaryTag result() {
+    final CompoundBinaryTag tag = this.freeze();
+    return this.created && tag.keySet().isEmpty() ? null : tag;
+  }
+
+  // the original compound with all recorded changes applied; it is returned unchanged if nothing differs
+  CompoundBinaryTag freeze() {
+    CompoundBinaryTag frozen = this.frozen;
+    if (frozen == null) {
+      frozen = this.apply();
+      this.frozen = frozen;
+    }
+    return frozen;
+  }
+
+  private CompoundBinaryTag apply() {
+    final Map<String, @Nullable BinaryTag> changes = new LinkedHashMap<>(this.changes);
+    for (final Map.Entry<String, CompoundEditor> entry : this.children.entrySet()) {
+      final @Nullable CompoundBinaryTag tag = entry.getValue().result();
+      if (tag != null) changes.put(entry.getKey(), tag);
+    }
+    changes.entrySet().removeIf(entry -> entry.getValue() == this.original.get(entry.getKey()));
+    if (changes.isEmpty()) return this.original;
+
+    final TagMap tags;
+    if (this.original instanceof CompoundBinaryTagImpl && ((CompoundBinaryTagImpl) this.original).tags() instanceof PersistentTagMap) {
+      // large compounds share all but the paths to the changed entries, and copy each node on those paths once
+      final PersistentTagMap.Editor editor = ((PersistentTagMap) ((CompoundBinaryTagImpl) this.original).tags()).edit();
+      for (final Map.Entry<String, @Nullable BinaryTag> entry : changes.entrySet()) {
+        final @Nullable BinaryTag value = entry.getValue();
+        if (value == null) {
+          editor.remove(entry.getKey());
+        } else {
+          editor.put(entry.getKey(), value);
+        }
+      }
+      tags = editor.build();
+    } else {
+      final TagMap.Builder builder = new TagMap.Builder();
+      for (final Map.Entry<String, ? extends BinaryTag> entry : this.original) {
+        builder.put(entry.getKey(), entry.getValue());
+      }
+      for (final Map.Entry<String, @Nullable BinaryTag> entry : changes.entrySet()) {
+        final @Nullable BinaryTag value = entry.getValue();
+        if (value == null) {
+          builder.remove(entry.getKey());
+        } else {
+          builder.put(entry.getKey(), value);
+        }
+      }
+      tags = builder.build();
+    }
+    return tags.isEmpty() ? CompoundBinaryTag.empty() : new CompoundBinaryTagImpl(tags);
+  }
+}
@@ -23,18 +23,17 @@
  */
 package net.kyori.adventure.nbt;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Consumer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 final class CompoundTagBuilder implements CompoundBinaryTag.Builder {
-  private @Nullable Map<String, BinaryTag> tags;
+  private @Nullable TagMap.Builder tags;
 
-  private Map<String, BinaryTag> tags() {
+  private TagMap.Builder tags() {
     if (this.tags == null) {
-      this.tags = new HashMap<>();
+      this.tags = new TagMap.Builder();
     }
     return this.tags;
   }
@@ -47,7 +46,7 @@ final class CompoundTagBuilder implements CompoundBinaryTag.Builder {
 
   @Override
   public CompoundBinaryTag.@NotNull Builder put(final @NotNull CompoundBinaryTag tag) {
-    final Map<String, BinaryTag> tags = this.tags();
+    final TagMap.Builder tags = this.tags();
     for (final String key : tag.keySet()) {
       tags.put(key, tag.get(key));
     }
@@ -56,7 +55,10 @@ final class CompoundTagBuilder implements CompoundBinaryTag.Builder {
 
   @Override
   public CompoundBinaryTag.@NotNull Builder put(final @NotNull Map<String, ? extends BinaryTag> tags) {
-    this.tags().putAll(tags);
+    final TagMap.Builder builder = this.tags();
+    for (final Map.Entry<String, ? extends BinaryTag> entry : tags.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue());
+    }
     return this;
   }
 
@@ -74,6 +76,6 @@ final class CompoundTagBuilder implements CompoundBinaryTag.Builder {
   @Override
   public @NotNull CompoundBinaryTag build() {
     if (this.tags == null) return CompoundBinaryTag.empty();
-    return new CompoundBinaryTagImpl(new HashMap<>(this.tags));
+    return new CompoundBinaryTagImpl(this.tags.build());
   }
 }
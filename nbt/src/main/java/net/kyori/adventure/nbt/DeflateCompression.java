@@ -0,0 +1,323 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * GZIP or ZLIB compression at a fixed level, reusing pooled {@link Deflater}s and {@link Inflater}s.
+ *
+ * <p>Codecs are returned to the pool when the stream using them is closed.</p>
+ */
+final class DeflateCompression extends BinaryTagIO.Compression {
+  private static final int BUFFER_SIZE = 8192;
+  private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+  private static final DeflateCompression[] GZIP = new DeflateCompression[11];
+  private static final DeflateCompression[] ZLIB = new DeflateCompression[11];
+  private final boolean gzip;
+  private final int level;
+  private final Pool<Deflater> deflaters;
+  private final Pool<Inflater> inflaters;
+
+  private DeflateCompression(final boolean gzip, final int level) {
+    this.gzip = gzip;
+    this.level = level;
+    this.deflaters = new Pool<>(() -> new Deflater(level, gzip), Deflater::reset, Deflater::end);
+    this.inflaters = new Pool<>(() -> new Inflater(gzip), Inflater::reset, Inflater::end);
+  }
+
+  // the shared compression for a format and level
+  static DeflateCompression create(final boolean gzip, final int level) {
+    final DeflateCompression[] cache = gzip ? GZIP : ZLIB;
+    if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("Compression level must be between -1 and 9, was " + level);
+    }
+    synchronized (cache) {
+      DeflateCompression compression = cache[level + 1];
+      if (compression == null) {
+        compression = new DeflateCompression(gzip, level);
+        cache[level + 1] = compression;
+      }
+      return compression;
+    }
+  }
+
+  // whether this compression uses the gzip format, rather than zlib
+  boolean gzip() {
+    return this.gzip;
+  }
+
+  @Override
+  @NotNull InputStream decompress(final @NotNull InputStream is) throws IOException {
+    final Inflater inflater = this.inflaters.acquire();
+    try {
+      return this.gzip ? new GzipInputStream(is, inflater, this.inflaters) : new PooledInflaterInputStream(is, inflater, this.inflaters);
+    } catch (final IOException | RuntimeException e) {
+      this.inflaters.release(inflater);
+      throw e;
+    }
+  }
+
+  @Override
+  @NotNull OutputStream compress(final @NotNull OutputStream os) throws IOException {
+    final Deflater deflater = this.deflaters.acquire();
+    try {
+      return this.gzip ? new GzipOutputStream(os, deflater, this.deflaters) : new PooledDeflaterOutputStream(os, deflater, this.deflaters);
+    } catch (final IOException | RuntimeException e) {
+      this.deflaters.release(deflater);
+      throw e;
+    }
+  }
+
+  @Override
+  public String toString() {
+    final String name = this.gzip ? "Compression.GZIP" : "Compression.ZLIB";
+    return this.level == Deflater.DEFAULT_COMPRESSION ? name : name + "[level=" + this.level + "]";
+  }
+
+  // a bounded pool of codecs, ending those that do not fit
+  private static final class Pool<T> {
+    private final ArrayBlockingQueue<T> codecs = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final Consumer<T> end;
+
+    Pool(final Supplier<T> factory, final Consumer<T> reset, final Consumer<T> end) {
+      this.factory = factory;
+      this.reset = reset;
+      this.end = end;
+    }
+
+    T acquire() {
+      final T codec = this.codecs.poll();
+      return codec != null ? codec : this.factory.get();
+    }
+
+    void release(final T codec) {
+      this.reset.accept(codec);
+      if (!this.codecs.offer(codec)) {
+        this.end.accept(codec);
+      }
+    }
+  }
+
+  private static class PooledInflaterInputStream extends InflaterInputStream {
+    private final Pool<Inflater> pool;
+    private boolean released;
+
+    PooledInflaterInputStream(final InputStream in, final Inflater inflater, final Pool<Inflater> pool) {
+      super(in, inflater, BUFFER_SIZE);
+      this.pool = pool;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        if (!this.released) {
+          this.released = true;
+          this.pool.release(this.inf);
+        }
+      }
+    }
+  }
+
+  private static class PooledDeflaterOutputStream extends DeflaterOutputStream {
+    private final Pool<Deflater> pool;
+    private boolean released;
+
+    PooledDeflaterOutputStream(final OutputStream out, final Deflater deflater, final Pool<Deflater> pool) {
+      super(out, deflater, BUFFER_SIZE);
+      this.pool = pool;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (this.released) return;
+      try {
+        this.finish();
+        this.out.close();
+      } finally {
+        this.released = true;
+        this.pool.release(this.def);
+      }
+    }
+  }
+
+  // the GZIP member format of RFC 1952, over a raw inflater
+  private static final class GzipInputStream extends PooledInflaterInputStream {
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private final CRC32 crc = new CRC32();
+    private int pending; // the position of the next unread byte in buf, once the inflater has finished
+    private boolean eos;
+
+    GzipInputStream(final InputStream in, final Inflater inflater, final Pool<Inflater> pool) throws IOException {
+      super(in, inflater, pool);
+      if (!this.readHeader()) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (this.eos) return -1;
+      final int read = super.read(b, off, len);
+      if (read == -1) {
+        this.pending = this.len - this.inf.getRemaining();
+        this.readTrailer();
+        if (!this.readNextHeader()) {
+          this.eos = true;
+          return -1;
+        }
+        this.inf.reset();
+        if (this.pending < this.len) {
+          this.inf.setInput(this.buf, this.pending, this.len - this.pending);
+        }
+        return this.read(b, off, len);
+      }
+      this.crc.update(b, off, read);
+      return read;
+    }
+
+    private int next() throws IOException {
+      return this.pending < this.len ? this.buf[this.pending++] & 0xff : this.in.read();
+    }
+
+    private int nextByte() throws IOException {
+      final int value = this.next();
+      if (value == -1) throw new EOFException("Unexpected end of GZIP data");
+      return value;
+    }
+
+    private int nextShort() throws IOException {
+      return this.nextByte() | this.nextByte() << 8;
+    }
+
+    private long nextInt() throws IOException {
+      return (this.nextShort() | (long) this.nextShort() << 16) & 0xffffffffL;
+    }
+
+    // read the header of a member, returning false if there are no more members
+    private boolean readHeader() throws IOException {
+      final int first = this.next();
+      if (first == -1) return false;
+      if (first != 0x1f || this.nextByte() != 0x8b) {
+        if (this.inf.getBytesRead() == 0) throw new ZipException("Not in GZIP format");
+        return false; // trailing garbage after a member is ignored
+      }
+      if (this.nextByte() != Deflater.DEFLATED) throw new ZipException("Unsupported compression method");
+      final int flags = this.nextByte();
+      for (int i = 0; i < 6; i++) {
+        this.nextByte(); // modification time, extra flags and operating system
+      }
+      if ((flags & FEXTRA) != 0) {
+        final int length = this.nextShort();
+        for (int i = 0; i < length; i++) {
+          this.nextByte();
+        }
+      }
+      if ((flags & FNAME) != 0) {
+        this.skipZeroTerminated();
+      }
+      if ((flags & FCOMMENT) != 0) {
+        this.skipZeroTerminated();
+      }
+      if ((flags & FHCRC) != 0) {
+        this.nextShort();
+      }
+      this.crc.reset();
+      return true;
+    }
+
+    // read the header of a following member, if one is available without blocking, as GZIPInputStream does
+    private boolean readNextHeader() throws IOException {
+      if (this.pending >= this.len && this.in.available() <= 0) return false;
+      try {
+        return this.readHeader();
+      } catch (final EOFException | ZipException e) {
+        return false; // a truncated or garbled header after a member ends the stream
+      }
+    }
+
+    private void skipZeroTerminated() throws IOException {
+      int value;
+      do {
+        value = this.nextByte();
+      } while (value != 0);
+    }
+
+    private void readTrailer() throws IOException {
+      if (this.nextInt() != this.crc.getValue()) throw new ZipException("Corrupt GZIP trailer");
+      if (this.nextInt() != (this.inf.getBytesWritten() & 0xffffffffL)) throw new ZipException("Corrupt GZIP trailer");
+    }
+  }
+
+  private static final class GzipOutputStream extends PooledDeflaterOutputStream {
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private final CRC32 crc = new CRC32();
+
+    GzipOutputStream(final OutputStream out, final Deflater deflater, final Pool<Deflater> pool) throws IOException {
+      super(out, deflater, pool);
+      out.write(HEADER);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      super.write(b, off, len);
+      this.crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+      if (this.def.finished()) return;
+      super.finish();
+      this.writeInt((int) this.crc.getValue());
+      this.writeInt((int) this.def.getBytesRead());
+    }
+
+    private void writeInt(final int value) throws IOException {
+      this.out.write(value);
+      this.out.write(value >>> 8);
+      this.out.write(value >>> 16);
+      this.out.write(value >>> 24);
+    }
+  }
+}
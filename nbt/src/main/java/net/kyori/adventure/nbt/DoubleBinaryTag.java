@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
 import org.jetbrains.annotations.Debug;
@@ -43,7 +44,7 @@ public interface DoubleBinaryTag extends NumberBinaryTag {
    * @since 4.0.0
    */
   static @NotNull DoubleBinaryTag of(final double value) {
-    return new DoubleBinaryTagImpl(value);
+    return DoubleBinaryTagImpl.of(value);
   }
 
   @Override
@@ -51,6 +52,11 @@ public interface DoubleBinaryTag extends NumberBinaryTag {
     return BinaryTagTypes.DOUBLE;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitDouble(this.value()) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
@@ -62,8 +68,17 @@ public interface DoubleBinaryTag extends NumberBinaryTag {
 
 @Debug.Renderer(text = "String.valueOf(this.value) + \"d\"", hasChildren = "false")
 final class DoubleBinaryTagImpl extends AbstractBinaryTag implements DoubleBinaryTag {
+  private static final DoubleBinaryTag[] CACHE = {new DoubleBinaryTagImpl(0d), new DoubleBinaryTagImpl(1d), new DoubleBinaryTagImpl(-1d), new DoubleBinaryTagImpl(0.5d)};
   private final double value;
 
+  static DoubleBinaryTag of(final double value) {
+    final long bits = Double.doubleToRawLongBits(value);
+    for (final DoubleBinaryTag tag : CACHE) {
+      if (Double.doubleToRawLongBits(tag.value()) == bits) return tag;
+    }
+    return new DoubleBinaryTagImpl(value);
+  }
+
   DoubleBinaryTagImpl(final double value) {
     this.value = value;
   }
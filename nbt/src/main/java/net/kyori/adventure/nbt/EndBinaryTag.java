@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -45,6 +46,11 @@ public interface EndBinaryTag extends BinaryTag {
   default @NotNull BinaryTagType<EndBinaryTag> type() {
     return BinaryTagTypes.END;
   }
+
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return true; // an end tag has no value
+  }
 }
 
 final class EndBinaryTagImpl extends AbstractBinaryTag implements EndBinaryTag {
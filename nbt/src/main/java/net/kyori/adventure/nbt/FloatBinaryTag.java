@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
 import org.jetbrains.annotations.Debug;
@@ -43,7 +44,7 @@ public interface FloatBinaryTag extends NumberBinaryTag {
    * @since 4.0.0
    */
   static @NotNull FloatBinaryTag of(final float value) {
-    return new FloatBinaryTagImpl(value);
+    return FloatBinaryTagImpl.of(value);
   }
 
   @Override
@@ -51,6 +52,11 @@ public interface FloatBinaryTag extends NumberBinaryTag {
     return BinaryTagTypes.FLOAT;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitFloat(this.value()) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
@@ -62,8 +68,18 @@ public interface FloatBinaryTag extends NumberBinaryTag {
 
 @Debug.Renderer(text = "String.valueOf(this.value) + \"f\"", hasChildren = "false")
 final class FloatBinaryTagImpl extends AbstractBinaryTag implements FloatBinaryTag {
+  private static final FloatBinaryTag[] CACHE = {new FloatBinaryTagImpl(0f), new FloatBinaryTagImpl(1f), new FloatBinaryTagImpl(-1f), new FloatBinaryTagImpl(0.5f)};
   private final float value;
 
+  static FloatBinaryTag of(final float value) {
+    // compare bits, so that -0.0 and the various NaNs keep their own instances
+    final int bits = Float.floatToRawIntBits(value);
+    for (final FloatBinaryTag tag : CACHE) {
+      if (Float.floatToRawIntBits(tag.value()) == bits) return tag;
+    }
+    return new FloatBinaryTagImpl(value);
+  }
+
   FloatBinaryTagImpl(final float value) {
     this.value = value;
   }
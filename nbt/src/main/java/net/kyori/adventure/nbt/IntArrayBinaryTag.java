@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.function.IntConsumer;
@@ -51,6 +52,11 @@ public interface IntArrayBinaryTag extends ArrayBinaryTag, Iterable<Integer> {
     return BinaryTagTypes.INT_ARRAY;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitIntArray(IntArrayBinaryTagImpl.value(this)) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
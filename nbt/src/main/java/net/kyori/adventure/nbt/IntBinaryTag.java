@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
 import org.jetbrains.annotations.Debug;
@@ -43,7 +44,7 @@ public interface IntBinaryTag extends NumberBinaryTag {
    * @since 4.0.0
    */
   static @NotNull IntBinaryTag of(final int value) {
-    return new IntBinaryTagImpl(value);
+    return IntBinaryTagImpl.of(value);
   }
 
   @Override
@@ -51,6 +52,11 @@ public interface IntBinaryTag extends NumberBinaryTag {
     return BinaryTagTypes.INT;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitInt(this.value()) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
@@ -62,8 +68,20 @@ public interface IntBinaryTag extends NumberBinaryTag {
 
 @Debug.Renderer(text = "String.valueOf(this.value) + \"i\"", hasChildren = "false")
 final class IntBinaryTagImpl extends AbstractBinaryTag implements IntBinaryTag {
+  private static final IntBinaryTag[] CACHE = new IntBinaryTag[NumberTagCache.size(NumberTagCache.LOW, NumberTagCache.HIGH)];
   private final int value;
 
+  static IntBinaryTag of(final int value) {
+    if (value < NumberTagCache.LOW || value > NumberTagCache.HIGH) return new IntBinaryTagImpl(value);
+    final int index = value - NumberTagCache.LOW;
+    IntBinaryTag tag = CACHE[index];
+    if (tag == null) {
+      tag = new IntBinaryTagImpl(value);
+      CACHE[index] = tag;
+    }
+    return tag;
+  }
+
   IntBinaryTagImpl(final int value) {
     this.value = value;
   }
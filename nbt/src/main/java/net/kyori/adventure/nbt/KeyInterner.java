@@ -0,0 +1,96 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded table of compound keys, looked up by their encoded bytes before any string is created.
+ *
+ * <p>The table is a fixed-size, direct-mapped cache: each key hashes to a single slot, and a key that hashes to an
+ * occupied slot replaces the previous key. Lookups and replacements are lock-free, and only keys short enough to be
+ * likely to repeat are interned.</p>
+ */
+final class KeyInterner {
+  static final KeyInterner SHARED = new KeyInterner(4096);
+  private static final int MAX_KEY_LENGTH = 64;
+  private final AtomicReferenceArray<Entry> table;
+  private final int mask;
+
+  KeyInterner(final int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("capacity must be a power of two, was " + capacity);
+    }
+    this.table = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Gets the interned key for some encoded bytes, decoding and interning it if necessary.
+   *
+   * @param bytes the encoded bytes
+   * @param offset the offset of the key
+   * @param length the encoded length of the key
+   * @param utf the codec to decode with
+   * @return the key
+   * @throws UTFDataFormatException if the key is malformed
+   */
+  String intern(final byte[] bytes, final int offset, final int length, final ModifiedUtf8 utf) throws UTFDataFormatException {
+    if (length > MAX_KEY_LENGTH) {
+      return utf.decode(bytes, offset, length);
+    }
+    int hash = length;
+    for (int i = offset; i < offset + length; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+    final int slot = (hash ^ (hash >>> 16)) & this.mask;
+    final Entry entry = this.table.get(slot);
+    if (entry != null && entry.matches(bytes, offset, length)) {
+      return entry.key;
+    }
+    final String key = utf.decode(bytes, offset, length);
+    this.table.lazySet(slot, new Entry(Arrays.copyOfRange(bytes, offset, offset + length), key));
+    return key;
+  }
+
+  private static final class Entry {
+    final byte[] bytes;
+    final String key;
+
+    Entry(final byte[] bytes, final String key) {
+      this.bytes = bytes;
+      this.key = key;
+    }
+
+    boolean matches(final byte[] bytes, final int offset, final int length) {
+      if (this.bytes.length != length) return false;
+      for (int i = 0; i < length; i++) {
+        if (this.bytes[i] != bytes[offset + i]) return false;
+      }
+      return true;
+    }
+  }
+}
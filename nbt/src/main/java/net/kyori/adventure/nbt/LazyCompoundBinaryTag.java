@@ -0,0 +1,286 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import net.kyori.examination.ExaminableProperty;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A compound tag that has been validated, but whose entries are only decoded when they are requested.
+ *
+ * <p>The compound holds on to a slice of the buffer it was read from. Entry keys and offsets are indexed on first access,
+ * and entry values are decoded, and cached, the first time they are requested. Nested compounds, including those in lists,
+ * are themselves lazy.</p>
+ *
+ * <p>Any modification first decodes all direct entries into a {@link CompoundBinaryTagImpl}.</p>
+ */
+final class LazyCompoundBinaryTag extends AbstractCompoundBinaryTag {
+  private final ByteBuffer buffer; // the compound payload, up to and including its end tag
+  private final int depth; // the depth of the entries of this compound
+  private final @Nullable KeyInterner interner;
+  private volatile @Nullable Index index;
+  private volatile @Nullable CompoundBinaryTagImpl materialized;
+
+  private LazyCompoundBinaryTag(final ByteBuffer buffer, final int depth, final @Nullable KeyInterner interner) {
+    this.buffer = buffer;
+    this.depth = depth;
+    this.interner = interner;
+  }
+
+  /**
+   * Reads a tag, deferring the decoding of any compounds.
+   *
+   * <p>Compounds are skipped over, validating them against the depth and size limits of {@code input}.</p>
+   *
+   * @param type the tag type
+   * @param input the input
+   * @return a tag
+   * @throws IOException if an exception was encountered while reading
+   */
+  @SuppressWarnings("try")
+  static BinaryTag read(final BinaryTagType<? extends BinaryTag> type, final ByteBufferDataInput input) throws IOException {
+    final ByteBuffer buffer = input.buffer();
+    if (type == BinaryTagTypes.COMPOUND) {
+      final int start = buffer.position();
+      BinaryTagType.skip(type, input);
+      final ByteBuffer slice = buffer.duplicate();
+      slice.position(start).limit(buffer.position());
+      return new LazyCompoundBinaryTag(slice.slice(), input.depth() + 1, input.interner());
+    } else if (type == BinaryTagTypes.LIST) {
+      final int start = buffer.position();
+      final BinaryTagType<? extends BinaryTag> elementType = BinaryTagType.of(input.readByte());
+      if (elementType != BinaryTagTypes.COMPOUND && elementType != BinaryTagTypes.LIST) {
+        buffer.position(start);
+        return type.read(input);
+      }
+      final int length = input.readInt();
+      try(final BinaryTagScope ignored = input.enter(length * 8L)) {
+        final List<BinaryTag> tags = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+          tags.add(read(elementType, input));
+        }
+        return ListBinaryTag.of(elementType, tags);
+      }
+    }
+    return type.read(input);
+  }
+
+  /**
+   * Fully decodes a tag, replacing any lazy compounds within it.
+   *
+   * @param tag the tag
+   * @return the decoded tag, or {@code tag} if it contained no lazy compounds
+   */
+  static BinaryTag materialize(final BinaryTag tag) {
+    if (tag instanceof CompoundBinaryTag) {
+      final CompoundBinaryTag compound = tag instanceof LazyCompoundBinaryTag ? ((LazyCompoundBinaryTag) tag).materialized() : (CompoundBinaryTag) tag;
+      @Nullable TagMap.Builder tags = null; // only copied once an entry changes
+      for (final Map.Entry<String, ? extends BinaryTag> entry : compound) {
+        final BinaryTag value = materialize(entry.getValue());
+        if (value != entry.getValue()) {
+          if (tags == null) {
+            tags = new TagMap.Builder();
+            for (final Map.Entry<String, ? extends BinaryTag> original : compound) {
+              tags.put(original.getKey(), original.getValue());
+            }
+          }
+          tags.put(entry.getKey(), value);
+        }
+      }
+      return tags != null ? new CompoundBinaryTagImpl(tags.build()) : compound;
+    } else if (tag instanceof ListBinaryTag) {
+      final ListBinaryTag list = (ListBinaryTag) tag;
+      if (list.elementType() != BinaryTagTypes.COMPOUND && list.elementType() != BinaryTagTypes.LIST) return tag;
+      final List<BinaryTag> tags = new ArrayList<>(list.size());
+      boolean changed = false;
+      for (final BinaryTag element : list) {
+        final BinaryTag value = materialize(element);
+        changed |= value != element;
+        tags.add(value);
+      }
+      return changed ? ListBinaryTag.of(list.elementType(), tags) : tag;
+    }
+    return tag;
+  }
+
+  // write the encoded form of this compound, which is still valid as compounds are immutable
+  void write(final DataOutput output) throws IOException {
+    final ByteBuffer buffer = this.buffer.duplicate();
+    if (buffer.hasArray()) {
+      output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    } else {
+      final byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      output.write(bytes);
+    }
+  }
+
+  long encodedSize() {
+    return this.buffer.remaining();
+  }
+
+  private Index index() {
+    Index index = this.index;
+    if (index == null) {
+      try {
+        index = new Index(new ByteBufferDataInput(this.buffer.duplicate(), -1L, this.depth, this.interner));
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e); // the compound was validated when it was read
+      }
+      this.index = index;
+    }
+    return index;
+  }
+
+  // decode all direct entries, leaving nested compounds lazy
+  CompoundBinaryTagImpl materialized() {
+    CompoundBinaryTagImpl materialized = this.materialized;
+    if (materialized == null) {
+      final Index index = this.index();
+      final TagMap.Builder tags = new TagMap.Builder();
+      for (final Map.Entry<String, Integer> entry : index.entries.entrySet()) {
+        tags.put(entry.getKey(), this.value(index, entry.getValue()));
+      }
+      materialized = new CompoundBinaryTagImpl(tags.build());
+      this.materialized = materialized;
+    }
+    return materialized;
+  }
+
+  private BinaryTag value(final Index index, final int entry) {
+    BinaryTag value = index.values[entry];
+    if (value == null) {
+      final ByteBuffer buffer = this.buffer.duplicate();
+      buffer.position(index.offsets[entry]);
+      try {
+        value = read(index.types[entry], new ByteBufferDataInput(buffer, -1L, this.depth, this.interner));
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e); // the compound was validated when it was read
+      }
+      index.values[entry] = value;
+    }
+    return value;
+  }
+
+  @Override
+  public @NotNull Set<String> keySet() {
+    return Collections.unmodifiableSet(this.index().entries.keySet());
+  }
+
+  @Override
+  public @Nullable BinaryTag get(final String key) {
+    final Index index = this.index();
+    final Integer entry = index.entries.get(key);
+    return entry == null ? null : this.value(index, entry);
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag put(final @NotNull String key, final @NotNull BinaryTag tag) {
+    return this.materialized().put(key, tag);
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag put(final @NotNull CompoundBinaryTag tag) {
+    return this.materialized().put(tag);
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag put(final @NotNull Map<String, ? extends BinaryTag> tags) {
+    return this.materialized().put(tags);
+  }
+
+  @Override
+  public @NotNull CompoundBinaryTag remove(final @NotNull String key, final @Nullable Consumer<? super BinaryTag> removed) {
+    if (!this.index().entries.containsKey(key)) {
+      return this;
+    }
+    return this.materialized().remove(key, removed);
+  }
+
+  @Override
+  public boolean equals(final Object that) {
+    return this == that || this.materialized().equals(that);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.materialized().hashCode();
+  }
+
+  @Override
+  public @NotNull Stream<? extends ExaminableProperty> examinableProperties() {
+    return this.materialized().examinableProperties();
+  }
+
+  @Override
+  public @NotNull Iterator<Map.Entry<String, ? extends BinaryTag>> iterator() {
+    return this.materialized().iterator();
+  }
+
+  @Override
+  public void forEach(final @NotNull Consumer<? super Map.Entry<String, ? extends BinaryTag>> action) {
+    this.materialized().forEach(action);
+  }
+
+  // the keys, types and offsets of the entries of a compound
+  private static final class Index {
+    final Map<String, Integer> entries = new LinkedHashMap<>(); // in the order of the first occurrence of each key
+    final BinaryTagType<?>[] types;
+    final int[] offsets;
+    final BinaryTag[] values; // decoded values, racy but idempotent
+
+    Index(final ByteBufferDataInput input) throws IOException {
+      final List<BinaryTagType<? extends BinaryTag>> types = new ArrayList<>();
+      final List<Integer> offsets = new ArrayList<>();
+      BinaryTagType<? extends BinaryTag> type;
+      while ((type = BinaryTagType.of(input.readByte())) != BinaryTagTypes.END) {
+        final String key = input.readKey();
+        this.entries.put(key, types.size()); // a later duplicate key replaces an earlier one, as when reading eagerly
+        types.add(type);
+        offsets.add(input.buffer().position());
+        BinaryTagType.skip(type, input);
+      }
+      this.types = types.toArray(new BinaryTagType<?>[0]);
+      this.offsets = new int[offsets.size()];
+      for (int i = 0; i < this.offsets.length; i++) {
+        this.offsets[i] = offsets.get(i);
+      }
+      this.values = new BinaryTag[this.offsets.length];
+    }
+  }
+}
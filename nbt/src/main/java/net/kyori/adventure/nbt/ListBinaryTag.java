@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -105,6 +106,11 @@ public interface ListBinaryTag extends ListTagSetter<ListBinaryTag, BinaryTag>,
     return BinaryTagTypes.LIST;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return BinaryTagWalker.visitList(this, visitor);
+  }
+
   /**
    * Gets the type of element stored in this list.
    *
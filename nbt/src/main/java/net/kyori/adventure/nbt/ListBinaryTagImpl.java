@@ -23,9 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
@@ -40,15 +38,32 @@ import org.jetbrains.annotations.Range;
 
 @Debug.Renderer(text = "\"ListBinaryTag[type=\" + this.type.toString() + \"]\"", childrenArray = "this.tags.toArray()", hasChildren = "!this.tags.isEmpty()")
 final class ListBinaryTagImpl extends AbstractBinaryTag implements ListBinaryTag {
-  static final ListBinaryTag EMPTY = new ListBinaryTagImpl(BinaryTagTypes.END, Collections.emptyList());
-  private final List<BinaryTag> tags;
+  static final ListBinaryTag EMPTY = new ListBinaryTagImpl(BinaryTagTypes.END, PersistentTagVector.EMPTY);
+  private final List<BinaryTag> tags; // either a PersistentTagVector or a PackedTagList
   private final BinaryTagType<? extends BinaryTag> elementType;
-  private final int hashCode;
+  private volatile long encodedSize = -1L; // computed on demand
 
   ListBinaryTagImpl(final BinaryTagType<? extends BinaryTag> elementType, final List<BinaryTag> tags) {
-    this.tags = Collections.unmodifiableList(tags);
+    this.tags = tags instanceof PackedTagList ? tags : PersistentTagVector.of(tags);
     this.elementType = elementType;
-    this.hashCode = tags.hashCode();
+  }
+
+  // the packed elements of this list, if it is backed by primitives
+  @Nullable PackedTagList packed() {
+    return this.tags instanceof PackedTagList ? (PackedTagList) this.tags : null;
+  }
+
+  private PersistentTagVector vector() {
+    return PersistentTagVector.of(this.tags);
+  }
+
+  long encodedSize() {
+    long size = this.encodedSize;
+    if (size < 0) {
+      size = BinaryTagType.listSize(this);
+      this.encodedSize = size;
+    }
+    return size;
   }
 
   @Override
@@ -66,24 +81,54 @@ final class ListBinaryTagImpl extends AbstractBinaryTag implements ListBinaryTag
     return this.tags.get(index);
   }
 
+  @Override
+  public int getInt(final @Range(from = 0, to = Integer.MAX_VALUE) int index, final int defaultValue) {
+    final PackedTagList packed = this.packed();
+    return packed != null ? packed.intValue(index) : ListBinaryTag.super.getInt(index, defaultValue);
+  }
+
+  @Override
+  public long getLong(final @Range(from = 0, to = Integer.MAX_VALUE) int index, final long defaultValue) {
+    final PackedTagList packed = this.packed();
+    return packed != null ? packed.longValue(index) : ListBinaryTag.super.getLong(index, defaultValue);
+  }
+
+  @Override
+  public float getFloat(final @Range(from = 0, to = Integer.MAX_VALUE) int index, final float defaultValue) {
+    final PackedTagList packed = this.packed();
+    return packed != null ? packed.floatValue(index) : ListBinaryTag.super.getFloat(index, defaultValue);
+  }
+
+  @Override
+  public double getDouble(final @Range(from = 0, to = Integer.MAX_VALUE) int index, final double defaultValue) {
+    final PackedTagList packed = this.packed();
+    return packed != null ? packed.doubleValue(index) : ListBinaryTag.super.getDouble(index, defaultValue);
+  }
+
   @Override
   public @NotNull ListBinaryTag set(final int index, final @NotNull BinaryTag newTag, final @Nullable Consumer<? super BinaryTag> removed) {
-    return this.edit(tags -> {
-      final BinaryTag oldTag = tags.set(index, newTag);
-      if (removed != null) {
-        removed.accept(oldTag);
-      }
-    }, newTag.type());
+    final BinaryTag oldTag = this.tags.get(index);
+    final PackedTagList packed = this.packed();
+    List<BinaryTag> tags = packed != null ? packed.with(index, newTag) : null;
+    if (tags == null) {
+      tags = this.vector().with(index, newTag);
+    }
+    final ListBinaryTag result = this.with(tags, newTag.type());
+    if (removed != null) {
+      removed.accept(oldTag);
+    }
+    return result;
   }
 
   @Override
   public @NotNull ListBinaryTag remove(final int index, final @Nullable Consumer<? super BinaryTag> removed) {
-    return this.edit(tags -> {
-      final BinaryTag oldTag = tags.remove(index);
-      if (removed != null) {
-        removed.accept(oldTag);
-      }
-    }, null);
+    final BinaryTag oldTag = this.tags.get(index);
+    final PackedTagList packed = this.packed();
+    final ListBinaryTag result = this.with(packed != null ? packed.without(index) : this.vector().without(index), null);
+    if (removed != null) {
+      removed.accept(oldTag);
+    }
+    return result;
   }
 
   @Override
@@ -92,7 +137,12 @@ final class ListBinaryTagImpl extends AbstractBinaryTag implements ListBinaryTag
     if (this.elementType != BinaryTagTypes.END) {
       mustBeSameType(tag, this.elementType);
     }
-    return this.edit(tags -> tags.add(tag), tag.type());
+    final PackedTagList packed = this.packed();
+    List<BinaryTag> tags = packed != null ? packed.with(tag) : null;
+    if (tags == null) {
+      tags = this.vector().with(tag);
+    }
+    return this.with(tags, tag.type());
   }
 
   @Override
@@ -101,11 +151,11 @@ final class ListBinaryTagImpl extends AbstractBinaryTag implements ListBinaryTag
       return this;
     }
     final BinaryTagType<?> type = ListBinaryTagImpl.mustBeSameType(tagsToAdd);
-    return this.edit(tags -> {
-      for (final BinaryTag tag : tagsToAdd) {
-        tags.add(tag);
-      }
-    }, type);
+    PersistentTagVector tags = this.vector();
+    for (final BinaryTag tag : tagsToAdd) {
+      tags = tags.with(tag);
+    }
+    return this.with(tags, type);
   }
 
   // An end tag cannot be an element in a list tag
@@ -135,9 +185,7 @@ final class ListBinaryTagImpl extends AbstractBinaryTag implements ListBinaryTag
     }
   }
 
-  private ListBinaryTag edit(final Consumer<List<BinaryTag>> consumer, final @Nullable BinaryTagType<? extends BinaryTag> maybeElementType) {
-    final List<BinaryTag> tags = new ArrayList<>(this.tags);
-    consumer.accept(tags);
+  private ListBinaryTag with(final List<BinaryTag> tags, final @Nullable BinaryTagType<? extends BinaryTag> maybeElementType) {
     BinaryTagType<? extends BinaryTag> elementType = this.elementType;
     // set the type if it has not yet been set
     if (maybeElementType != null && elementType == BinaryTagTypes.END) {
@@ -189,7 +237,7 @@ final class ListBinaryTagImpl extends AbstractBinaryTag implements ListBinaryTag
 
   @Override
   public int hashCode() {
-    return this.hashCode;
+    return this.tags.hashCode();
   }
 
   @Override
@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.function.LongConsumer;
@@ -51,6 +52,11 @@ public interface LongArrayBinaryTag extends ArrayBinaryTag, Iterable<Long> {
     return BinaryTagTypes.LONG_ARRAY;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitLongArray(LongArrayBinaryTagImpl.value(this)) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
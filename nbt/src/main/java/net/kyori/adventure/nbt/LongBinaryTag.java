@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
 import org.jetbrains.annotations.Debug;
@@ -43,7 +44,7 @@ public interface LongBinaryTag extends NumberBinaryTag {
    * @since 4.0.0
    */
   static @NotNull LongBinaryTag of(final long value) {
-    return new LongBinaryTagImpl(value);
+    return LongBinaryTagImpl.of(value);
   }
 
   @Override
@@ -51,6 +52,11 @@ public interface LongBinaryTag extends NumberBinaryTag {
     return BinaryTagTypes.LONG;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitLong(this.value()) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
@@ -62,8 +68,20 @@ public interface LongBinaryTag extends NumberBinaryTag {
 
 @Debug.Renderer(text = "String.valueOf(this.value) + \"l\"", hasChildren = "false")
 final class LongBinaryTagImpl extends AbstractBinaryTag implements LongBinaryTag {
+  private static final LongBinaryTag[] CACHE = new LongBinaryTag[NumberTagCache.size(NumberTagCache.LOW, NumberTagCache.HIGH)];
   private final long value;
 
+  static LongBinaryTag of(final long value) {
+    if (value < NumberTagCache.LOW || value > NumberTagCache.HIGH) return new LongBinaryTagImpl(value);
+    final int index = (int) (value - NumberTagCache.LOW);
+    LongBinaryTag tag = CACHE[index];
+    if (tag == null) {
+      tag = new LongBinaryTagImpl(value);
+      CACHE[index] = tag;
+    }
+    return tag;
+  }
+
   LongBinaryTagImpl(final long value) {
     this.value = value;
   }
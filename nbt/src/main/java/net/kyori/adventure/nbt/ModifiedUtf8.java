@@ -0,0 +1,188 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A codec for the modified UTF-8 encoding used by {@link DataInput#readUTF()}, with a fast path for ASCII strings.
+ *
+ * <p>Instances hold scratch buffers that are reused between strings, and must not be shared between threads.</p>
+ */
+final class ModifiedUtf8 {
+  static final int MAX_LENGTH = 0xffff;
+  private byte[] bytes = new byte[0];
+  private char[] chars = new char[0];
+
+  /**
+   * Reads a length-prefixed string.
+   *
+   * @param input the input
+   * @return the string
+   * @throws IOException if an exception was encountered while reading, or the string is malformed
+   */
+  String read(final DataInput input) throws IOException {
+    final int length = input.readUnsignedShort();
+    final byte[] bytes = this.bytes(length);
+    input.readFully(bytes, 0, length);
+    return this.decode(bytes, 0, length);
+  }
+
+  // a scratch byte array of at least length bytes
+  byte[] bytes(final int length) {
+    if (this.bytes.length < length) {
+      this.bytes = new byte[Math.max(length, Math.min(this.bytes.length * 2, MAX_LENGTH))];
+    }
+    return this.bytes;
+  }
+
+  /**
+   * Decodes a string.
+   *
+   * @param bytes the encoded bytes
+   * @param offset the offset of the string
+   * @param length the encoded length of the string
+   * @return the string
+   * @throws UTFDataFormatException if the string is malformed
+   */
+  String decode(final byte[] bytes, final int offset, final int length) throws UTFDataFormatException {
+    final int end = offset + length;
+    int i = offset;
+    while (i < end && bytes[i] >= 0) {
+      i++;
+    }
+    if (i == end) { // ascii only, which is encoded as itself
+      return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    if (this.chars.length < length) {
+      this.chars = new char[Math.max(length, Math.min(this.chars.length * 2, MAX_LENGTH))];
+    }
+    final char[] chars = this.chars;
+    int count = 0;
+    for (int j = offset; j < i; j++) {
+      chars[count++] = (char) bytes[j];
+    }
+    while (i < end) {
+      final int c = bytes[i] & 0xff;
+      if (c < 0x80) {
+        chars[count++] = (char) c;
+        i++;
+      } else if ((c & 0xe0) == 0xc0) {
+        if (i + 1 >= end) throw malformed(i);
+        final int c2 = bytes[i + 1];
+        if ((c2 & 0xc0) != 0x80) throw malformed(i);
+        chars[count++] = (char) (((c & 0x1f) << 6) | (c2 & 0x3f));
+        i += 2;
+      } else if ((c & 0xf0) == 0xe0) {
+        if (i + 2 >= end) throw malformed(i);
+        final int c2 = bytes[i + 1];
+        final int c3 = bytes[i + 2];
+        if ((c2 & 0xc0) != 0x80 || (c3 & 0xc0) != 0x80) throw malformed(i);
+        chars[count++] = (char) (((c & 0x0f) << 12) | ((c2 & 0x3f) << 6) | (c3 & 0x3f));
+        i += 3;
+      } else {
+        throw malformed(i);
+      }
+    }
+    return new String(chars, 0, count);
+  }
+
+  private static UTFDataFormatException malformed(final int index) {
+    return new UTFDataFormatException("Malformed input around byte " + index);
+  }
+
+  /**
+   * Gets the encoded length of a string, excluding its length prefix.
+   *
+   * @param value the string
+   * @return the encoded length
+   */
+  static int length(final String value) {
+    final int length = value.length();
+    int encoded = length;
+    for (int i = 0; i < length; i++) {
+      final char c = value.charAt(i);
+      if (c >= 0x80 || c == 0) {
+        encoded += c >= 0x800 ? 2 : 1;
+      }
+    }
+    return encoded;
+  }
+
+  /**
+   * Encodes a string into {@code bytes}, which must have room for its {@link #length(String) encoded length}.
+   *
+   * @param value the string
+   * @param bytes the destination
+   * @param offset the offset to start writing at
+   * @return the offset after the string
+   */
+  static int encode(final String value, final byte[] bytes, final int offset) {
+    final int length = value.length();
+    int index = offset;
+    for (int i = 0; i < length; i++) {
+      final char c = value.charAt(i);
+      if (c < 0x80 && c != 0) {
+        bytes[index++] = (byte) c;
+      } else if (c < 0x800) {
+        bytes[index++] = (byte) (0xc0 | (c >> 6));
+        bytes[index++] = (byte) (0x80 | (c & 0x3f));
+      } else {
+        bytes[index++] = (byte) (0xe0 | (c >> 12));
+        bytes[index++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        bytes[index++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Writes a length-prefixed string.
+   *
+   * @param output the output
+   * @param value the string
+   * @throws IOException if an exception was encountered while writing, or the string is too long
+   */
+  static void write(final DataOutput output, final String value) throws IOException {
+    if (output instanceof DataOutputStream || output instanceof ByteBufferDataOutput) {
+      output.writeUTF(value); // reuses a scratch buffer held by the stream, or encodes in place
+      return;
+    }
+    final int length = length(value);
+    if (length > MAX_LENGTH) {
+      throw new UTFDataFormatException("Encoded string too long: " + length + " bytes");
+    }
+    final byte[] bytes = new byte[length + 2];
+    bytes[0] = (byte) (length >>> 8);
+    bytes[1] = (byte) length;
+    encode(value, bytes, 2);
+    output.write(bytes);
+  }
+}
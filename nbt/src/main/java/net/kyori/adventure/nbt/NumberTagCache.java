@@ -0,0 +1,57 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+/**
+ * Bounds of the shared instances of frequently used numeric tags.
+ *
+ * <p>Every {@code byte} value is cached. Whole numbers in [{@value #DEFAULT_LOW}, {@value #DEFAULT_HIGH}] are cached
+ * for shorts, ints and longs, and the bounds can be changed with the {@code net.kyori.adventure.nbt.numberCacheLow} and
+ * {@code net.kyori.adventure.nbt.numberCacheHigh} system properties, which are clamped to
+ * [{@value #MIN}, {@value #MAX}]. Setting the upper bound below the lower one disables these caches. A few common
+ * constants are cached for floats and doubles.</p>
+ *
+ * <p>Each cache lives beside the implementation it holds, and its slots are filled as they are first requested. This
+ * happens without synchronization, which is safe because the tags are immutable; a race only allocates a
+ * duplicate.</p>
+ */
+final class NumberTagCache {
+  static final int DEFAULT_LOW = -128;
+  static final int DEFAULT_HIGH = 1024;
+  static final int MIN = Short.MIN_VALUE;
+  static final int MAX = 0xffff;
+  static final int LOW = clamp(Integer.getInteger(String.join(".", "net", "kyori", "adventure", "nbt", "numberCacheLow"), DEFAULT_LOW));
+  static final int HIGH = clamp(Integer.getInteger(String.join(".", "net", "kyori", "adventure", "nbt", "numberCacheHigh"), DEFAULT_HIGH));
+
+  private NumberTagCache() {
+  }
+
+  private static int clamp(final int value) {
+    return Math.max(MIN, Math.min(MAX, value));
+  }
+
+  static int size(final int low, final int high) {
+    return high < low ? 0 : high - low + 1;
+  }
+}
@@ -0,0 +1,477 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable list of numeric tags stored as an array of primitives, used to back list tags of ints, longs, floats and doubles.
+ *
+ * <p>Tags are only created when an element is requested through {@link #get(int)}. Edits copy the array, so they are only
+ * supported while the list is small. Larger lists are moved to a {@link PersistentTagVector} on their first edit.</p>
+ */
+abstract class PackedTagList extends AbstractList<BinaryTag> implements RandomAccess {
+  // the largest list that is still edited by copying its array, matching the leaf size of PersistentTagVector
+  private static final int MAX_EDIT_SIZE = 32;
+
+  private int hashCode; // lazily computed, 0 if not yet known
+
+  /**
+   * Reads {@code length} elements of {@code type}, if it is a type that can be packed.
+   *
+   * @param type the element type
+   * @param input the input
+   * @param length the number of elements
+   * @return a packed list, or {@code null} if {@code type} cannot be packed
+   * @throws IOException if an exception is encountered while reading
+   */
+  static @Nullable PackedTagList read(final BinaryTagType<? extends BinaryTag> type, final DataInput input, final int length) throws IOException {
+    if (type == BinaryTagTypes.INT) {
+      final int[] values = new int[length];
+      PrimitiveArrayIO.readInts(input, values);
+      return new Ints(values);
+    } else if (type == BinaryTagTypes.LONG) {
+      final long[] values = new long[length];
+      PrimitiveArrayIO.readLongs(input, values);
+      return new Longs(values);
+    } else if (type == BinaryTagTypes.FLOAT) {
+      final float[] values = new float[length];
+      for (int i = 0; i < length; i++) {
+        values[i] = input.readFloat();
+      }
+      return new Floats(values);
+    } else if (type == BinaryTagTypes.DOUBLE) {
+      final double[] values = new double[length];
+      for (int i = 0; i < length; i++) {
+        values[i] = input.readDouble();
+      }
+      return new Doubles(values);
+    }
+    return null;
+  }
+
+  abstract BinaryTagType<? extends BinaryTag> elementType();
+
+  // the backing primitive array
+  abstract Object array();
+
+  abstract Object newArray(final int length);
+
+  // store the value of tag, which must be of the element type, into a backing array
+  abstract void store(final Object array, final int index, final BinaryTag tag);
+
+  abstract PackedTagList wrap(final Object array);
+
+  abstract void write(final DataOutput output) throws IOException;
+
+  abstract int intValue(final int index);
+
+  abstract long longValue(final int index);
+
+  abstract float floatValue(final int index);
+
+  abstract double doubleValue(final int index);
+
+  // the hash code of the boxed representation, computed over the backing array
+  abstract int arrayHashCode();
+
+  /**
+   * Returns a list with {@code tag} appended, if it can remain packed.
+   *
+   * @param tag the tag
+   * @return a new list, or {@code null} if the result would not be packed
+   */
+  @Nullable PackedTagList with(final BinaryTag tag) {
+    final int size = this.size();
+    if (tag.type() != this.elementType() || size >= MAX_EDIT_SIZE) return null;
+    final Object array = this.newArray(size + 1);
+    System.arraycopy(this.array(), 0, array, 0, size);
+    this.store(array, size, tag);
+    return this.wrap(array);
+  }
+
+  /**
+   * Returns a list with the element at {@code index} replaced by {@code tag}, if it can remain packed.
+   *
+   * @param index the index
+   * @param tag the tag
+   * @return a new list, or {@code null} if the result would not be packed
+   */
+  @Nullable PackedTagList with(final int index, final BinaryTag tag) {
+    final int size = this.size();
+    if (tag.type() != this.elementType() || size > MAX_EDIT_SIZE) return null;
+    if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    final Object array = this.newArray(size);
+    System.arraycopy(this.array(), 0, array, 0, size);
+    this.store(array, index, tag);
+    return this.wrap(array);
+  }
+
+  /**
+   * Returns a list with the element at {@code index} removed.
+   *
+   * @param index the index
+   * @return a new list
+   */
+  PackedTagList without(final int index) {
+    final int size = this.size();
+    if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    final Object array = this.newArray(size - 1);
+    System.arraycopy(this.array(), 0, array, 0, index);
+    System.arraycopy(this.array(), index + 1, array, index, size - index - 1);
+    return this.wrap(array);
+  }
+
+  @Override
+  public final int hashCode() {
+    int hashCode = this.hashCode;
+    if (hashCode == 0) {
+      hashCode = this.arrayHashCode();
+      this.hashCode = hashCode;
+    }
+    return hashCode;
+  }
+
+  static final class Ints extends PackedTagList {
+    private final int[] values;
+
+    Ints(final int[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return IntBinaryTag.of(this.values[index]);
+    }
+
+    @Override
+    public int size() {
+      return this.values.length;
+    }
+
+    @Override
+    BinaryTagType<? extends BinaryTag> elementType() {
+      return BinaryTagTypes.INT;
+    }
+
+    @Override
+    Object array() {
+      return this.values;
+    }
+
+    @Override
+    Object newArray(final int length) {
+      return new int[length];
+    }
+
+    @Override
+    void store(final Object array, final int index, final BinaryTag tag) {
+      ((int[]) array)[index] = ((IntBinaryTag) tag).value();
+    }
+
+    @Override
+    PackedTagList wrap(final Object array) {
+      return new Ints((int[]) array);
+    }
+
+    @Override
+    void write(final DataOutput output) throws IOException {
+      PrimitiveArrayIO.writeInts(output, this.values);
+    }
+
+    @Override
+    int intValue(final int index) {
+      return this.values[index];
+    }
+
+    @Override
+    long longValue(final int index) {
+      return this.values[index];
+    }
+
+    @Override
+    float floatValue(final int index) {
+      return (float) this.values[index];
+    }
+
+    @Override
+    double doubleValue(final int index) {
+      return this.values[index];
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      return that instanceof Ints ? Arrays.equals(this.values, ((Ints) that).values) : super.equals(that);
+    }
+
+    @Override
+    int arrayHashCode() {
+      return Arrays.hashCode(this.values);
+    }
+  }
+
+  static final class Longs extends PackedTagList {
+    private final long[] values;
+
+    Longs(final long[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return LongBinaryTag.of(this.values[index]);
+    }
+
+    @Override
+    public int size() {
+      return this.values.length;
+    }
+
+    @Override
+    BinaryTagType<? extends BinaryTag> elementType() {
+      return BinaryTagTypes.LONG;
+    }
+
+    @Override
+    Object array() {
+      return this.values;
+    }
+
+    @Override
+    Object newArray(final int length) {
+      return new long[length];
+    }
+
+    @Override
+    void store(final Object array, final int index, final BinaryTag tag) {
+      ((long[]) array)[index] = ((LongBinaryTag) tag).value();
+    }
+
+    @Override
+    PackedTagList wrap(final Object array) {
+      return new Longs((long[]) array);
+    }
+
+    @Override
+    void write(final DataOutput output) throws IOException {
+      PrimitiveArrayIO.writeLongs(output, this.values);
+    }
+
+    @Override
+    int intValue(final int index) {
+      return (int) this.values[index];
+    }
+
+    @Override
+    long longValue(final int index) {
+      return this.values[index];
+    }
+
+    @Override
+    float floatValue(final int index) {
+      return (float) this.values[index];
+    }
+
+    @Override
+    double doubleValue(final int index) {
+      return (double) this.values[index];
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      return that instanceof Longs ? Arrays.equals(this.values, ((Longs) that).values) : super.equals(that);
+    }
+
+    @Override
+    int arrayHashCode() {
+      return Arrays.hashCode(this.values);
+    }
+  }
+
+  static final class Floats extends PackedTagList {
+    private final float[] values;
+
+    Floats(final float[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return FloatBinaryTag.of(this.values[index]);
+    }
+
+    @Override
+    public int size() {
+      return this.values.length;
+    }
+
+    @Override
+    BinaryTagType<? extends BinaryTag> elementType() {
+      return BinaryTagTypes.FLOAT;
+    }
+
+    @Override
+    Object array() {
+      return this.values;
+    }
+
+    @Override
+    Object newArray(final int length) {
+      return new float[length];
+    }
+
+    @Override
+    void store(final Object array, final int index, final BinaryTag tag) {
+      ((float[]) array)[index] = ((FloatBinaryTag) tag).value();
+    }
+
+    @Override
+    PackedTagList wrap(final Object array) {
+      return new Floats((float[]) array);
+    }
+
+    @Override
+    void write(final DataOutput output) throws IOException {
+      for (final float value : this.values) {
+        output.writeFloat(value);
+      }
+    }
+
+    @Override
+    int intValue(final int index) {
+      return ShadyPines.floor(this.values[index]);
+    }
+
+    @Override
+    long longValue(final int index) {
+      return (long) this.values[index];
+    }
+
+    @Override
+    float floatValue(final int index) {
+      return this.values[index];
+    }
+
+    @Override
+    double doubleValue(final int index) {
+      return this.values[index];
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      return that instanceof Floats ? Arrays.equals(this.values, ((Floats) that).values) : super.equals(that);
+    }
+
+    @Override
+    int arrayHashCode() {
+      return Arrays.hashCode(this.values);
+    }
+  }
+
+  static final class Doubles extends PackedTagList {
+    private final double[] values;
+
+    Doubles(final double[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return DoubleBinaryTag.of(this.values[index]);
+    }
+
+    @Override
+    public int size() {
+      return this.values.length;
+    }
+
+    @Override
+    BinaryTagType<? extends BinaryTag> elementType() {
+      return BinaryTagTypes.DOUBLE;
+    }
+
+    @Override
+    Object array() {
+      return this.values;
+    }
+
+    @Override
+    Object newArray(final int length) {
+      return new double[length];
+    }
+
+    @Override
+    void store(final Object array, final int index, final BinaryTag tag) {
+      ((double[]) array)[index] = ((DoubleBinaryTag) tag).value();
+    }
+
+    @Override
+    PackedTagList wrap(final Object array) {
+      return new Doubles((double[]) array);
+    }
+
+    @Override
+    void write(final DataOutput output) throws IOException {
+      for (final double value : this.values) {
+        output.writeDouble(value);
+      }
+    }
+
+    @Override
+    int intValue(final int index) {
+      return ShadyPines.floor(this.values[index]);
+    }
+
+    @Override
+    long longValue(final int index) {
+      return (long) Math.floor(this.values[index]);
+    }
+
+    @Override
+    float floatValue(final int index) {
+      return (float) this.values[index];
+    }
+
+    @Override
+    double doubleValue(final int index) {
+      return this.values[index];
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      return that instanceof Doubles ? Arrays.equals(this.values, ((Doubles) that).values) : super.equals(that);
+    }
+
+    @Override
+    int arrayHashCode() {
+      return Arrays.hashCode(this.values);
+    }
+  }
+}
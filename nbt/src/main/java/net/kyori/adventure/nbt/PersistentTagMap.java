@@ -0,0 +1,655 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable hash array mapped trie, used to back compound tags.
+ *
+ * <p>Adding, replacing or removing a single entry only copies the nodes on the path to that entry, all other nodes are shared
+ * with the original map. The {@link #hashCode()} is maintained incrementally.</p>
+ *
+ * <p>Each node stores its entries in a single array of pairs. A pair is either a key and its value, or {@code null}
+ * followed by a child node.</p>
+ *
+ * <p>An {@link Editor} applies many changes at once. Nodes it has copied belong to it, and are changed in place by later
+ * changes instead of being copied again. They are published through the final root of the built map and never changed
+ * after that.</p>
+ */
+final class PersistentTagMap extends TagMap {
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private static final int MAX_DEPTH = 8; // 7 levels of bitmap nodes, plus a collision node
+  static final PersistentTagMap EMPTY = new PersistentTagMap(BitmapNode.EMPTY, 0, 0);
+
+  private final Node root;
+  private final int size;
+  private final int hashCode;
+  private @Nullable Set<Entry<String, BinaryTag>> entrySet;
+
+  private PersistentTagMap(final Node root, final int size, final int hashCode) {
+    this.root = root;
+    this.size = size;
+    this.hashCode = hashCode;
+  }
+
+  /**
+   * Creates a map containing all entries of {@code map}.
+   *
+   * @param map the entries
+   * @return a new map
+   */
+  static PersistentTagMap of(final Map<String, ? extends BinaryTag> map) {
+    if (map instanceof PersistentTagMap) return (PersistentTagMap) map;
+    final int size = map.size();
+    if (size == 0) return EMPTY;
+    final String[] keys = new String[size];
+    final BinaryTag[] values = new BinaryTag[size];
+    final int[] hashes = new int[size];
+    final int[] order = new int[size];
+    int hashCode = 0;
+    int i = 0;
+    for (final Entry<String, ? extends BinaryTag> entry : map.entrySet()) {
+      keys[i] = requireNonNull(entry.getKey(), "key");
+      values[i] = requireNonNull(entry.getValue(), "value");
+      hashes[i] = keys[i].hashCode();
+      hashCode += hashes[i] ^ values[i].hashCode();
+      order[i] = i;
+      i++;
+    }
+    final Node root = build(0, keys, values, hashes, order, new int[size], 0, size);
+    return new PersistentTagMap(root, size, hashCode);
+  }
+
+  // bulk-build a node from the entries order[from..to), partitioning them by hash fragment at each level
+  private static Node build(final int shift, final String[] keys, final BinaryTag[] values, final int[] hashes, final int[] order, final int[] scratch, final int from, final int to) {
+    if (to - from == 1) { // only reached for a single entry at the root
+      return new BitmapNode(bitpos(hashes[order[from]], shift), new Object[]{keys[order[from]], values[order[from]]});
+    } else if (allSameHash(hashes, order, from, to)) {
+      final Object[] array = new Object[(to - from) * 2];
+      for (int i = from; i < to; i++) {
+        array[(i - from) * 2] = keys[order[i]];
+        array[(i - from) * 2 + 1] = values[order[i]];
+      }
+      return new CollisionNode(hashes[order[from]], array);
+    }
+    // counting sort of the range by the hash fragment for this level
+    final int[] counts = new int[MASK + 2];
+    int bitmap = 0;
+    for (int i = from; i < to; i++) {
+      final int fragment = fragment(hashes[order[i]], shift);
+      counts[fragment + 1]++;
+      bitmap |= 1 << fragment;
+    }
+    for (int i = 0; i <= MASK; i++) {
+      counts[i + 1] += counts[i];
+    }
+    final int[] offsets = Arrays.copyOf(counts, counts.length);
+    for (int i = from; i < to; i++) {
+      scratch[from + offsets[fragment(hashes[order[i]], shift)]++] = order[i];
+    }
+    System.arraycopy(scratch, from, order, from, to - from);
+
+    final Object[] array = new Object[Integer.bitCount(bitmap) * 2];
+    int slot = 0;
+    for (int fragment = 0; fragment <= MASK; fragment++) {
+      final int start = from + counts[fragment];
+      final int end = from + counts[fragment + 1];
+      if (start == end) continue;
+      if (end - start == 1) {
+        array[slot] = keys[order[start]];
+        array[slot + 1] = values[order[start]];
+      } else {
+        array[slot + 1] = build(shift + BITS, keys, values, hashes, order, scratch, start, end);
+      }
+      slot += 2;
+    }
+    return new BitmapNode(bitmap, array);
+  }
+
+  private static boolean allSameHash(final int[] hashes, final int[] order, final int from, final int to) {
+    final int hash = hashes[order[from]];
+    for (int i = from + 1; i < to; i++) {
+      if (hashes[order[i]] != hash) return false;
+    }
+    return true;
+  }
+
+  static int fragment(final int hash, final int shift) {
+    return (hash >>> shift) & MASK;
+  }
+
+  static int bitpos(final int hash, final int shift) {
+    return 1 << fragment(hash, shift);
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  @Override
+  public @Nullable BinaryTag get(final Object key) {
+    if (!(key instanceof String)) return null;
+    return this.root.find(0, key.hashCode(), (String) key);
+  }
+
+  @Override
+  PersistentTagMap with(final String key, final BinaryTag value) {
+    requireNonNull(value, "value");
+    final int hash = key.hashCode();
+    final Result result = new Result();
+    final Node root = this.root.put(0, hash, key, value, result);
+    if (root == this.root) return this;
+    final int entryHash = hash ^ value.hashCode();
+    if (result.previous == null) {
+      return new PersistentTagMap(root, this.size + 1, this.hashCode + entryHash);
+    }
+    return new PersistentTagMap(root, this.size, this.hashCode + entryHash - (hash ^ result.previous.hashCode()));
+  }
+
+  @Override
+  PersistentTagMap without(final String key) {
+    final int hash = key.hashCode();
+    final Result result = new Result();
+    final @Nullable Node root = this.root.remove(0, hash, key, result);
+    if (root == this.root) return this;
+    if (root == null) return EMPTY;
+    return new PersistentTagMap(root, this.size - 1, this.hashCode - (hash ^ result.previous.hashCode()));
+  }
+
+  /**
+   * Creates an editor that applies changes to this map.
+   *
+   * @return an editor
+   */
+  Editor edit() {
+    return new Editor(this);
+  }
+
+  @Override
+  public @NotNull Set<Entry<String, BinaryTag>> entrySet() {
+    if (this.entrySet == null) {
+      this.entrySet = new AbstractSet<Entry<String, BinaryTag>>() {
+        @Override
+        public @NotNull Iterator<Entry<String, BinaryTag>> iterator() {
+          return new EntryIterator(PersistentTagMap.this.root);
+        }
+
+        @Override
+        public int size() {
+          return PersistentTagMap.this.size;
+        }
+      };
+    }
+    return this.entrySet;
+  }
+
+  @Override
+  public int hashCode() {
+    return this.hashCode;
+  }
+
+  /**
+   * Reports the entries that differ between this map and {@code other}.
+   *
+   * <p>Nodes that are shared between both maps are skipped without being visited, so comparing a map with a modified
+   * copy of itself only costs as much as the paths to the modified entries.</p>
+   *
+   * @param other the map to compare with
+   * @param consumer receives each key whose value is not identical in both maps
+   */
+  void diff(final PersistentTagMap other, final DiffConsumer consumer) {
+    diff(0, this.root, other.root, consumer);
+  }
+
+  private static void diff(final int shift, final Node from, final Node to, final DiffConsumer consumer) {
+    if (from == to) return;
+    if (!(from instanceof BitmapNode) || !(to instanceof BitmapNode)) {
+      diffEntries(shift, from, to, consumer);
+      return;
+    }
+    final int fromBitmap = ((BitmapNode) from).bitmap;
+    final int toBitmap = ((BitmapNode) to).bitmap;
+    int bits = fromBitmap | toBitmap;
+    int fromIndex = 0;
+    int toIndex = 0;
+    while (bits != 0) {
+      final int bit = Integer.lowestOneBit(bits);
+      bits ^= bit;
+      final boolean inFrom = (fromBitmap & bit) != 0;
+      final boolean inTo = (toBitmap & bit) != 0;
+      if (inFrom && inTo) {
+        final Object fromKey = from.array[fromIndex];
+        final Object fromValue = from.array[fromIndex + 1];
+        final Object toKey = to.array[toIndex];
+        final Object toValue = to.array[toIndex + 1];
+        if (fromKey == null && toKey == null) {
+          diff(shift + BITS, (Node) fromValue, (Node) toValue, consumer);
+        } else if (fromKey != null && toKey != null && fromKey.equals(toKey)) {
+          if (fromValue != toValue) consumer.accept((String) fromKey, (BinaryTag) fromValue, (BinaryTag) toValue);
+        } else {
+          diffEntries(shift + BITS, slot(fromKey, fromValue), slot(toKey, toValue), consumer);
+        }
+      } else if (inFrom) {
+        forEach(slot(from.array[fromIndex], from.array[fromIndex + 1]), (key, value) -> consumer.accept(key, value, null));
+      } else {
+        forEach(slot(to.array[toIndex], to.array[toIndex + 1]), (key, value) -> consumer.accept(key, null, value));
+      }
+      if (inFrom) fromIndex += 2;
+      if (inTo) toIndex += 2;
+    }
+  }
+
+  // compares two subtrees of different shapes entry by entry
+  private static void diffEntries(final int shift, final Node from, final Node to, final DiffConsumer consumer) {
+    forEach(from, (key, value) -> {
+      final @Nullable BinaryTag toValue = to.find(shift, key.hashCode(), key);
+      if (toValue != value) consumer.accept(key, value, toValue);
+    });
+    forEach(to, (key, value) -> {
+      if (from.find(shift, key.hashCode(), key) == null) consumer.accept(key, null, value);
+    });
+  }
+
+  // a slot of a bitmap node as a node, wrapping an inline entry
+  private static Node slot(final @Nullable Object key, final Object value) {
+    return key == null ? (Node) value : new CollisionNode(key.hashCode(), new Object[]{key, value});
+  }
+
+  private static void forEach(final Node node, final BiConsumer<String, BinaryTag> action) {
+    final Object[] array = node.array;
+    for (int i = 0; i < array.length; i += 2) {
+      if (array[i] == null) {
+        forEach((Node) array[i + 1], action);
+      } else {
+        action.accept((String) array[i], (BinaryTag) array[i + 1]);
+      }
+    }
+  }
+
+  /**
+   * Applies a batch of changes to a map, copying each node at most once.
+   */
+  static final class Editor {
+    private final PersistentTagMap original;
+    private Object owner = new Object();
+    private Node root;
+    private int size;
+    private int hashCode;
+
+    Editor(final PersistentTagMap original) {
+      this.original = original;
+      this.root = original.root;
+      this.size = original.size;
+      this.hashCode = original.hashCode;
+    }
+
+    void put(final String key, final BinaryTag value) {
+      requireNonNull(value, "value");
+      final int hash = key.hashCode();
+      final Result result = new Result(this.owner);
+      this.root = this.root.put(0, hash, key, value, result);
+      this.hashCode += hash ^ value.hashCode();
+      if (result.previous == null) {
+        this.size++;
+      } else {
+        this.hashCode -= hash ^ result.previous.hashCode();
+      }
+    }
+
+    void remove(final String key) {
+      final int hash = key.hashCode();
+      final Result result = new Result(this.owner);
+      final @Nullable Node root = this.root.remove(0, hash, key, result);
+      this.root = root != null ? root : BitmapNode.EMPTY;
+      if (result.previous != null) {
+        this.size--;
+        this.hashCode -= hash ^ result.previous.hashCode();
+      }
+    }
+
+    PersistentTagMap build() {
+      if (this.root == this.original.root) return this.original;
+      if (this.size == 0) return EMPTY;
+      this.owner = new Object(); // the nodes of the built map can no longer be changed through this editor
+      return new PersistentTagMap(this.root, this.size, this.hashCode);
+    }
+  }
+
+  @FunctionalInterface
+  interface DiffConsumer {
+    void accept(final String key, final @Nullable BinaryTag from, final @Nullable BinaryTag to);
+  }
+
+  static final class Result {
+    final @Nullable Object owner; // nodes with this owner may be changed in place, if not null
+    @Nullable BinaryTag previous;
+
+    Result() {
+      this(null);
+    }
+
+    Result(final @Nullable Object owner) {
+      this.owner = owner;
+    }
+
+    boolean owns(final Node node) {
+      return this.owner != null && node.owner == this.owner;
+    }
+  }
+
+  abstract static class Node {
+    final @Nullable Object owner; // the editor that created this node and may still change it
+    Object[] array;
+
+    Node(final @Nullable Object owner, final Object[] array) {
+      this.owner = owner;
+      this.array = array;
+    }
+
+    abstract @Nullable BinaryTag find(final int shift, final int hash, final String key);
+
+    abstract Node put(final int shift, final int hash, final String key, final BinaryTag value, final Result result);
+
+    // returns null if the node became empty
+    abstract @Nullable Node remove(final int shift, final int hash, final String key, final Result result);
+
+    // whether this node only holds a single key and value, which can be inlined into the parent
+    final boolean singleEntry() {
+      return this.array.length == 2 && this.array[0] != null;
+    }
+  }
+
+  static final class BitmapNode extends Node {
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+    int bitmap;
+
+    BitmapNode(final int bitmap, final Object[] array) {
+      this(null, bitmap, array);
+    }
+
+    BitmapNode(final @Nullable Object owner, final int bitmap, final Object[] array) {
+      super(owner, array);
+      this.bitmap = bitmap;
+    }
+
+    private int index(final int bit) {
+      return Integer.bitCount(this.bitmap & (bit - 1)) * 2;
+    }
+
+    // this node with a new bitmap and array
+    private BitmapNode withArray(final Result result, final int bitmap, final Object[] array) {
+      if (result.owns(this)) {
+        this.bitmap = bitmap;
+        this.array = array;
+        return this;
+      }
+      return new BitmapNode(result.owner, bitmap, array);
+    }
+
+    // this node with the slot at index replaced; the array of the result is never shared with a published node
+    private BitmapNode withSlot(final Result result, final int index, final Object value) {
+      if (result.owns(this)) {
+        this.array[index] = value;
+        return this;
+      }
+      return new BitmapNode(result.owner, this.bitmap, with(this.array, index, value));
+    }
+
+    @Override
+    @Nullable BinaryTag find(final int shift, final int hash, final String key) {
+      final int bit = bitpos(hash, shift);
+      if ((this.bitmap & bit) == 0) return null;
+      final int index = this.index(bit);
+      final Object existingKey = this.array[index];
+      final Object existingValue = this.array[index + 1];
+      if (existingKey == null) return ((Node) existingValue).find(shift + BITS, hash, key);
+      return key.equals(existingKey) ? (BinaryTag) existingValue : null;
+    }
+
+    @Override
+    Node put(final int shift, final int hash, final String key, final BinaryTag value, final Result result) {
+      final int bit = bitpos(hash, shift);
+      final int index = this.index(bit);
+      if ((this.bitmap & bit) == 0) {
+        final Object[] array = new Object[this.array.length + 2];
+        System.arraycopy(this.array, 0, array, 0, index);
+        array[index] = key;
+        array[index + 1] = value;
+        System.arraycopy(this.array, index, array, index + 2, this.array.length - index);
+        return this.withArray(result, this.bitmap | bit, array);
+      }
+      final Object existingKey = this.array[index];
+      final Object existingValue = this.array[index + 1];
+      if (existingKey == null) {
+        final Node child = ((Node) existingValue).put(shift + BITS, hash, key, value, result);
+        if (child == existingValue) return this;
+        return this.withSlot(result, index + 1, child);
+      }
+      if (key.equals(existingKey)) {
+        result.previous = (BinaryTag) existingValue;
+        if (value == existingValue) return this;
+        return this.withSlot(result, index + 1, value);
+      }
+      final BitmapNode node = this.withSlot(result, index + 1, pair(result.owner, shift + BITS, (String) existingKey, (BinaryTag) existingValue, hash, key, value));
+      node.array[index] = null;
+      return node;
+    }
+
+    @Override
+    @Nullable Node remove(final int shift, final int hash, final String key, final Result result) {
+      final int bit = bitpos(hash, shift);
+      if ((this.bitmap & bit) == 0) return this;
+      final int index = this.index(bit);
+      final Object existingKey = this.array[index];
+      final Object existingValue = this.array[index + 1];
+      if (existingKey == null) {
+        final @Nullable Node child = ((Node) existingValue).remove(shift + BITS, hash, key, result);
+        if (result.previous == null) return this; // nothing was removed
+        if (child == null) return this.without(result, bit, index);
+        if (child.singleEntry()) {
+          // pull the remaining entry up into this node
+          final BitmapNode node = this.withSlot(result, index + 1, child.array[1]);
+          node.array[index] = child.array[0];
+          return node;
+        }
+        return this.withSlot(result, index + 1, child);
+      }
+      if (key.equals(existingKey)) {
+        result.previous = (BinaryTag) existingValue;
+        return this.without(result, bit, index);
+      }
+      return this;
+    }
+
+    private @Nullable Node without(final Result result, final int bit, final int index) {
+      if (this.bitmap == bit) return null;
+      final Object[] array = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, array, 0, index);
+      System.arraycopy(this.array, index + 2, array, index, this.array.length - index - 2);
+      return this.withArray(result, this.bitmap ^ bit, array);
+    }
+
+    // creates a node holding two entries
+    private static Node pair(final @Nullable Object owner, final int shift, final String key0, final BinaryTag value0, final int hash1, final String key1, final BinaryTag value1) {
+      final int hash0 = key0.hashCode();
+      if (hash0 == hash1) {
+        return new CollisionNode(owner, hash0, new Object[]{key0, value0, key1, value1});
+      }
+      final int fragment0 = fragment(hash0, shift);
+      final int fragment1 = fragment(hash1, shift);
+      if (fragment0 == fragment1) {
+        return new BitmapNode(owner, 1 << fragment0, new Object[]{null, pair(owner, shift + BITS, key0, value0, hash1, key1, value1)});
+      } else if (fragment0 < fragment1) {
+        return new BitmapNode(owner, (1 << fragment0) | (1 << fragment1), new Object[]{key0, value0, key1, value1});
+      } else {
+        return new BitmapNode(owner, (1 << fragment0) | (1 << fragment1), new Object[]{key1, value1, key0, value0});
+      }
+    }
+  }
+
+  // holds entries whose keys have the same hash
+  static final class CollisionNode extends Node {
+    final int hash;
+
+    CollisionNode(final int hash, final Object[] array) {
+      this(null, hash, array);
+    }
+
+    CollisionNode(final @Nullable Object owner, final int hash, final Object[] array) {
+      super(owner, array);
+      this.hash = hash;
+    }
+
+    private int indexOf(final String key) {
+      for (int i = 0; i < this.array.length; i += 2) {
+        if (key.equals(this.array[i])) return i;
+      }
+      return -1;
+    }
+
+    // this node with a new array
+    private CollisionNode withArray(final Result result, final Object[] array) {
+      if (result.owns(this)) {
+        this.array = array;
+        return this;
+      }
+      return new CollisionNode(result.owner, this.hash, array);
+    }
+
+    @Override
+    @Nullable BinaryTag find(final int shift, final int hash, final String key) {
+      if (hash != this.hash) return null;
+      final int index = this.indexOf(key);
+      return index == -1 ? null : (BinaryTag) this.array[index + 1];
+    }
+
+    @Override
+    Node put(final int shift, final int hash, final String key, final BinaryTag value, final Result result) {
+      if (hash != this.hash) {
+        // nest this node so the new key can be placed beside it
+        return new BitmapNode(result.owner, bitpos(this.hash, shift), new Object[]{null, this}).put(shift, hash, key, value, result);
+      }
+      final int index = this.indexOf(key);
+      if (index != -1) {
+        result.previous = (BinaryTag) this.array[index + 1];
+        if (value == result.previous) return this;
+        if (result.owns(this)) {
+          this.array[index + 1] = value;
+          return this;
+        }
+        return new CollisionNode(result.owner, hash, with(this.array, index + 1, value));
+      }
+      final Object[] array = Arrays.copyOf(this.array, this.array.length + 2);
+      array[this.array.length] = key;
+      array[this.array.length + 1] = value;
+      return this.withArray(result, array);
+    }
+
+    @Override
+    @Nullable Node remove(final int shift, final int hash, final String key, final Result result) {
+      if (hash != this.hash) return this;
+      final int index = this.indexOf(key);
+      if (index == -1) return this;
+      result.previous = (BinaryTag) this.array[index + 1];
+      if (this.array.length == 2) return null;
+      final Object[] array = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, array, 0, index);
+      System.arraycopy(this.array, index + 2, array, index, this.array.length - index - 2);
+      return this.withArray(result, array);
+    }
+  }
+
+  private static Object[] with(final Object[] array, final int index, final Object value) {
+    final Object[] copy = array.clone();
+    copy[index] = value;
+    return copy;
+  }
+
+  static final class EntryIterator implements Iterator<Entry<String, BinaryTag>> {
+    private final Object[][] arrays = new Object[MAX_DEPTH + 1][];
+    private final int[] indices = new int[MAX_DEPTH + 1];
+    private int depth;
+    private @Nullable String nextKey;
+    private @Nullable BinaryTag nextValue;
+
+    EntryIterator(final Node root) {
+      this.arrays[0] = root.array;
+      this.advance();
+    }
+
+    private void advance() {
+      while (this.depth >= 0) {
+        final Object[] array = this.arrays[this.depth];
+        final int index = this.indices[this.depth];
+        if (index >= array.length) {
+          this.arrays[this.depth--] = null;
+          continue;
+        }
+        this.indices[this.depth] = index + 2;
+        if (array[index] == null) {
+          this.depth++;
+          this.arrays[this.depth] = ((Node) array[index + 1]).array;
+          this.indices[this.depth] = 0;
+        } else {
+          this.nextKey = (String) array[index];
+          this.nextValue = (BinaryTag) array[index + 1];
+          return;
+        }
+      }
+      this.nextKey = null;
+      this.nextValue = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.nextKey != null;
+    }
+
+    @Override
+    public Entry<String, BinaryTag> next() {
+      if (this.nextKey == null) throw new NoSuchElementException();
+      final Entry<String, BinaryTag> entry = new SimpleImmutableEntry<>(this.nextKey, this.nextValue);
+      this.advance();
+      return entry;
+    }
+  }
+}
@@ -0,0 +1,321 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable bit-partitioned vector trie with a tail, used to back list tags.
+ *
+ * <p>Elements are stored in leaves of {@value #WIDTH} elements, except the last up to {@value #WIDTH} elements which are kept
+ * in a separate tail array. Appending only copies the tail, and only touches the trie once every {@value #WIDTH} elements.
+ * Replacing an element copies the nodes on the path to it, all other nodes are shared with the original vector.</p>
+ */
+final class PersistentTagVector extends AbstractList<BinaryTag> implements RandomAccess {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+  private static final Object[] EMPTY_NODE = new Object[WIDTH];
+  static final PersistentTagVector EMPTY = new PersistentTagVector(0, BITS, EMPTY_NODE, new Object[0], 1);
+
+  private final int size;
+  private final int shift;
+  private final Object[] root;
+  private final Object[] tail;
+  private int hashCode; // lazily computed, 0 if not yet known
+
+  private PersistentTagVector(final int size, final int shift, final Object[] root, final Object[] tail, final int hashCode) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+    this.hashCode = hashCode;
+  }
+
+  /**
+   * Creates a vector containing all elements of {@code list}.
+   *
+   * @param list the elements
+   * @return a new vector
+   */
+  static PersistentTagVector of(final List<? extends BinaryTag> list) {
+    if (list instanceof PersistentTagVector) return (PersistentTagVector) list;
+    final Object[] elements = list.toArray();
+    for (final Object element : elements) {
+      requireNonNull(element, "tag");
+    }
+    return of(elements);
+  }
+
+  private static PersistentTagVector of(final Object[] elements) {
+    final int size = elements.length;
+    if (size == 0) return EMPTY;
+    final int tailOffset = tailOffset(size);
+    final Object[] tail = Arrays.copyOfRange(elements, tailOffset, size);
+    if (tailOffset == 0) return new PersistentTagVector(size, BITS, EMPTY_NODE, tail, 0);
+
+    // build the trie bottom-up, grouping WIDTH nodes of one level into a node of the next
+    Object[][] nodes = new Object[tailOffset >>> BITS][];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = Arrays.copyOfRange(elements, i << BITS, (i + 1) << BITS);
+    }
+    int shift = BITS;
+    while (nodes.length > WIDTH) {
+      final Object[][] parents = new Object[(nodes.length + MASK) >>> BITS][];
+      for (int i = 0; i < parents.length; i++) {
+        parents[i] = new Object[WIDTH];
+        System.arraycopy(nodes, i << BITS, parents[i], 0, Math.min(WIDTH, nodes.length - (i << BITS)));
+      }
+      nodes = parents;
+      shift += BITS;
+    }
+    final Object[] root = new Object[WIDTH];
+    System.arraycopy(nodes, 0, root, 0, nodes.length);
+    return new PersistentTagVector(size, shift, root, tail, 0);
+  }
+
+  // index of the first element in the tail
+  private static int tailOffset(final int size) {
+    return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+  }
+
+  // the leaf (or tail) containing the element at index
+  private Object[] leafFor(final int index) {
+    if (index >= tailOffset(this.size)) return this.tail;
+    Object[] node = this.root;
+    for (int level = this.shift; level > 0; level -= BITS) {
+      node = (Object[]) node[(index >>> level) & MASK];
+    }
+    return node;
+  }
+
+  @Override
+  public BinaryTag get(final int index) {
+    if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    return (BinaryTag) this.leafFor(index)[index & MASK];
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns a vector with {@code tag} appended.
+   *
+   * @param tag the tag
+   * @return a new vector
+   */
+  PersistentTagVector with(final BinaryTag tag) {
+    requireNonNull(tag, "tag");
+    final int hashCode = this.hashCode == 0 ? 0 : 31 * this.hashCode + tag.hashCode();
+    if (this.size - tailOffset(this.size) < WIDTH) {
+      final Object[] tail = Arrays.copyOf(this.tail, this.tail.length + 1);
+      tail[this.tail.length] = tag;
+      return new PersistentTagVector(this.size + 1, this.shift, this.root, tail, hashCode);
+    }
+    // the tail is full, push it into the trie
+    final Object[] root;
+    int shift = this.shift;
+    if ((this.size >>> BITS) > (1 << this.shift)) { // the trie is full, add a level
+      root = new Object[WIDTH];
+      root[0] = this.root;
+      root[1] = newPath(this.shift, this.tail);
+      shift += BITS;
+    } else {
+      root = this.pushTail(this.shift, this.root);
+    }
+    return new PersistentTagVector(this.size + 1, shift, root, new Object[]{tag}, hashCode);
+  }
+
+  private Object[] pushTail(final int level, final Object[] parent) {
+    final int index = ((this.size - 1) >>> level) & MASK;
+    final Object[] node = parent.clone();
+    if (level == BITS) {
+      node[index] = this.tail;
+    } else {
+      final Object[] child = (Object[]) parent[index];
+      node[index] = child != null ? this.pushTail(level - BITS, child) : newPath(level - BITS, this.tail);
+    }
+    return node;
+  }
+
+  private static Object[] newPath(final int level, final Object[] leaf) {
+    if (level == 0) return leaf;
+    final Object[] node = new Object[WIDTH];
+    node[0] = newPath(level - BITS, leaf);
+    return node;
+  }
+
+  /**
+   * Returns a vector with the element at {@code index} replaced by {@code tag}.
+   *
+   * @param index the index
+   * @param tag the tag
+   * @return a new vector
+   */
+  PersistentTagVector with(final int index, final BinaryTag tag) {
+    requireNonNull(tag, "tag");
+    if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    if (index >= tailOffset(this.size)) {
+      final Object[] tail = this.tail.clone();
+      tail[index & MASK] = tag;
+      return new PersistentTagVector(this.size, this.shift, this.root, tail, 0);
+    }
+    return new PersistentTagVector(this.size, this.shift, replace(this.shift, this.root, index, tag), this.tail, 0);
+  }
+
+  private static Object[] replace(final int level, final Object[] node, final int index, final BinaryTag tag) {
+    final Object[] copy = node.clone();
+    if (level == 0) {
+      copy[index & MASK] = tag;
+    } else {
+      final int slot = (index >>> level) & MASK;
+      copy[slot] = replace(level - BITS, (Object[]) node[slot], index, tag);
+    }
+    return copy;
+  }
+
+  /**
+   * Returns a vector with the element at {@code index} removed.
+   *
+   * <p>Removing the last element is cheap, removing any other element rebuilds the vector.</p>
+   *
+   * @param index the index
+   * @return a new vector
+   */
+  PersistentTagVector without(final int index) {
+    if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    if (this.size == 1) return EMPTY;
+    if (index != this.size - 1) {
+      final Object[] elements = this.toArray();
+      final Object[] remaining = Arrays.copyOf(elements, elements.length - 1);
+      System.arraycopy(elements, index + 1, remaining, index, remaining.length - index);
+      return of(remaining);
+    }
+    if (this.size - tailOffset(this.size) > 1) {
+      return new PersistentTagVector(this.size - 1, this.shift, this.root, Arrays.copyOf(this.tail, this.tail.length - 1), 0);
+    }
+    // the tail becomes empty, pull the last leaf of the trie up as the new tail
+    final Object[] tail = this.leafFor(this.size - 2);
+    Object[] root = this.popTail(this.shift, this.root);
+    int shift = this.shift;
+    if (root == null) {
+      root = EMPTY_NODE;
+    } else if (shift > BITS && root[1] == null) {
+      root = (Object[]) root[0];
+      shift -= BITS;
+    }
+    return new PersistentTagVector(this.size - 1, shift, root, tail, 0);
+  }
+
+  private Object@Nullable[] popTail(final int level, final Object[] node) {
+    final int index = ((this.size - 2) >>> level) & MASK;
+    if (level > BITS) {
+      final Object[] child = this.popTail(level - BITS, (Object[]) node[index]);
+      if (child == null && index == 0) return null;
+      final Object[] copy = node.clone();
+      copy[index] = child;
+      return copy;
+    } else if (index == 0) {
+      return null;
+    }
+    final Object[] copy = node.clone();
+    copy[index] = null;
+    return copy;
+  }
+
+  @Override
+  public Iterator<BinaryTag> iterator() {
+    return new Iterator<BinaryTag>() {
+      private int index;
+      private Object[] leaf = PersistentTagVector.this.tail;
+
+      @Override
+      public boolean hasNext() {
+        return this.index < PersistentTagVector.this.size;
+      }
+
+      @Override
+      public BinaryTag next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        if ((this.index & MASK) == 0) {
+          this.leaf = PersistentTagVector.this.leafFor(this.index);
+        }
+        return (BinaryTag) this.leaf[this.index++ & MASK];
+      }
+    };
+  }
+
+  @Override
+  public void forEach(final Consumer<? super BinaryTag> action) {
+    for (int i = 0; i < this.size; i += WIDTH) {
+      final Object[] leaf = this.leafFor(i);
+      final int length = Math.min(WIDTH, this.size - i);
+      for (int j = 0; j < length; j++) {
+        action.accept((BinaryTag) leaf[j]);
+      }
+    }
+  }
+
+  @Override
+  public Object@NotNull[] toArray() {
+    final Object[] array = new Object[this.size];
+    for (int i = 0; i < this.size; i += WIDTH) {
+      System.arraycopy(this.leafFor(i), 0, array, i, Math.min(WIDTH, this.size - i));
+    }
+    return array;
+  }
+
+  @Override
+  public boolean equals(final Object that) {
+    if (this == that) return true;
+    if (that instanceof PersistentTagVector) {
+      final PersistentTagVector other = (PersistentTagVector) that;
+      if (this.size != other.size) return false;
+      if (this.hashCode != 0 && other.hashCode != 0 && this.hashCode != other.hashCode) return false;
+    }
+    return super.equals(that);
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = this.hashCode;
+    if (hashCode == 0) {
+      hashCode = super.hashCode();
+      this.hashCode = hashCode;
+    }
+    return hashCode;
+  }
+}
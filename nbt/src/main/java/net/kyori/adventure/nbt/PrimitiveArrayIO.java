@@ -0,0 +1,120 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bulk reads and writes of primitive arrays.
+ *
+ * <p>Elements are converted through {@link ByteBuffer#asIntBuffer()} and {@link ByteBuffer#asLongBuffer()} views, either
+ * directly over the buffer of a {@link ByteBufferDataInput} or {@link ByteBufferDataOutput}, or over a chunk of bytes
+ * moved with a single {@link DataInput#readFully(byte[], int, int)} or {@link DataOutput#write(byte[], int, int)} call,
+ * rather than one element at a time.</p>
+ */
+final class PrimitiveArrayIO {
+  private static final int CHUNK_SIZE = 8192;
+
+  private PrimitiveArrayIO() {
+  }
+
+  static void readInts(final DataInput input, final int[] values) throws IOException {
+    if (input instanceof ByteBufferDataInput) {
+      final ByteBuffer buffer = ((ByteBufferDataInput) input).bulk(values.length * (long) Integer.BYTES);
+      buffer.asIntBuffer().get(values);
+      return;
+    }
+    final byte[] chunk = new byte[(int) Math.min(values.length * (long) Integer.BYTES, CHUNK_SIZE)];
+    final ByteBuffer view = ByteBuffer.wrap(chunk);
+    int i = 0;
+    while (i < values.length) {
+      final int count = Math.min(values.length - i, CHUNK_SIZE / Integer.BYTES);
+      input.readFully(chunk, 0, count * Integer.BYTES);
+      view.clear();
+      view.asIntBuffer().get(values, i, count);
+      i += count;
+    }
+  }
+
+  static void readLongs(final DataInput input, final long[] values) throws IOException {
+    if (input instanceof ByteBufferDataInput) {
+      final ByteBuffer buffer = ((ByteBufferDataInput) input).bulk(values.length * (long) Long.BYTES);
+      buffer.asLongBuffer().get(values);
+      return;
+    }
+    final byte[] chunk = new byte[(int) Math.min(values.length * (long) Long.BYTES, CHUNK_SIZE)];
+    final ByteBuffer view = ByteBuffer.wrap(chunk);
+    int i = 0;
+    while (i < values.length) {
+      final int count = Math.min(values.length - i, CHUNK_SIZE / Long.BYTES);
+      input.readFully(chunk, 0, count * Long.BYTES);
+      view.clear();
+      view.asLongBuffer().get(values, i, count);
+      i += count;
+    }
+  }
+
+  static void writeInts(final DataOutput output, final int[] values) throws IOException {
+    if (output instanceof ByteBufferDataOutput) {
+      final ByteBuffer buffer = ((ByteBufferDataOutput) output).bulk(values.length * (long) Integer.BYTES);
+      if (buffer != null) {
+        buffer.asIntBuffer().put(values);
+        return;
+      }
+    }
+    final byte[] chunk = new byte[(int) Math.min(values.length * (long) Integer.BYTES, CHUNK_SIZE)];
+    final ByteBuffer view = ByteBuffer.wrap(chunk);
+    int i = 0;
+    while (i < values.length) {
+      final int count = Math.min(values.length - i, CHUNK_SIZE / Integer.BYTES);
+      view.clear();
+      view.asIntBuffer().put(values, i, count);
+      output.write(chunk, 0, count * Integer.BYTES);
+      i += count;
+    }
+  }
+
+  static void writeLongs(final DataOutput output, final long[] values) throws IOException {
+    if (output instanceof ByteBufferDataOutput) {
+      final ByteBuffer buffer = ((ByteBufferDataOutput) output).bulk(values.length * (long) Long.BYTES);
+      if (buffer != null) {
+        buffer.asLongBuffer().put(values);
+        return;
+      }
+    }
+    final byte[] chunk = new byte[(int) Math.min(values.length * (long) Long.BYTES, CHUNK_SIZE)];
+    final ByteBuffer view = ByteBuffer.wrap(chunk);
+    int i = 0;
+    while (i < values.length) {
+      final int count = Math.min(values.length - i, CHUNK_SIZE / Long.BYTES);
+      view.clear();
+      view.asLongBuffer().put(values, i, count);
+      output.write(chunk, 0, count * Long.BYTES);
+      i += count;
+    }
+  }
+}
@@ -0,0 +1,391 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A region file, holding the tags of a 32 by 32 area of chunks in the sector-based Anvil format.
+ *
+ * <p>The file is made of 4 KiB sectors. The first two sectors are a header with the location and size of the data of each
+ * chunk, and the time each chunk was last written. The data of a chunk is stored in whole sectors, as its length, a
+ * compression type and the compressed tag. Data that would need more than 255 sectors is stored in a separate
+ * {@code c.<x>.<z>.mcc} file beside the region file instead, named by the absolute chunk coordinates. These are derived
+ * from the region coordinates in an {@code r.<x>.<z>.mca} file name, and taken as region {@code 0, 0} for other names.</p>
+ *
+ * <p>The header is mapped into memory. Reads do not lock, so any number of chunks can be read concurrently, also while
+ * other chunks are written. Writes are serialized, and place new data in free sectors before the header is updated to
+ * point to it.</p>
+ *
+ * <p>Chunks are addressed by their chunk coordinates, of which only the lowest 5 bits select the chunk within the region.</p>
+ *
+ * @since 4.10.0
+ */
+public final class RegionFile implements Closeable {
+  private static final int SECTOR_SIZE = 4096;
+  private static final int CHUNKS = 1024;
+  private static final int HEADER_SECTORS = 2;
+  private static final int MAX_SECTORS = 255;
+  private static final int PREFIX_LENGTH = 5; // the length and compression type
+  private static final int EXTERNAL = 0x80;
+  private static final int GZIP = 1;
+  private static final int ZLIB = 2;
+  private static final int NONE = 3;
+
+  private final Path path;
+  private final int regionX;
+  private final int regionZ;
+  private final FileChannel channel;
+  private final MappedByteBuffer header;
+  private final AtomicIntegerArray locations = new AtomicIntegerArray(CHUNKS);
+  private final AtomicIntegerArray timestamps = new AtomicIntegerArray(CHUNKS);
+  private final BitSet used = new BitSet(); // guarded by itself
+
+  private RegionFile(final Path path, final FileChannel channel, final MappedByteBuffer header) throws IOException {
+    this.path = path;
+    final String[] name = path.getFileName().toString().split("\\.", -1);
+    if (name.length == 4 && name[0].equals("r") && name[3].equals("mca") && isInteger(name[1]) && isInteger(name[2])) {
+      this.regionX = Integer.parseInt(name[1]);
+      this.regionZ = Integer.parseInt(name[2]);
+    } else {
+      this.regionX = 0;
+      this.regionZ = 0;
+    }
+    this.channel = channel;
+    this.header = header;
+    final long sectors = (channel.size() + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    this.used.set(0, HEADER_SECTORS);
+    for (int i = 0; i < CHUNKS; i++) {
+      final int location = header.getInt(i * 4);
+      final int offset = location >>> 8;
+      final int count = location & 0xff;
+      if (location != 0 && offset >= HEADER_SECTORS && count > 0 && offset + count <= sectors) {
+        this.locations.set(i, location);
+        this.used.set(offset, offset + count);
+      }
+      this.timestamps.set(i, header.getInt(SECTOR_SIZE + i * 4));
+    }
+  }
+
+  /**
+   * Opens a region file for reading and writing, creating it if it does not exist.
+   *
+   * @param path the path
+   * @return the region file
+   * @throws IOException if the file cannot be opened
+   * @since 4.10.0
+   */
+  public static @NotNull RegionFile open(final @NotNull Path path) throws IOException {
+    final FileChannel channel = FileChannel.open(requireNonNull(path, "path"), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+    try {
+      final long size = channel.size();
+      if (size < HEADER_SECTORS * SECTOR_SIZE) {
+        writeFully(channel, ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE - (int) size), size);
+      }
+      return new RegionFile(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SECTORS * SECTOR_SIZE));
+    } catch (final IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets whether a chunk is present.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @return whether the chunk is present
+   * @since 4.10.0
+   */
+  public boolean contains(final int x, final int z) {
+    return this.locations.get(index(x, z)) != 0;
+  }
+
+  /**
+   * Gets the time a chunk was last written.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @return the time in seconds since the epoch, or {@code 0} if the chunk is not present
+   * @since 4.10.0
+   */
+  public int timestamp(final int x, final int z) {
+    return this.timestamps.get(index(x, z));
+  }
+
+  /**
+   * Reads a chunk, using an {@link BinaryTagIO#unlimitedReader() unlimited} reader.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @return the tag, or {@code null} if the chunk is not present
+   * @throws IOException if the chunk cannot be read
+   * @since 4.10.0
+   */
+  public @Nullable CompoundBinaryTag read(final int x, final int z) throws IOException {
+    return this.read(x, z, BinaryTagIO.unlimitedReader());
+  }
+
+  /**
+   * Reads a chunk.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @param reader the reader to read the tag with
+   * @return the tag, or {@code null} if the chunk is not present
+   * @throws IOException if the chunk cannot be read, or uses an unsupported compression type
+   * @since 4.10.0
+   */
+  public @Nullable CompoundBinaryTag read(final int x, final int z, final BinaryTagIO.@NotNull Reader reader) throws IOException {
+    final int location = this.locations.get(index(x, z));
+    if (location == 0) return null;
+    final ByteBuffer data = ByteBuffer.allocate((location & 0xff) * SECTOR_SIZE);
+    readFully(this.channel, data, (long) (location >>> 8) * SECTOR_SIZE);
+    data.flip();
+    final int length = data.remaining() >= PREFIX_LENGTH ? data.getInt() : -1;
+    if (length <= 0 || length > data.remaining()) {
+      throw new IOException("Invalid data length " + length + " for chunk " + x + ", " + z);
+    }
+    final int type = data.get() & 0xff;
+    final BinaryTagIO.Compression compression = compression(type & ~EXTERNAL);
+    if ((type & EXTERNAL) != 0) {
+      return reader.read(this.externalPath(x, z), compression);
+    }
+    data.limit(data.position() + length - 1);
+    if (compression == BinaryTagIO.Compression.NONE) {
+      return reader.read(data);
+    }
+    return reader.read(new ByteArrayInputStream(data.array(), data.position(), data.remaining()), compression);
+  }
+
+  /**
+   * Writes a chunk using {@link BinaryTagIO.Compression#ZLIB zlib} compression.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @param tag the tag
+   * @throws IOException if the chunk cannot be written
+   * @since 4.10.0
+   */
+  public void write(final int x, final int z, final @NotNull CompoundBinaryTag tag) throws IOException {
+    this.write(x, z, tag, BinaryTagIO.Compression.ZLIB);
+  }
+
+  /**
+   * Writes a chunk.
+   *
+   * <p>The compression must be {@link BinaryTagIO.Compression#NONE none}, or a gzip or zlib compression at any level.</p>
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @param tag the tag
+   * @param compression the compression
+   * @throws IllegalArgumentException if the compression cannot be stored in a region file
+   * @throws IOException if the chunk cannot be written
+   * @since 4.10.0
+   */
+  public void write(final int x, final int z, final @NotNull CompoundBinaryTag tag, final BinaryTagIO.@NotNull Compression compression) throws IOException {
+    final int type = type(compression);
+    final Output output = new Output();
+    output.write(new byte[PREFIX_LENGTH]);
+    BinaryTagIO.writer().write(tag, output, compression);
+    final int size = output.size();
+    final int sectors = (size + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    final boolean external = sectors > MAX_SECTORS;
+    final ByteBuffer data;
+    if (external) {
+      data = ByteBuffer.allocate(SECTOR_SIZE);
+      data.putInt(0, 1).put(4, (byte) (type | EXTERNAL));
+    } else {
+      output.write(new byte[sectors * SECTOR_SIZE - size]); // pad to whole sectors
+      data = ByteBuffer.wrap(output.buffer(), 0, output.size());
+      data.putInt(0, size - 4).put(4, (byte) type);
+    }
+
+    final int index = index(x, z);
+    final Path externalPath = this.externalPath(x, z);
+    synchronized (this.used) {
+      if (external) {
+        writeExternal(externalPath, output.buffer(), PREFIX_LENGTH, size - PREFIX_LENGTH);
+      }
+      final int previous = this.locations.get(index);
+      final int count = data.remaining() / SECTOR_SIZE;
+      final int offset = this.allocate(count);
+      writeFully(this.channel, data, (long) offset * SECTOR_SIZE);
+      this.update(index, offset << 8 | count, (int) (System.currentTimeMillis() / 1000L));
+      this.free(previous);
+      if (!external) {
+        Files.deleteIfExists(externalPath);
+      }
+    }
+  }
+
+  /**
+   * Removes a chunk.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @return whether the chunk was present
+   * @throws IOException if the chunk cannot be removed
+   * @since 4.10.0
+   */
+  public boolean remove(final int x, final int z) throws IOException {
+    final int index = index(x, z);
+    synchronized (this.used) {
+      final int previous = this.locations.get(index);
+      if (previous == 0) return false;
+      this.update(index, 0, 0);
+      this.free(previous);
+      Files.deleteIfExists(this.externalPath(x, z));
+      return true;
+    }
+  }
+
+  /**
+   * Forces all written chunks and the header to the storage device.
+   *
+   * @throws IOException if an I/O error occurs
+   * @since 4.10.0
+   */
+  public void flush() throws IOException {
+    synchronized (this.used) {
+      this.channel.force(false);
+      this.header.force();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  private static int index(final int x, final int z) {
+    return (x & 31) | (z & 31) << 5;
+  }
+
+  // named by absolute coordinates, so chunks addressed relative to the region share a file with absolute ones
+  private Path externalPath(final int x, final int z) {
+    return this.path.resolveSibling("c." + ((this.regionX << 5) | (x & 31)) + "." + ((this.regionZ << 5) | (z & 31)) + ".mcc");
+  }
+
+  private static boolean isInteger(final String string) {
+    try {
+      Integer.parseInt(string);
+      return true;
+    } catch (final NumberFormatException e) {
+      return false;
+    }
+  }
+
+  // finds the first run of free sectors long enough, past the end of the file if necessary
+  private int allocate(final int sectors) {
+    int start = this.used.nextClearBit(HEADER_SECTORS);
+    int next;
+    while ((next = this.used.nextSetBit(start)) != -1 && next - start < sectors) {
+      start = this.used.nextClearBit(next);
+    }
+    this.used.set(start, start + sectors);
+    return start;
+  }
+
+  private void free(final int location) {
+    if (location != 0) {
+      final int offset = location >>> 8;
+      this.used.clear(offset, offset + (location & 0xff));
+    }
+  }
+
+  private void update(final int index, final int location, final int timestamp) {
+    this.header.putInt(index * 4, location);
+    this.header.putInt(SECTOR_SIZE + index * 4, timestamp);
+    this.timestamps.set(index, timestamp);
+    this.locations.set(index, location);
+  }
+
+  private static int type(final BinaryTagIO.Compression compression) {
+    if (compression == BinaryTagIO.Compression.NONE) {
+      return NONE;
+    } else if (compression instanceof DeflateCompression) {
+      return ((DeflateCompression) compression).gzip() ? GZIP : ZLIB;
+    }
+    throw new IllegalArgumentException("Region files only support gzip, zlib or no compression, not " + compression);
+  }
+
+  private static BinaryTagIO.Compression compression(final int type) throws IOException {
+    switch (type) {
+      case GZIP:
+        return BinaryTagIO.Compression.GZIP;
+      case ZLIB:
+        return BinaryTagIO.Compression.ZLIB;
+      case NONE:
+        return BinaryTagIO.Compression.NONE;
+      default:
+        throw new IOException("Unsupported compression type " + type);
+    }
+  }
+
+  // reads until the buffer is full or the end of the file is reached
+  private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) break;
+    }
+  }
+
+  private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    final int start = buffer.position();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position() - start);
+    }
+  }
+
+  private static void writeExternal(final Path path, final byte[] bytes, final int offset, final int length) throws IOException {
+    AtomicFiles.write(path, channel -> writeFully(channel, ByteBuffer.wrap(bytes, offset, length), 0));
+  }
+
+  // exposes its buffer to write it without a copy
+  private static final class Output extends ByteArrayOutputStream {
+    Output() {
+      super(SECTOR_SIZE);
+    }
+
+    byte[] buffer() {
+      return this.buf;
+    }
+  }
+}
@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
 import org.jetbrains.annotations.Debug;
@@ -43,7 +44,7 @@ public interface ShortBinaryTag extends NumberBinaryTag {
    * @since 4.0.0
    */
   static @NotNull ShortBinaryTag of(final short value) {
-    return new ShortBinaryTagImpl(value);
+    return ShortBinaryTagImpl.of(value);
   }
 
   @Override
@@ -51,6 +52,11 @@ public interface ShortBinaryTag extends NumberBinaryTag {
     return BinaryTagTypes.SHORT;
   }
 
+  @Override
+  default boolean visit(final @NotNull BinaryTagVisitor visitor) throws IOException {
+    return visitor.visitShort(this.value()) != BinaryTagVisitor.Result.HALT;
+  }
+
   /**
    * Gets the value.
    *
@@ -62,8 +68,21 @@ public interface ShortBinaryTag extends NumberBinaryTag {
 
 @Debug.Renderer(text = "String.valueOf(this.value) + \"s\"", hasChildren = "false")
 final class ShortBinaryTagImpl extends AbstractBinaryTag implements ShortBinaryTag {
+  private static final int LOW = Math.max(NumberTagCache.LOW, Short.MIN_VALUE);
+  private static final ShortBinaryTag[] CACHE = new ShortBinaryTag[NumberTagCache.size(LOW, Math.min(NumberTagCache.HIGH, Short.MAX_VALUE))];
   private final short value;
 
+  static ShortBinaryTag of(final short value) {
+    final int index = value - LOW;
+    if (index < 0 || index >= CACHE.length) return new ShortBinaryTagImpl(value);
+    ShortBinaryTag tag = CACHE[index];
+    if (tag == null) {
+      tag = new ShortBinaryTagImpl(value);
+      CACHE[index] = tag;
+    }
+    return tag;
+  }
+
   ShortBinaryTagImpl(final short value) {
     this.value = value;
   }
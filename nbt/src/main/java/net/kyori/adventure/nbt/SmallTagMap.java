@@ -0,0 +1,177 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable map of a few entries, stored in flat arrays of keys and values.
+ *
+ * <p>Lookups scan the keys linearly, which for a handful of entries is faster than hashing and costs no extra objects.
+ * Entries are iterated in insertion order, and changing an entry copies both arrays.</p>
+ */
+final class SmallTagMap extends TagMap {
+  static final SmallTagMap EMPTY = new SmallTagMap(new String[0], new BinaryTag[0]);
+  private final String[] keys;
+  private final BinaryTag[] values;
+  private final int hashCode;
+
+  private SmallTagMap(final String[] keys, final BinaryTag[] values) {
+    this.keys = keys;
+    this.values = values;
+    int hashCode = 0;
+    for (int i = 0; i < keys.length; i++) {
+      hashCode += keys[i].hashCode() ^ values[i].hashCode();
+    }
+    this.hashCode = hashCode;
+  }
+
+  // takes ownership of the arrays, which must hold distinct keys
+  static SmallTagMap of(final String[] keys, final BinaryTag[] values) {
+    return keys.length == 0 ? EMPTY : new SmallTagMap(keys, values);
+  }
+
+  static SmallTagMap of(final Map<String, ? extends BinaryTag> map) {
+    final int size = map.size();
+    if (size == 0) return EMPTY;
+    final String[] keys = new String[size];
+    final BinaryTag[] values = new BinaryTag[size];
+    int i = 0;
+    for (final Map.Entry<String, ? extends BinaryTag> entry : map.entrySet()) {
+      keys[i] = requireNonNull(entry.getKey(), "key");
+      values[i++] = requireNonNull(entry.getValue(), "value");
+    }
+    return new SmallTagMap(keys, values);
+  }
+
+  private int indexOf(final Object key) {
+    for (int i = 0; i < this.keys.length; i++) {
+      if (key.equals(this.keys[i])) return i;
+    }
+    return -1;
+  }
+
+  @Override
+  public int size() {
+    return this.keys.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.keys.length == 0;
+  }
+
+  @Override
+  public @Nullable BinaryTag get(final Object key) {
+    if (!(key instanceof String)) return null;
+    final int index = this.indexOf(key);
+    return index == -1 ? null : this.values[index];
+  }
+
+  @Override
+  TagMap with(final String key, final BinaryTag value) {
+    requireNonNull(value, "value");
+    final int index = this.indexOf(key);
+    if (index != -1) {
+      if (this.values[index] == value) return this;
+      final BinaryTag[] values = this.values.clone();
+      values[index] = value;
+      return new SmallTagMap(this.keys, values);
+    }
+    if (this.keys.length == MAX_SMALL_SIZE) {
+      return PersistentTagMap.of(this).with(key, value);
+    }
+    final String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+    final BinaryTag[] values = Arrays.copyOf(this.values, this.values.length + 1);
+    keys[this.keys.length] = key;
+    values[this.values.length] = value;
+    return new SmallTagMap(keys, values);
+  }
+
+  @Override
+  TagMap without(final String key) {
+    final int index = this.indexOf(key);
+    if (index == -1) return this;
+    if (this.keys.length == 1) return EMPTY;
+    final String[] keys = new String[this.keys.length - 1];
+    final BinaryTag[] values = new BinaryTag[this.values.length - 1];
+    System.arraycopy(this.keys, 0, keys, 0, index);
+    System.arraycopy(this.keys, index + 1, keys, index, keys.length - index);
+    System.arraycopy(this.values, 0, values, 0, index);
+    System.arraycopy(this.values, index + 1, values, index, values.length - index);
+    return new SmallTagMap(keys, values);
+  }
+
+  @Override
+  public void forEach(final BiConsumer<? super String, ? super BinaryTag> action) {
+    for (int i = 0; i < this.keys.length; i++) {
+      action.accept(this.keys[i], this.values[i]);
+    }
+  }
+
+  @Override
+  public @NotNull Set<Entry<String, BinaryTag>> entrySet() {
+    return new AbstractSet<Entry<String, BinaryTag>>() {
+      @Override
+      public @NotNull Iterator<Entry<String, BinaryTag>> iterator() {
+        return new Iterator<Entry<String, BinaryTag>>() {
+          private int index;
+
+          @Override
+          public boolean hasNext() {
+            return this.index < SmallTagMap.this.keys.length;
+          }
+
+          @Override
+          public Entry<String, BinaryTag> next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            final int index = this.index++;
+            return new AbstractMap.SimpleImmutableEntry<>(SmallTagMap.this.keys[index], SmallTagMap.this.values[index]);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return SmallTagMap.this.keys.length;
+      }
+    };
+  }
+
+  @Override
+  public int hashCode() {
+    return this.hashCode;
+  }
+}
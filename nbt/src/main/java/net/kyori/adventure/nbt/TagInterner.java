@@ -0,0 +1,99 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A bounded table of compound and list tags, used to share a single instance between equal subtrees.
+ *
+ * <p>Like {@link KeyInterner}, the table is a fixed-size, direct-mapped cache with lock-free lookups, where a tag that
+ * hashes to an occupied slot replaces the previous tag. Slots are looked up by the hash code compound and list tags
+ * keep, and entries are only weakly held, so the table never keeps a tag alive once nothing else refers to it.</p>
+ *
+ * <p>Readers intern children before their parents, so once the children of two equal candidates have been interned,
+ * they are the same instances and comparing the candidates short-circuits on identity below the first level.</p>
+ *
+ * <p>Compound equality ignores the order of entries, but a tag is only replaced by one whose compounds hold their
+ * entries in the same order, so that a deduplicated tree encodes to the same bytes as the tree that was read.</p>
+ */
+final class TagInterner {
+  static final TagInterner SHARED = new TagInterner(8192);
+  private final AtomicReferenceArray<WeakReference<BinaryTag>> table;
+  private final int mask;
+
+  TagInterner(final int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("capacity must be a power of two, was " + capacity);
+    }
+    this.table = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Gets the interned instance of a tag, interning the tag itself if no equal tag is known.
+   *
+   * @param tag the tag
+   * @param <T> the type of tag
+   * @return an equal tag, possibly {@code tag} itself
+   */
+  @SuppressWarnings("unchecked")
+  <T extends BinaryTag> T intern(final T tag) {
+    final int hash = tag.hashCode();
+    final int slot = (hash ^ (hash >>> 16)) & this.mask;
+    final @Nullable WeakReference<BinaryTag> entry = this.table.get(slot);
+    if (entry != null) {
+      final @Nullable BinaryTag existing = entry.get();
+      if (existing != null && existing.type() == tag.type() && existing.hashCode() == hash && existing.equals(tag) && sameOrder(existing, tag)) {
+        return (T) existing;
+      }
+    }
+    this.table.lazySet(slot, new WeakReference<>(tag));
+    return tag;
+  }
+
+  // whether the compounds within two equal tags hold their entries in the same order
+  private static boolean sameOrder(final BinaryTag a, final BinaryTag b) {
+    if (a == b) return true;
+    if (a instanceof CompoundBinaryTag) {
+      final CompoundBinaryTag compoundA = (CompoundBinaryTag) a;
+      final CompoundBinaryTag compoundB = (CompoundBinaryTag) b;
+      final Iterator<String> keysB = compoundB.keySet().iterator();
+      for (final String key : compoundA.keySet()) {
+        if (!key.equals(keysB.next()) || !sameOrder(compoundA.get(key), compoundB.get(key))) return false;
+      }
+    } else if (a instanceof ListBinaryTag) {
+      final ListBinaryTag listA = (ListBinaryTag) a;
+      final ListBinaryTag listB = (ListBinaryTag) b;
+      if (listA.elementType() != BinaryTagTypes.COMPOUND && listA.elementType() != BinaryTagTypes.LIST) return true;
+      for (int i = 0; i < listA.size(); i++) {
+        if (!sameOrder(listA.get(i), listB.get(i))) return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable map backing a compound tag.
+ *
+ * <p>Maps of up to {@value #MAX_SMALL_SIZE} entries are stored as a flat {@link SmallTagMap}, larger maps as a
+ * {@link PersistentTagMap}. Both maintain their {@link #hashCode()}.</p>
+ */
+abstract class TagMap extends AbstractMap<String, BinaryTag> {
+  static final int MAX_SMALL_SIZE = 8;
+
+  /**
+   * Creates a map containing all entries of {@code map}, in the most compact representation for its size.
+   *
+   * @param map the entries
+   * @return a new map
+   */
+  static TagMap of(final Map<String, ? extends BinaryTag> map) {
+    if (map instanceof TagMap) return (TagMap) map;
+    if (map.size() <= MAX_SMALL_SIZE) return SmallTagMap.of(map);
+    return PersistentTagMap.of(map);
+  }
+
+  /**
+   * Gets a map with {@code key} mapped to {@code value}.
+   *
+   * @param key the key
+   * @param value the value
+   * @return a map with the entry, or this map if it is unchanged
+   */
+  abstract TagMap with(final String key, final BinaryTag value);
+
+  /**
+   * Gets a map without {@code key}.
+   *
+   * @param key the key
+   * @return a map without the key, or this map if the key was not present
+   */
+  abstract TagMap without(final String key);
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return this.get(key) != null;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) return true;
+    if (other instanceof TagMap) {
+      final TagMap that = (TagMap) other;
+      if (this.size() != that.size() || this.hashCode() != that.hashCode()) return false;
+    }
+    return super.equals(other);
+  }
+
+  /**
+   * Collects entries in insertion order, replacing the values of repeated keys, and builds the most compact map for them.
+   *
+   * <p>Entries are kept in flat arrays until there are more than {@value #MAX_SMALL_SIZE}, and in a hash map after.</p>
+   */
+  static final class Builder {
+    private final String[] keys = new String[MAX_SMALL_SIZE];
+    private final BinaryTag[] values = new BinaryTag[MAX_SMALL_SIZE];
+    private int size;
+    private @Nullable Map<String, BinaryTag> map; // once there are too many entries for the arrays
+
+    @Nullable BinaryTag put(final String key, final BinaryTag value) {
+      requireNonNull(key, "key");
+      requireNonNull(value, "value");
+      if (this.map != null) return this.map.put(key, value);
+      final int index = this.indexOf(key);
+      if (index != -1) {
+        final BinaryTag previous = this.values[index];
+        this.values[index] = value;
+        return previous;
+      }
+      if (this.size == MAX_SMALL_SIZE) {
+        final Map<String, BinaryTag> map = new HashMap<>();
+        for (int i = 0; i < this.size; i++) {
+          map.put(this.keys[i], this.values[i]);
+        }
+        map.put(key, value);
+        this.map = map;
+        return null;
+      }
+      this.keys[this.size] = key;
+      this.values[this.size++] = value;
+      return null;
+    }
+
+    @Nullable BinaryTag remove(final String key) {
+      if (this.map != null) return this.map.remove(key);
+      final int index = this.indexOf(key);
+      if (index == -1) return null;
+      final BinaryTag previous = this.values[index];
+      final int moved = --this.size - index;
+      System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+      System.arraycopy(this.values, index + 1, this.values, index, moved);
+      this.keys[this.size] = null;
+      this.values[this.size] = null;
+      return previous;
+    }
+
+    private int indexOf(final String key) {
+      for (int i = 0; i < this.size; i++) {
+        if (key.equals(this.keys[i])) return i;
+      }
+      return -1;
+    }
+
+    TagMap build() {
+      if (this.map != null) return TagMap.of(this.map);
+      return SmallTagMap.of(Arrays.copyOf(this.keys, this.size), Arrays.copyOf(this.values, this.size));
+    }
+  }
+}
@@ -59,11 +59,13 @@ public final class TagStringIO {
   private final boolean acceptLegacy;
   private final boolean emitLegacy;
   private final String indent;
+  private final long truncateAfter;
 
   private TagStringIO(final @NotNull Builder builder) {
     this.acceptLegacy = builder.acceptLegacy;
     this.emitLegacy = builder.emitLegacy;
     this.indent = builder.indent;
+    this.truncateAfter = builder.truncateAfter;
   }
 
   /**
@@ -72,6 +74,10 @@ public final class TagStringIO {
    * <p>When working with untrusted input (such as from the network), users should be careful
    * to validate that the {@code input} string is of a reasonable size.</p>
    *
+   * <p>A backslash escapes the character after it, which is kept as-is in quoted and unquoted values alike; there are
+   * no escape sequences for control characters, so {@code "\n"} reads as {@code n}. An unquoted value containing an
+   * escape is always read as a string, never as a number or boolean.</p>
+   *
    * @param input Input data
    * @return this
    * @throws IOException on any syntax errors
@@ -95,6 +101,9 @@ public final class TagStringIO {
   /**
    * Get a string representation of the provided tag.
    *
+   * <p>If a {@link Builder#truncateAfter(long) length limit} is configured, the result is cut
+   * off at that limit and followed by {@code ...}.</p>
+   *
    * @param input tag to serialize
    * @return serialized form
    * @throws IOException if any errors occur writing to string
@@ -102,7 +111,7 @@ public final class TagStringIO {
    */
   public String asString(final CompoundBinaryTag input) throws IOException {
     final StringBuilder sb = new StringBuilder();
-    try(final TagStringWriter emit = new TagStringWriter(sb, this.indent)) {
+    try(final TagStringWriter emit = new TagStringWriter(sb, this.indent, this.truncateAfter)) {
       emit.legacy(this.emitLegacy);
       emit.writeTag(input);
     }
@@ -114,13 +123,17 @@ public final class TagStringIO {
    *
    * <p>The provided {@link Writer} will remain open after reading a tag.</p>
    *
+   * <p>Output is streamed to {@code dest} in chunks as the tag is traversed, without first building the
+   * whole document in memory. If a {@link Builder#truncateAfter(long) length limit} is configured,
+   * traversal stops once it is reached and {@code ...} is written in place of the remainder.</p>
+   *
    * @param input Tag to write
    * @param dest Writer to write to
    * @throws IOException if any IO or syntax errors occur while parsing
    * @since 4.0.0
    */
   public void toWriter(final CompoundBinaryTag input, final Writer dest) throws IOException {
-    try(final TagStringWriter emit = new TagStringWriter(dest, this.indent)) {
+    try(final TagStringWriter emit = new TagStringWriter(dest, this.indent, this.truncateAfter)) {
       emit.legacy(this.emitLegacy);
       emit.writeTag(input);
     }
@@ -135,6 +148,7 @@ public final class TagStringIO {
     private boolean acceptLegacy = true;
     private boolean emitLegacy = false;
     private String indent = "";
+    private long truncateAfter = Long.MAX_VALUE;
 
     Builder() {
     }
@@ -208,6 +222,23 @@ public final class TagStringIO {
       return this;
     }
 
+    /**
+     * Limit the number of characters emitted when writing a tag.
+     *
+     * <p>Once the limit is reached, the rest of the tag is skipped and {@code ...} is appended to
+     * the output instead. The result is usually not valid SNBT, so this is intended for logging
+     * and debug output of potentially very large tags.</p>
+     *
+     * @param length the maximum number of characters to emit, or {@link Long#MAX_VALUE} for no limit
+     * @return this builder
+     * @since 4.10.0
+     */
+    public @NotNull Builder truncateAfter(final long length) {
+      if (length < 0) throw new IllegalArgumentException("length must not be negative: " + length);
+      this.truncateAfter = length;
+      return this;
+    }
+
     /**
      * Create a new IO configuration from this builder.
      *
@@ -24,19 +24,28 @@
 package net.kyori.adventure.nbt;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.IntStream;
-import java.util.stream.LongStream;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * A single-pass parser for tags in string format.
+ *
+ * <p>Tokens are scanned in place in the {@link CharBuffer}, and numbers parsed from its characters without creating
+ * intermediate strings where possible.</p>
+ */
 final class TagStringReader {
   private static final int MAX_DEPTH = 512;
   private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
   private static final int[] EMPTY_INT_ARRAY = new int[0];
   private static final long[] EMPTY_LONG_ARRAY = new long[0];
+  private static final int MAX_SAFE_DIGITS = 18; // any number of up to this many digits fits in a long
 
   private final CharBuffer buffer;
   private boolean acceptLegacy;
   private int depth;
+  private long integer; // the value of the last integer parsed
+  private long[] elements = EMPTY_LONG_ARRAY; // scratch space for array elements
 
   TagStringReader(final CharBuffer buffer) {
     this.buffer = buffer;
@@ -48,33 +57,38 @@ final class TagStringReader {
       return CompoundBinaryTag.empty();
     }
 
-    final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder();
+    final TagMap.Builder tags = new TagMap.Builder();
     while (this.buffer.hasMore()) {
-      builder.put(this.key(), this.tag());
+      tags.put(this.key(), this.tag());
       if (this.separatorOrCompleteWith(Tokens.COMPOUND_END)) {
-        return builder.build();
+        return new CompoundBinaryTagImpl(tags.build());
       }
     }
     throw this.buffer.makeError("Unterminated compound tag!");
   }
 
   public ListBinaryTag list() throws StringTagParseException {
-    final ListBinaryTag.Builder<BinaryTag> builder = ListBinaryTag.builder();
     this.buffer.expect(Tokens.ARRAY_BEGIN);
-    final boolean prefixedIndex = this.acceptLegacy && this.buffer.peek() == '0' && this.buffer.peek(1) == ':';
+    final boolean prefixedIndex = this.acceptLegacy && this.buffer.hasMore(1) && this.buffer.peek() == '0' && this.buffer.peek(1) == ':';
     if (!prefixedIndex && this.buffer.takeIf(Tokens.ARRAY_END)) {
       return ListBinaryTag.empty();
     }
+    final List<BinaryTag> tags = new ArrayList<>();
+    BinaryTagType<? extends BinaryTag> type = null;
     while (this.buffer.hasMore()) {
       if (prefixedIndex) {
         this.buffer.takeUntil(':');
       }
 
       final BinaryTag next = this.tag();
-      // TODO: validate type
-      builder.add(next);
+      if (type == null) {
+        type = next.type();
+      } else if (next.type() != type) {
+        throw this.buffer.makeError("Trying to add tag of type " + next.type() + " to list of " + type);
+      }
+      tags.add(next);
       if (this.separatorOrCompleteWith(Tokens.ARRAY_END)) {
-        return builder.build();
+        return ListBinaryTag.of(type, tags);
       }
     }
     throw this.buffer.makeError("Reached end of file without end of list tag!");
@@ -103,65 +117,62 @@ final class TagStringReader {
   }
 
   private byte[] byteArray() throws StringTagParseException {
-    if (this.buffer.takeIf(Tokens.ARRAY_END)) {
+    final int length = this.arrayElements(Tokens.TYPE_BYTE, Byte.MIN_VALUE, Byte.MAX_VALUE, "All elements of a byte array must be bytes!");
+    if (length == 0) {
       return EMPTY_BYTE_ARRAY;
     }
-
-    final List<Byte> bytes = new ArrayList<>();
-    while (this.buffer.hasMore()) {
-      final CharSequence value = this.buffer.skipWhitespace().takeUntil(Tokens.TYPE_BYTE);
-      try {
-        bytes.add(Byte.valueOf(value.toString()));
-      } catch (final NumberFormatException ex) {
-        throw this.buffer.makeError("All elements of a byte array must be bytes!");
-      }
-
-      if (this.separatorOrCompleteWith(Tokens.ARRAY_END)) {
-        final byte[] result = new byte[bytes.size()];
-        for (int i = 0; i < bytes.size(); ++i) { // todo yikes, let's do less boxing
-          result[i] = bytes.get(i);
-        }
-        return result;
-      }
+    final byte[] result = new byte[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = (byte) this.elements[i];
     }
-    throw this.buffer.makeError("Reached end of document without array close");
+    return result;
   }
 
   private int[] intArray() throws StringTagParseException {
-    if (this.buffer.takeIf(Tokens.ARRAY_END)) {
+    final int length = this.arrayElements(Tokens.EOF, Integer.MIN_VALUE, Integer.MAX_VALUE, "All elements of an int array must be ints!");
+    if (length == 0) {
       return EMPTY_INT_ARRAY;
     }
-
-    final IntStream.Builder builder = IntStream.builder();
-    while (this.buffer.hasMore()) {
-      final BinaryTag value = this.tag();
-      if (!(value instanceof IntBinaryTag)) {
-        throw this.buffer.makeError("All elements of an int array must be ints!");
-      }
-      builder.add(((IntBinaryTag) value).intValue());
-      if (this.separatorOrCompleteWith(Tokens.ARRAY_END)) {
-        return builder.build().toArray();
-      }
+    final int[] result = new int[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = (int) this.elements[i];
     }
-    throw this.buffer.makeError("Reached end of document without array close");
+    return result;
   }
 
   private long[] longArray() throws StringTagParseException {
+    final int length = this.arrayElements(Tokens.TYPE_LONG, Long.MIN_VALUE, Long.MAX_VALUE, "All elements of a long array must be longs!");
+    return length == 0 ? EMPTY_LONG_ARRAY : Arrays.copyOf(this.elements, length);
+  }
+
+  // read the elements of an array into the scratch space, returning how many there are
+  private int arrayElements(final char suffix, final long min, final long max, final String error) throws StringTagParseException {
     if (this.buffer.takeIf(Tokens.ARRAY_END)) {
-      return EMPTY_LONG_ARRAY;
+      return 0;
     }
-
-    final LongStream.Builder longs = LongStream.builder();
+    int length = 0;
     while (this.buffer.hasMore()) {
-      final CharSequence value = this.buffer.skipWhitespace().takeUntil(Tokens.TYPE_LONG);
-      try {
-        longs.add(Long.parseLong(value.toString()));
-      } catch (final NumberFormatException ex) {
-        throw this.buffer.makeError("All elements of a long array must be longs!");
+      final int start = this.buffer.skipWhitespace().index();
+      while (this.buffer.hasMore() && Tokens.id(this.buffer.peek())) {
+        this.buffer.advance();
+      }
+      int end = this.buffer.index();
+      if (suffix != Tokens.EOF) {
+        if (end == start || Character.toLowerCase(this.buffer.charAt(end - 1)) != suffix) {
+          throw this.buffer.makeError(error);
+        }
+        end--;
+      }
+      if (!this.integer(start, end, min, max)) {
+        throw this.buffer.makeError(error);
       }
+      if (length == this.elements.length) {
+        this.elements = Arrays.copyOf(this.elements, Math.max(16, length * 2));
+      }
+      this.elements[length++] = this.integer;
 
       if (this.separatorOrCompleteWith(Tokens.ARRAY_END)) {
-        return longs.build().toArray();
+        return length;
       }
     }
     throw this.buffer.makeError("Reached end of document without array close");
@@ -169,34 +180,48 @@ final class TagStringReader {
 
   public String key() throws StringTagParseException {
     this.buffer.skipWhitespace();
-    final char starChar = this.buffer.peek();
-    try {
-      if (starChar == Tokens.SINGLE_QUOTE || starChar == Tokens.DOUBLE_QUOTE) {
-        return unescape(this.buffer.takeUntil(this.buffer.take()).toString());
+    if (!this.buffer.hasMore()) {
+      throw this.buffer.makeError("Expected a key but got EOF");
+    }
+    final char startChar = this.buffer.peek();
+    final String key;
+    if (startChar == Tokens.SINGLE_QUOTE || startChar == Tokens.DOUBLE_QUOTE) {
+      this.buffer.advance();
+      key = this.buffer.takeQuoted(startChar);
+    } else if (this.acceptLegacy) {
+      key = this.legacyKey();
+    } else {
+      final int start = this.buffer.index();
+      while (this.buffer.hasMore() && Tokens.id(this.buffer.peek())) {
+        this.buffer.advance();
       }
+      key = this.buffer.substring(start, this.buffer.index());
+    }
+    this.buffer.expect(Tokens.COMPOUND_KEY_TERMINATOR);
+    return key;
+  }
 
-      final StringBuilder builder = new StringBuilder();
-      while (this.buffer.hasMore()) {
-        final char peek = this.buffer.peek();
-        if (!Tokens.id(peek)) {
-          if (this.acceptLegacy) {
-            // In legacy format, a key is any non-colon character, with escapes allowed
-            if (peek == Tokens.ESCAPE_MARKER) {
-              this.buffer.take(); // skip
-              continue;
-            } else if (peek != Tokens.COMPOUND_KEY_TERMINATOR) {
-              builder.append(this.buffer.take());
-              continue;
-            }
-          }
-          break;
+  // In legacy format, a key is any non-colon character, with escapes allowed
+  private String legacyKey() {
+    final int start = this.buffer.index();
+    StringBuilder builder = null; // only needed if there are escapes
+    while (this.buffer.hasMore()) {
+      final char peek = this.buffer.peek();
+      if (peek == Tokens.ESCAPE_MARKER) {
+        if (builder == null) {
+          builder = new StringBuilder(this.buffer.substring(start, this.buffer.index()));
         }
-        builder.append(this.buffer.take());
+        this.buffer.advance(); // skip
+      } else if (peek != Tokens.COMPOUND_KEY_TERMINATOR) {
+        if (builder != null) {
+          builder.append(peek);
+        }
+        this.buffer.advance();
+      } else {
+        break;
       }
-      return builder.toString();
-    } finally {
-      this.buffer.expect(Tokens.COMPOUND_KEY_TERMINATOR);
     }
+    return builder != null ? builder.toString() : this.buffer.substring(start, this.buffer.index());
   }
 
   public BinaryTag tag() throws StringTagParseException {
@@ -204,7 +229,7 @@ final class TagStringReader {
       throw this.buffer.makeError("Exceeded maximum allowed depth of " + MAX_DEPTH + " when reading tag");
     }
     try {
-      final char startToken = this.buffer.skipWhitespace().peek();
+      final char startToken = this.buffer.skipWhitespace().hasMore() ? this.buffer.peek() : Tokens.EOF;
       switch (startToken) {
         case Tokens.COMPOUND_BEGIN:
           return this.compound();
@@ -220,7 +245,7 @@ final class TagStringReader {
         case Tokens.DOUBLE_QUOTE:
           // definitely a string tag
           this.buffer.advance();
-          return StringBinaryTag.of(unescape(this.buffer.takeUntil(startToken).toString()));
+          return StringBinaryTag.of(this.buffer.takeQuoted(startToken));
         default: // scalar
           return this.scalar();
       }
@@ -234,103 +259,157 @@ final class TagStringReader {
    *
    * <p>Does not detect quoted strings, so those should have been parsed already.</p>
    *
+   * <p>A value containing an escape is always a string, even if it would otherwise read as a number or boolean:
+   * {@code 1\2} is the string {@code 12}, and {@code tru\e} the string {@code true}.</p>
+   *
    * @return a parsed tag
    */
   private BinaryTag scalar() {
-    final StringBuilder builder = new StringBuilder();
-    boolean possiblyNumeric = true;
+    final int start = this.buffer.index();
+    boolean escaped = false;
     while (this.buffer.hasMore()) {
       final char current = this.buffer.peek();
-      if (possiblyNumeric && !Tokens.numeric(current)) {
-        if (builder.length() != 0) {
-          BinaryTag result = null;
-          try {
-            switch (Character.toLowerCase(current)) { // try to read and return as a number
-              // case Tokens.TYPE_INTEGER: // handled below, ints are ~special~
-              case Tokens.TYPE_BYTE:
-                result = ByteBinaryTag.of(Byte.parseByte(builder.toString()));
-                break;
-              case Tokens.TYPE_SHORT:
-                result = ShortBinaryTag.of(Short.parseShort(builder.toString()));
-                break;
-              case Tokens.TYPE_LONG:
-                result = LongBinaryTag.of(Long.parseLong(builder.toString()));
-                break;
-              case Tokens.TYPE_FLOAT:
-                result = FloatBinaryTag.of(Float.parseFloat(builder.toString()));
-                break;
-              case Tokens.TYPE_DOUBLE:
-                result = DoubleBinaryTag.of(Double.parseDouble(builder.toString()));
-                break;
-            }
-          } catch (final NumberFormatException ex) {
-            possiblyNumeric = false; // fallback to treating as a String
-          }
-          if (result != null) {
-            this.buffer.take();
-            return result;
-          }
-        }
-      }
-      if (current == '\\') { // escape -- we are significantly more lenient than original format at the moment
+      if (current == Tokens.ESCAPE_MARKER) { // escape -- we are significantly more lenient than original format at the moment
+        escaped = true;
         this.buffer.advance();
-        builder.append(this.buffer.take());
+        if (this.buffer.hasMore()) {
+          this.buffer.advance();
+        }
       } else if (Tokens.id(current)) {
-        builder.append(this.buffer.take());
+        this.buffer.advance();
       } else { // end of value
         break;
       }
     }
-    // if we run out of content without an explicit value separator, then we're either an integer or string tag -- all others have a character at the end
-    final String built = builder.toString();
-    if (possiblyNumeric) {
-      try {
-        return IntBinaryTag.of(Integer.parseInt(built));
-      } catch (final NumberFormatException ex) {
-        try {
-          return DoubleBinaryTag.of(Double.parseDouble(built));
-        } catch (final NumberFormatException ex2) {
-          // ignore
-        }
+    final int end = this.buffer.index();
+    if (escaped) {
+      return StringBinaryTag.of(this.unescape(start, end));
+    }
+    if (end > start) {
+      final BinaryTag number = this.number(start, end);
+      if (number != null) {
+        return number;
       }
     }
 
+    final String built = this.buffer.substring(start, end);
     if (built.equalsIgnoreCase(Tokens.LITERAL_TRUE)) {
       return ByteBinaryTag.ONE;
     } else if (built.equalsIgnoreCase(Tokens.LITERAL_FALSE)) {
       return ByteBinaryTag.ZERO;
     }
     return StringBinaryTag.of(built);
+  }
 
+  /**
+   * Parse a number, typed by its suffix.
+   *
+   * <p>Unsuffixed numbers are ints if they fit, and doubles otherwise.</p>
+   *
+   * @param start the start position, inclusive
+   * @param end the end position, exclusive
+   * @return a numeric tag, or {@code null} if the characters are not a number
+   */
+  private @Nullable BinaryTag number(final int start, final int end) {
+    final char suffix = Character.toLowerCase(this.buffer.charAt(end - 1));
+    final int bodyEnd = suffix == Tokens.TYPE_BYTE || suffix == Tokens.TYPE_SHORT || suffix == Tokens.TYPE_LONG
+      || suffix == Tokens.TYPE_FLOAT || suffix == Tokens.TYPE_DOUBLE ? end - 1 : end;
+    if (bodyEnd == start) {
+      return null;
+    }
+    for (int i = start; i < bodyEnd; i++) {
+      if (!Tokens.numeric(this.buffer.charAt(i))) {
+        return null;
+      }
+    }
+    switch (bodyEnd == end ? Tokens.EOF : suffix) {
+      case Tokens.TYPE_BYTE:
+        return this.integer(start, bodyEnd, Byte.MIN_VALUE, Byte.MAX_VALUE) ? ByteBinaryTag.of((byte) this.integer) : null;
+      case Tokens.TYPE_SHORT:
+        return this.integer(start, bodyEnd, Short.MIN_VALUE, Short.MAX_VALUE) ? ShortBinaryTag.of((short) this.integer) : null;
+      case Tokens.TYPE_LONG:
+        return this.integer(start, bodyEnd, Long.MIN_VALUE, Long.MAX_VALUE) ? LongBinaryTag.of(this.integer) : null;
+      case Tokens.TYPE_FLOAT:
+        try {
+          return FloatBinaryTag.of(Float.parseFloat(this.buffer.substring(start, bodyEnd)));
+        } catch (final NumberFormatException ex) {
+          return null;
+        }
+      case Tokens.TYPE_DOUBLE:
+        return this.decimal(start, bodyEnd);
+      default:
+        if (this.integer(start, bodyEnd, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+          return IntBinaryTag.of((int) this.integer);
+        }
+        return this.decimal(start, bodyEnd);
+    }
   }
 
-  private boolean separatorOrCompleteWith(final char endCharacter) throws StringTagParseException {
-    if (this.buffer.takeIf(endCharacter)) {
-      return true;
+  private @Nullable BinaryTag decimal(final int start, final int end) {
+    try {
+      return DoubleBinaryTag.of(Double.parseDouble(this.buffer.substring(start, end)));
+    } catch (final NumberFormatException ex) {
+      return null;
     }
-    this.buffer.expect(Tokens.VALUE_SEPARATOR);
-    return false;
   }
 
   /**
-   * Remove simple escape sequences from a string.
+   * Parse an optionally signed decimal integer into {@link #integer}.
    *
-   * @param withEscapes input string with escapes
-   * @return string with escapes processed
+   * @param start the start position, inclusive
+   * @param end the end position, exclusive
+   * @param min the smallest allowed value
+   * @param max the largest allowed value
+   * @return whether the characters are an integer within range
    */
-  private static String unescape(final String withEscapes) {
-    int escapeIdx = withEscapes.indexOf(Tokens.ESCAPE_MARKER);
-    if (escapeIdx == -1) { // nothing to unescape
-      return withEscapes;
+  private boolean integer(final int start, final int end, final long min, final long max) {
+    int i = start;
+    final char sign = i < end ? this.buffer.charAt(i) : Tokens.EOF;
+    if (sign == '-' || sign == '+') {
+      i++;
+    }
+    if (i == end) {
+      return false;
+    }
+    if (end - i > MAX_SAFE_DIGITS) { // may overflow a long
+      try {
+        this.integer = Long.parseLong(this.buffer.substring(start, end));
+      } catch (final NumberFormatException ex) {
+        return false;
+      }
+      return this.integer >= min && this.integer <= max;
     }
-    int lastEscape = 0;
-    final StringBuilder output = new StringBuilder(withEscapes.length());
-    do {
-      output.append(withEscapes, lastEscape, escapeIdx);
-      lastEscape = escapeIdx + 1;
-    } while ((escapeIdx = withEscapes.indexOf(Tokens.ESCAPE_MARKER, lastEscape + 1)) != -1); // add one extra character to make sure we don't include escaped backslashes
-    output.append(withEscapes.substring(lastEscape));
-    return output.toString();
+    long value = 0;
+    for (; i < end; i++) {
+      final char c = this.buffer.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+      value = value * 10 + (c - '0');
+    }
+    this.integer = sign == '-' ? -value : value;
+    return this.integer >= min && this.integer <= max;
+  }
+
+  private String unescape(final int start, final int end) {
+    final StringBuilder builder = new StringBuilder(end - start);
+    for (int i = start; i < end; i++) {
+      final char c = this.buffer.charAt(i);
+      if (c == Tokens.ESCAPE_MARKER && i + 1 < end) {
+        builder.append(this.buffer.charAt(++i));
+      } else if (c != Tokens.ESCAPE_MARKER) {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+
+  private boolean separatorOrCompleteWith(final char endCharacter) throws StringTagParseException {
+    if (this.buffer.takeIf(endCharacter)) {
+      return true;
+    }
+    this.buffer.expect(Tokens.VALUE_SEPARATOR);
+    return false;
   }
 
   public void legacy(final boolean acceptLegacy) {
@@ -25,26 +25,51 @@ package net.kyori.adventure.nbt;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Map;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * An emitter for the SNBT format.
  *
  * <p>Details on the format are described in the package documentation.</p>
+ *
+ * <p>Output is staged in a fixed character buffer and handed to the destination in chunks, so values are
+ * never rendered into intermediate strings. Once {@code limit} characters have been produced, the rest of the
+ * tag is skipped and {@link #TRUNCATION_MARKER} is emitted in its place.</p>
  */
-final class TagStringWriter implements AutoCloseable {
+final class TagStringWriter implements AutoCloseable, BinaryTagVisitor {
+  static final String TRUNCATION_MARKER = "...";
+  private static final int BUFFER_SIZE = 4096;
+  private static final int COMPOUND_FRAME = -1;
   private final Appendable out;
-  private final String indent; // TODO: pretty-printing
+  private final String indent;
+  private final long limit;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  private long written;
   private int level;
   /**
    * Whether a {@link Tokens#VALUE_SEPARATOR} needs to be printed before the beginning of the next object.
    */
   private boolean needsSeparator;
   private boolean legacy;
+  private boolean truncated;
+  /**
+   * The open compounds and lists, innermost last. Lists hold the index of their next element and whether their
+   * elements are written on separate lines, and compounds hold {@link #COMPOUND_FRAME}.
+   */
+  private int[] frameIndex = new int[8];
+  private boolean[] frameLineBreaks = new boolean[8];
+  private int frames;
 
   TagStringWriter(final Appendable out, final String indent) {
+    this(out, indent, Long.MAX_VALUE);
+  }
+
+  TagStringWriter(final Appendable out, final String indent, final long limit) {
     this.out = out;
     this.indent = indent;
+    this.limit = limit;
   }
 
   public TagStringWriter legacy(final boolean legacy) {
@@ -52,115 +77,181 @@ final class TagStringWriter implements AutoCloseable {
     return this;
   }
 
+  // whether the output limit has been reached
+  public boolean truncated() {
+    return this.truncated;
+  }
+
   // NBT-specific
 
   public TagStringWriter writeTag(final BinaryTag tag) throws IOException {
-    final BinaryTagType<?> type = tag.type();
-    if (type == BinaryTagTypes.COMPOUND) {
-      return this.writeCompound((CompoundBinaryTag) tag);
-    } else if (type == BinaryTagTypes.LIST) {
-      return this.writeList((ListBinaryTag) tag);
-    } else if (type == BinaryTagTypes.BYTE_ARRAY) {
-      return this.writeByteArray((ByteArrayBinaryTag) tag);
-    } else if (type == BinaryTagTypes.INT_ARRAY) {
-      return this.writeIntArray((IntArrayBinaryTag) tag);
-    } else if (type == BinaryTagTypes.LONG_ARRAY) {
-      return this.writeLongArray((LongArrayBinaryTag) tag);
-    } else if (type == BinaryTagTypes.STRING) {
-      return this.value(((StringBinaryTag) tag).value(), Tokens.EOF);
-    } else if (type == BinaryTagTypes.BYTE) {
-      return this.value(Byte.toString(((ByteBinaryTag) tag).value()), Tokens.TYPE_BYTE);
-    } else if (type == BinaryTagTypes.SHORT) {
-      return this.value(Short.toString(((ShortBinaryTag) tag).value()), Tokens.TYPE_SHORT);
-    } else if (type == BinaryTagTypes.INT) {
-      return this.value(Integer.toString(((IntBinaryTag) tag).value()), Tokens.TYPE_INT);
-    } else if (type == BinaryTagTypes.LONG) {
-      return this.value(Long.toString(((LongBinaryTag) tag).value()), Character.toUpperCase(Tokens.TYPE_LONG)); // special-case
-    } else if (type == BinaryTagTypes.FLOAT) {
-      return this.value(Float.toString(((FloatBinaryTag) tag).value()), Tokens.TYPE_FLOAT);
-    } else if (type == BinaryTagTypes.DOUBLE) {
-      return this.value(Double.toString(((DoubleBinaryTag) tag).value()), Tokens.TYPE_DOUBLE);
-    } else {
-      throw new IOException("Unknown tag type: " + type);
-      // unknown!
+    if (tag.type() == BinaryTagTypes.END) {
+      throw new IOException("Unknown tag type: " + tag.type());
     }
+    tag.visit(this);
+    return this;
   }
 
-  private TagStringWriter writeCompound(final CompoundBinaryTag tag) throws IOException {
-    this.beginCompound();
-    for (final Map.Entry<String, ? extends BinaryTag> entry : tag) {
-      this.key(entry.getKey());
-      this.writeTag(entry.getValue());
+  // how the walk continues once a tag has been written
+  private Result next() {
+    return this.truncated ? Result.HALT : Result.CONTINUE;
+  }
+
+  private void pushFrame(final int index, final boolean lineBreaks) {
+    if (this.frames == this.frameIndex.length) {
+      this.frameIndex = Arrays.copyOf(this.frameIndex, this.frames * 2);
+      this.frameLineBreaks = Arrays.copyOf(this.frameLineBreaks, this.frames * 2);
     }
+    this.frameIndex[this.frames] = index;
+    this.frameLineBreaks[this.frames++] = lineBreaks;
+  }
+
+  // separate the next element from the previous one, if it is written into a list
+  private void beginElement() throws IOException {
+    if (this.frames == 0 || this.frameIndex[this.frames - 1] == COMPOUND_FRAME) return;
+    final boolean lineBreaks = this.frameLineBreaks[this.frames - 1];
+    this.printAndResetSeparator(!lineBreaks);
+    if (lineBreaks) {
+      this.newlineIndent();
+    }
+    if (this.legacy) {
+      this.appendNumber(this.frameIndex[this.frames - 1]++);
+      this.appendSeparator(Tokens.COMPOUND_KEY_TERMINATOR);
+    }
+  }
+
+  @Override
+  public @NotNull Result visitCompoundStart() throws IOException {
+    this.beginElement();
+    this.beginCompound();
+    this.pushFrame(COMPOUND_FRAME, false);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitKey(final @NotNull String key, final @NotNull BinaryTagType<? extends BinaryTag> type) throws IOException {
+    this.key(key);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitCompoundEnd() throws IOException {
+    this.frames--;
     this.endCompound();
-    return this;
+    return this.next();
   }
 
-  private TagStringWriter writeList(final ListBinaryTag tag) throws IOException {
+  @Override
+  public @NotNull Result visitListStart(final @NotNull BinaryTagType<? extends BinaryTag> elementType, final int size) throws IOException {
+    this.beginElement();
     this.beginList();
-    int idx = 0;
-    final boolean lineBreaks = this.prettyPrinting() && this.breakListElement(tag.elementType());
-    for (final BinaryTag el : tag) {
-      this.printAndResetSeparator(!lineBreaks);
-      if (lineBreaks) {
-        this.newlineIndent();
-      }
-      if (this.legacy) {
-        this.out.append(String.valueOf(idx++));
-        this.appendSeparator(Tokens.COMPOUND_KEY_TERMINATOR);
-      }
+    this.pushFrame(0, this.prettyPrinting() && this.breakListElement(elementType));
+    return this.next();
+  }
 
-      this.writeTag(el);
-    }
-    this.endList(lineBreaks);
-    return this;
+  @Override
+  public @NotNull Result visitListEnd() throws IOException {
+    this.endList(this.frameLineBreaks[--this.frames]);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitByte(final byte value) throws IOException {
+    this.beginElement();
+    this.value(value, Tokens.TYPE_BYTE);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitShort(final short value) throws IOException {
+    this.beginElement();
+    this.value(value, Tokens.TYPE_SHORT);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitInt(final int value) throws IOException {
+    this.beginElement();
+    this.value(value, Tokens.TYPE_INT);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitLong(final long value) throws IOException {
+    this.beginElement();
+    this.value(value, Character.toUpperCase(Tokens.TYPE_LONG)); // special-case
+    return this.next();
   }
 
-  private TagStringWriter writeByteArray(final ByteArrayBinaryTag tag) throws IOException {
+  @Override
+  public @NotNull Result visitFloat(final float value) throws IOException {
+    this.beginElement();
+    this.value(Float.toString(value), Tokens.TYPE_FLOAT);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitDouble(final double value) throws IOException {
+    this.beginElement();
+    this.value(Double.toString(value), Tokens.TYPE_DOUBLE);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitString(final @NotNull String value) throws IOException {
+    this.beginElement();
+    this.value(value, Tokens.EOF);
+    return this.next();
+  }
+
+  @Override
+  public @NotNull Result visitByteArray(final byte@NotNull[] value) throws IOException {
     if (this.legacy) {
       throw new IOException("Legacy Mojangson only supports integer arrays!");
     }
+    this.beginElement();
     this.beginArray(Tokens.TYPE_BYTE);
 
     final char byteArrayType = Character.toUpperCase(Tokens.TYPE_BYTE); // special case to match vanilla format
-    final byte[] value = ByteArrayBinaryTagImpl.value(tag);
-    for (int i = 0, length = value.length; i < length; i++) {
+    for (int i = 0, length = value.length; i < length && !this.truncated; i++) {
       this.printAndResetSeparator(true);
-      this.value(Byte.toString(value[i]), byteArrayType);
+      this.value(value[i], byteArrayType);
     }
     this.endArray();
-    return this;
+    return this.next();
   }
 
-  private TagStringWriter writeIntArray(final IntArrayBinaryTag tag) throws IOException {
+  @Override
+  public @NotNull Result visitIntArray(final int@NotNull[] value) throws IOException {
+    this.beginElement();
     if (this.legacy) {
       this.beginList();
     } else {
       this.beginArray(Tokens.TYPE_INT);
     }
 
-    final int[] value = IntArrayBinaryTagImpl.value(tag);
-    for (int i = 0, length = value.length; i < length; i++) {
+    for (int i = 0, length = value.length; i < length && !this.truncated; i++) {
       this.printAndResetSeparator(true);
-      this.value(Integer.toString(value[i]), Tokens.TYPE_INT);
+      this.value(value[i], Tokens.TYPE_INT);
     }
     this.endArray();
-    return this;
+    return this.next();
   }
 
-  private TagStringWriter writeLongArray(final LongArrayBinaryTag tag) throws IOException {
+  @Override
+  public @NotNull Result visitLongArray(final long@NotNull[] value) throws IOException {
     if (this.legacy) {
       throw new IOException("Legacy Mojangson only supports integer arrays!");
     }
+    this.beginElement();
     this.beginArray(Tokens.TYPE_LONG);
 
-    final long[] value = LongArrayBinaryTagImpl.value(tag);
-    for (int i = 0, length = value.length; i < length; i++) {
+    for (int i = 0, length = value.length; i < length && !this.truncated; i++) {
       this.printAndResetSeparator(true);
-      this.value(Long.toString(value[i]), Tokens.TYPE_LONG);
+      this.value(value[i], Tokens.TYPE_LONG);
     }
     this.endArray();
-    return this;
+    return this.next();
   }
 
   // Value types
@@ -168,14 +259,14 @@ final class TagStringWriter implements AutoCloseable {
   public TagStringWriter beginCompound() throws IOException {
     this.printAndResetSeparator(false);
     this.level++;
-    this.out.append(Tokens.COMPOUND_BEGIN);
+    this.append(Tokens.COMPOUND_BEGIN);
     return this;
   }
 
   public TagStringWriter endCompound() throws IOException {
     this.level--;
     this.newlineIndent();
-    this.out.append(Tokens.COMPOUND_END);
+    this.append(Tokens.COMPOUND_END);
     this.needsSeparator = true;
     return this;
   }
@@ -192,19 +283,24 @@ final class TagStringWriter implements AutoCloseable {
     if (valueType == Tokens.EOF) { // string doesn't have its type
       this.writeMaybeQuoted(value, true);
     } else {
-      this.out.append(value);
-      if (valueType != Tokens.TYPE_INT) {
-        this.out.append(valueType);
-      }
+      this.append(value);
+      this.appendType(valueType);
     }
     this.needsSeparator = true;
     return this;
   }
 
+  public TagStringWriter value(final long value, final char valueType) throws IOException {
+    this.appendNumber(value);
+    this.appendType(valueType);
+    this.needsSeparator = true;
+    return this;
+  }
+
   public TagStringWriter beginList() throws IOException {
     this.printAndResetSeparator(false);
     this.level++;
-    this.out.append(Tokens.ARRAY_BEGIN);
+    this.append(Tokens.ARRAY_BEGIN);
     return this;
   }
 
@@ -213,18 +309,18 @@ final class TagStringWriter implements AutoCloseable {
     if (lineBreak) {
       this.newlineIndent();
     }
-    this.out.append(Tokens.ARRAY_END);
+    this.append(Tokens.ARRAY_END);
     this.needsSeparator = true;
     return this;
   }
 
   private TagStringWriter beginArray(final char type) throws IOException {
-    this.beginList()
-      .out.append(Character.toUpperCase(type))
-      .append(Tokens.ARRAY_SIGNATURE_SEPARATOR);
+    this.beginList();
+    this.append(Character.toUpperCase(type));
+    this.append(Tokens.ARRAY_SIGNATURE_SEPARATOR);
 
     if (this.prettyPrinting()) {
-      this.out.append(' ');
+      this.append(' ');
     }
 
     return this;
@@ -244,31 +340,29 @@ final class TagStringWriter implements AutoCloseable {
       }
     }
     if (requireQuotes) { // TODO: single quotes
-      this.out.append(Tokens.DOUBLE_QUOTE);
-      this.out.append(escape(content, Tokens.DOUBLE_QUOTE));
-      this.out.append(Tokens.DOUBLE_QUOTE);
+      this.append(Tokens.DOUBLE_QUOTE);
+      this.escape(content, Tokens.DOUBLE_QUOTE);
+      this.append(Tokens.DOUBLE_QUOTE);
     } else {
-      this.out.append(content);
+      this.append(content);
     }
   }
 
-  private static String escape(final String content, final char quoteChar) {
-    final StringBuilder output = new StringBuilder(content.length());
-    for (int i = 0; i < content.length(); ++i) {
+  private void escape(final String content, final char quoteChar) throws IOException {
+    for (int i = 0, length = content.length(); i < length; ++i) {
       final char c = content.charAt(i);
       if (c == quoteChar || c == '\\') {
-        output.append(Tokens.ESCAPE_MARKER);
+        this.append(Tokens.ESCAPE_MARKER);
       }
-      output.append(c);
+      this.append(c);
     }
-    return output.toString();
   }
 
   private void printAndResetSeparator(final boolean pad) throws IOException {
     if (this.needsSeparator) {
-      this.out.append(Tokens.VALUE_SEPARATOR);
+      this.append(Tokens.VALUE_SEPARATOR);
       if (pad && this.prettyPrinting()) {
-        this.out.append(' ');
+        this.append(' ');
       }
       this.needsSeparator = false;
     }
@@ -291,26 +385,112 @@ final class TagStringWriter implements AutoCloseable {
 
   private void newlineIndent() throws IOException {
     if (this.prettyPrinting()) {
-      this.out.append(Tokens.NEWLINE);
+      this.append(Tokens.NEWLINE);
       for (int i = 0; i < this.level; ++i) {
-        this.out.append(this.indent);
+        this.append(this.indent);
       }
     }
   }
 
-  private Appendable appendSeparator(final char separatorChar) throws IOException {
-    this.out.append(separatorChar);
+  private void appendSeparator(final char separatorChar) throws IOException {
+    this.append(separatorChar);
     if (this.prettyPrinting()) {
-      this.out.append(' ');
+      this.append(' ');
+    }
+  }
+
+  // Output buffering
+
+  private void appendType(final char valueType) throws IOException {
+    if (valueType != Tokens.TYPE_INT) {
+      this.append(valueType);
     }
-    return this.out;
+  }
+
+  private void appendNumber(final long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      this.append(Long.toString(value));
+      return;
+    }
+    long remaining = Math.abs(value);
+    int digits = 1;
+    for (long bound = 10; digits < 19 && remaining >= bound; bound *= 10) {
+      digits++;
+    }
+    final int length = value < 0 ? digits + 1 : digits;
+    if (BUFFER_SIZE - this.position < length) {
+      this.flush();
+    }
+    final char[] buffer = this.buffer;
+    final int start = this.position;
+    int index = start + length;
+    while (index > start + length - digits) {
+      buffer[--index] = (char) ('0' + remaining % 10);
+      remaining /= 10;
+    }
+    if (value < 0) {
+      buffer[start] = '-';
+    }
+    this.advance(length);
+  }
+
+  private void append(final char c) throws IOException {
+    if (this.position == BUFFER_SIZE) {
+      this.flush();
+    }
+    this.buffer[this.position] = c;
+    this.advance(1);
+  }
+
+  private void append(final String string) throws IOException {
+    int offset = 0;
+    final int length = string.length();
+    while (offset < length && !this.truncated) {
+      if (this.position == BUFFER_SIZE) {
+        this.flush();
+      }
+      final int count = Math.min(length - offset, BUFFER_SIZE - this.position);
+      string.getChars(offset, offset + count, this.buffer, this.position);
+      offset += count;
+      this.advance(count);
+    }
+  }
+
+  // commit characters staged in the buffer, dropping anything past the limit
+  private void advance(final int count) {
+    if (this.truncated) return;
+    final long allowed = this.limit - this.written;
+    if (count > allowed) {
+      this.position += (int) allowed;
+      this.written = this.limit;
+      this.truncated = true;
+    } else {
+      this.position += count;
+      this.written += count;
+    }
+  }
+
+  private void flush() throws IOException {
+    if (this.position == 0) return;
+    if (this.out instanceof Writer) {
+      ((Writer) this.out).write(this.buffer, 0, this.position);
+    } else if (this.out instanceof StringBuilder) {
+      ((StringBuilder) this.out).append(this.buffer, 0, this.position);
+    } else {
+      this.out.append(java.nio.CharBuffer.wrap(this.buffer, 0, this.position));
+    }
+    this.position = 0;
   }
 
   @Override
   public void close() throws IOException {
-    if (this.level != 0) {
+    if (this.level != 0 && !this.truncated) { // truncated output stops without closing what is open
       throw new IllegalStateException("Document finished with unbalanced start and end objects");
     }
+    this.flush();
+    if (this.truncated) {
+      this.out.append(TRUNCATION_MARKER);
+    }
     if (this.out instanceof Writer) {
       ((Writer) this.out).flush();
     }
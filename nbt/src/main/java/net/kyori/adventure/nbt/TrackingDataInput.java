@@ -29,20 +29,31 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 final class TrackingDataInput implements DataInput, BinaryTagScope {
-  private static final int MAX_DEPTH = 512;
+  static final int MAX_DEPTH = 512;
   private final DataInput input;
   private final long maxLength;
+  private final ModifiedUtf8 utf = new ModifiedUtf8();
+  private final @Nullable KeyInterner interner;
+  private final @Nullable TagInterner tagInterner;
   private long counter;
   private int depth;
 
   TrackingDataInput(final DataInput input, final long maxLength) {
+    this(input, maxLength, null, null);
+  }
+
+  TrackingDataInput(final DataInput input, final long maxLength, final @Nullable KeyInterner interner, final @Nullable TagInterner tagInterner) {
     this.input = input;
     this.maxLength = maxLength;
+    this.interner = interner;
+    this.tagInterner = tagInterner;
   }
 
   public static BinaryTagScope enter(final DataInput input) throws IOException {
     if (input instanceof TrackingDataInput) {
       return ((TrackingDataInput) input).enter();
+    } else if (input instanceof ByteBufferDataInput) {
+      return ((ByteBufferDataInput) input).enter();
     } else {
       return NoOp.INSTANCE;
     }
@@ -51,11 +62,37 @@ final class TrackingDataInput implements DataInput, BinaryTagScope {
   public static BinaryTagScope enter(final DataInput input, final long expectedSize) throws IOException {
     if (input instanceof TrackingDataInput) {
       return ((TrackingDataInput) input).enter(expectedSize);
+    } else if (input instanceof ByteBufferDataInput) {
+      return ((ByteBufferDataInput) input).enter(expectedSize);
     } else {
       return NoOp.INSTANCE;
     }
   }
 
+  // read a compound key, through the key interner of the input if it has one
+  public static String readKey(final DataInput input) throws IOException {
+    if (input instanceof TrackingDataInput) {
+      return ((TrackingDataInput) input).readKey();
+    } else if (input instanceof ByteBufferDataInput) {
+      return ((ByteBufferDataInput) input).readKey();
+    } else {
+      return input.readUTF();
+    }
+  }
+
+  // share a single instance of a compound or list tag, through the tag interner of the input if it has one
+  public static <T extends BinaryTag> T intern(final DataInput input, final T tag) {
+    final @Nullable TagInterner interner;
+    if (input instanceof TrackingDataInput) {
+      interner = ((TrackingDataInput) input).tagInterner;
+    } else if (input instanceof ByteBufferDataInput) {
+      interner = ((ByteBufferDataInput) input).tagInterner();
+    } else {
+      interner = null;
+    }
+    return interner != null ? interner.intern(tag) : tag;
+  }
+
   public DataInput input() {
     return this.input;
   }
@@ -103,7 +140,9 @@ final class TrackingDataInput implements DataInput, BinaryTagScope {
 
   @Override
   public int skipBytes(final int n) throws IOException {
-    return this.input.skipBytes(n);
+    final int skipped = this.input.skipBytes(n);
+    this.counter += skipped;
+    return skipped;
   }
 
   @Override
@@ -177,9 +216,17 @@ final class TrackingDataInput implements DataInput, BinaryTagScope {
 
   @Override
   public @NotNull String readUTF() throws IOException {
-    final String result = this.input.readUTF();
-    this.counter += (result.length() * 2L) + 2; // not entirely accurate, but the closest we can get without doing implementation details
-    return result;
+    return this.utf.read(this); // counts the exact encoded length
+  }
+
+  public @NotNull String readKey() throws IOException {
+    if (this.interner == null) {
+      return this.readUTF();
+    }
+    final int length = this.readUnsignedShort();
+    final byte[] bytes = this.utf.bytes(length);
+    this.readFully(bytes, 0, length);
+    return this.interner.intern(bytes, 0, length, this.utf);
   }
 
   @Override
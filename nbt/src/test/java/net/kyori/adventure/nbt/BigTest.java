@@ -23,9 +23,11 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.file.Paths;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -96,4 +98,18 @@ class BigTest {
     assertEquals(NESTED_COMPOUND, compound.getCompound("nested compound test"));
     assertEquals("HELLO WORLD THIS IS A TEST STRING ÅÄÖ!", compound.getString("stringTest"));
   }
+
+  @Test
+  void testSizeOf() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(compound, output);
+    final byte[] bytes = output.toByteArray();
+    assertEquals(bytes.length, BinaryTagIO.writer().sizeOf(compound));
+    assertEquals(bytes.length, BinaryTagIO.writer().sizeOf(compound)); // cached
+    assertEquals(bytes.length, BinaryTagIO.writer().sizeOf(BinaryTagIO.reader().lazy().read(ByteBuffer.wrap(bytes))));
+    final CompoundBinaryTag edited = compound.putString("stringTest", "\0☃");
+    output.reset();
+    BinaryTagIO.writer().write(edited, output);
+    assertEquals(output.size(), BinaryTagIO.writer().sizeOf(edited));
+  }
 }
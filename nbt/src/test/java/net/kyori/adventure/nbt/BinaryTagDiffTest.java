@@ -0,0 +1,116 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryTagDiffTest {
+  private static final CompoundBinaryTag TAG = CompoundBinaryTag.builder()
+    .putString("name", "test")
+    .putInt("count", 3)
+    .put("nested", CompoundBinaryTag.builder().putInt("value", 4).putByteArray("bytes", new byte[]{5}).build())
+    .put("items", ListBinaryTag.builder()
+      .add(CompoundBinaryTag.builder().putInt("slot", 5).putString("id", "stone").build())
+      .add(CompoundBinaryTag.builder().putInt("slot", 6).putString("id", "dirt").build())
+      .build())
+    .build();
+
+  @Test
+  void testEqualTags() {
+    assertTrue(BinaryTagDiff.between(TAG, TAG).isEmpty());
+    assertTrue(BinaryTagDiff.between(TAG, CompoundBinaryTag.builder().put(TAG).build()).isEmpty());
+  }
+
+  @Test
+  void testNestedChanges() {
+    final ListBinaryTag items = TAG.getList("items");
+    final CompoundBinaryTag to = TAG
+      .remove("count")
+      .putString("added", "yes")
+      .put("nested", TAG.getCompound("nested").putInt("value", 7))
+      .put("items", items.set(1, items.getCompound(1).putString("id", "grass"), null).add(CompoundBinaryTag.builder().putInt("slot", 7).build()));
+
+    final BinaryTagDiff diff = BinaryTagDiff.between(TAG, to);
+    // entries are reported in hash order
+    assertEquals(new HashSet<>(Arrays.asList("added", "items[2]")), new HashSet<>(diff.added()));
+    assertEquals(Collections.singletonList("count"), diff.removed());
+    assertEquals(new HashSet<>(Arrays.asList("nested.value", "items[1].id")), new HashSet<>(diff.changed()));
+    assertEquals(to, diff.apply(TAG));
+  }
+
+  @Test
+  void testListChanges() {
+    final CompoundBinaryTag from = CompoundBinaryTag.builder()
+      .putIntArray("ints", new int[]{1, 2})
+      .put("shrunk", ListBinaryTag.builder().add(IntBinaryTag.of(1)).add(IntBinaryTag.of(2)).add(IntBinaryTag.of(3)).build())
+      .put("retyped", ListBinaryTag.builder().add(IntBinaryTag.of(1)).build())
+      .build();
+    final CompoundBinaryTag to = CompoundBinaryTag.builder()
+      .putIntArray("ints", new int[]{1, 3})
+      .put("shrunk", ListBinaryTag.builder().add(IntBinaryTag.of(1)).build())
+      .put("retyped", ListBinaryTag.builder().add(StringBinaryTag.of("1")).build())
+      .build();
+
+    final BinaryTagDiff diff = BinaryTagDiff.between(from, to);
+    assertEquals(Arrays.asList("shrunk[1]", "shrunk[2]"), diff.removed());
+    assertEquals(to, diff.apply(from));
+  }
+
+  @Test
+  void testEncoding() {
+    final CompoundBinaryTag to = TAG.remove("name").putInt("count", 4).put("items", TAG.getList("items").remove(0, null));
+    final BinaryTagDiff diff = BinaryTagDiff.between(TAG, to);
+    final BinaryTagDiff decoded = BinaryTagDiff.fromBinaryTag(diff.asBinaryTag());
+    assertEquals(diff, decoded);
+    assertEquals(to, decoded.apply(TAG));
+  }
+
+  @Test
+  void testSharedSubtrees() {
+    CompoundBinaryTag large = CompoundBinaryTag.empty();
+    for (int i = 0; i < 10_000; i++) {
+      large = large.putInt("key" + i, i);
+    }
+    final CompoundBinaryTag to = large.putInt("key5000", -1).remove("key42").putInt("extra", 1);
+    final BinaryTagDiff diff = BinaryTagDiff.between(large, to);
+    assertEquals(Collections.singletonList("extra"), diff.added());
+    assertEquals(Collections.singletonList("key42"), diff.removed());
+    assertEquals(Collections.singletonList("key5000"), diff.changed());
+    assertEquals(to, diff.apply(large));
+  }
+
+  @Test
+  void testApplyMismatch() {
+    final BinaryTagDiff diff = BinaryTagDiff.between(TAG, TAG.put("nested", TAG.getCompound("nested").putInt("value", 1)));
+    assertThrows(IllegalArgumentException.class, () -> diff.apply(TAG.putString("nested", "not a compound")));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagDiff.fromBinaryTag(CompoundBinaryTag.builder().putString("add", "wrong").build()));
+  }
+}
@@ -25,10 +25,48 @@ package net.kyori.adventure.nbt;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.Adler32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class BinaryTagIOTest {
   @Test
@@ -60,4 +98,463 @@ class BinaryTagIOTest {
     BinaryTagIO.writer().write(tag, output, BinaryTagIO.Compression.ZLIB);
     assertEquals(tag, BinaryTagIO.reader().read(new ByteArrayInputStream(output.toByteArray()), BinaryTagIO.Compression.ZLIB));
   }
+
+  @Test
+  void testGZIPCompressionInterop() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "test")
+      .putIntArray("ints", new int[4096])
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output, BinaryTagIO.Compression.gzip(9));
+    try(final DataInputStream input = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())))) {
+      assertEquals(tag, BinaryTagIO.reader().read((DataInput) input));
+    }
+
+    final ByteArrayOutputStream external = new ByteArrayOutputStream();
+    try(final DataOutputStream dos = new DataOutputStream(new GZIPOutputStream(external))) {
+      BinaryTagIO.writer().write(tag, (DataOutput) dos);
+    }
+    for (int i = 0; i < 3; i++) { // codecs are reused
+      assertEquals(tag, BinaryTagIO.reader().read(new ByteArrayInputStream(external.toByteArray()), BinaryTagIO.Compression.GZIP));
+    }
+    assertThrows(IOException.class, () -> BinaryTagIO.reader().read(new ByteArrayInputStream(new byte[]{1, 2, 3}), BinaryTagIO.Compression.GZIP));
+  }
+
+  @Test
+  void testReadGZIPFromOpenStream() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder().putString("name", "test").build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output, BinaryTagIO.Compression.GZIP);
+    final byte[] member = output.toByteArray();
+    assertEquals(tag, BinaryTagIO.reader().read(new OpenInputStream(member), BinaryTagIO.Compression.GZIP));
+    assertEquals(tag, BinaryTagIO.reader().lazy().read(new OpenInputStream(member), BinaryTagIO.Compression.GZIP));
+
+    // a truncated or garbled header after the member ends the stream, as with GZIPInputStream
+    final byte[] trailing = Arrays.copyOf(member, member.length + 3);
+    trailing[member.length] = 0x1f;
+    trailing[member.length + 1] = (byte) 0x8b;
+    trailing[member.length + 2] = 8;
+    assertEquals(tag, BinaryTagIO.reader().lazy().read(new ByteArrayInputStream(trailing), BinaryTagIO.Compression.GZIP));
+    trailing[member.length + 2] = 7;
+    assertEquals(tag, BinaryTagIO.reader().lazy().read(new ByteArrayInputStream(trailing), BinaryTagIO.Compression.GZIP));
+  }
+
+  @Test
+  void testCompressionLevels() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putLongArray("longs", new long[4096])
+      .build();
+    final ByteArrayOutputStream stored = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, stored, BinaryTagIO.Compression.zlib(0));
+    final ByteArrayOutputStream best = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, best, BinaryTagIO.Compression.zlib(9));
+    assertTrue(best.size() < stored.size());
+    assertEquals(tag, BinaryTagIO.reader().read(new ByteArrayInputStream(stored.toByteArray()), BinaryTagIO.Compression.ZLIB));
+    assertEquals(tag, BinaryTagIO.reader().read(new ByteArrayInputStream(best.toByteArray()), BinaryTagIO.Compression.zlib(1)));
+    assertSame(BinaryTagIO.Compression.GZIP, BinaryTagIO.Compression.gzip(-1));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagIO.Compression.gzip(10));
+  }
+
+  @Test
+  void testCustomCompression() throws IOException {
+    final BinaryTagIO.Compression checked = BinaryTagIO.Compression.of("CHECKED", input -> new CheckedInputStream(input, new Adler32()), output -> new CheckedOutputStream(output, new Adler32()));
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "test")
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output, checked);
+    assertEquals(tag, BinaryTagIO.reader().read(new ByteArrayInputStream(output.toByteArray()), checked));
+    assertEquals("Compression.CHECKED", checked.toString());
+  }
+
+  @Test
+  void testWriteAll(@TempDir final Path directory) throws Exception {
+    final Map<Path, CompoundBinaryTag> tags = new HashMap<>();
+    for (int i = 0; i < 32; i++) {
+      tags.put(directory.resolve(i + ".dat"), CompoundBinaryTag.builder().putInt("index", i).build());
+    }
+    Files.write(directory.resolve("0.dat"), new byte[]{1, 2, 3}); // replaced
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      BinaryTagIO.writer().writeAll(tags, BinaryTagIO.Compression.GZIP, executor).get();
+      for (final Map.Entry<Path, CompoundBinaryTag> entry : tags.entrySet()) {
+        assertEquals(entry.getValue(), BinaryTagIO.reader().read(entry.getKey(), BinaryTagIO.Compression.GZIP));
+      }
+      try(final Stream<Path> files = Files.list(directory)) {
+        assertEquals(tags.size(), files.count()); // no temporary files are left behind
+      }
+
+      final Map<Path, CompoundBinaryTag> missing = Collections.singletonMap(directory.resolve("missing").resolve("0.dat"), CompoundBinaryTag.empty());
+      final ExecutionException thrown = assertThrows(ExecutionException.class, () -> BinaryTagIO.writer().writeAll(missing, BinaryTagIO.Compression.NONE, executor).get());
+      assertTrue(thrown.getCause() instanceof IOException);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testWriteAllKeepsPermissions(@TempDir final Path directory) throws Exception {
+    assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+    final Path file = directory.resolve("level.dat");
+    Files.write(file, new byte[]{1, 2, 3});
+    final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+    Files.setPosixFilePermissions(file, permissions);
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder().putInt("version", 1).build();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      BinaryTagIO.writer().writeAll(Collections.singletonMap(file, tag), BinaryTagIO.Compression.NONE, executor).get();
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(tag, BinaryTagIO.reader().read(file));
+    assertEquals(permissions, Files.getPosixFilePermissions(file));
+  }
+
+  @Test
+  void testWriteByteBuffer() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "tést☃")
+      .putIntArray("ints", new int[]{1, 2, 3})
+      .put("pos", ListBinaryTag.builder().add(LongBinaryTag.of(1)).add(LongBinaryTag.of(2)).build())
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+    final byte[] bytes = output.toByteArray();
+
+    final ByteBuffer heap = ByteBuffer.allocate(bytes.length + 1);
+    heap.put((byte) 9);
+    BinaryTagIO.writer().write(tag, heap);
+    assertEquals(0, heap.remaining());
+    heap.position(1);
+    assertEquals(ByteBuffer.wrap(bytes), heap);
+
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+    BinaryTagIO.writer().write(tag, direct);
+    direct.flip();
+    assertEquals(ByteBuffer.wrap(bytes), direct);
+
+    final ByteBuffer small = ByteBuffer.allocate(bytes.length - 1);
+    assertThrows(BufferOverflowException.class, () -> BinaryTagIO.writer().write(tag, small));
+    assertEquals(0, small.position());
+  }
+
+  @Test
+  void testWriteCachedEncoding() throws IOException {
+    final CompoundBinaryTag item = CompoundBinaryTag.builder()
+      .putString("id", "minecraft:stone")
+      .putByte("Count", (byte) 1)
+      .build();
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(item, expected);
+
+    final BinaryTagIO.Writer writer = BinaryTagIO.writer().cacheEncoding();
+    for (int i = 0; i < 2; i++) {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      writer.write(item, output);
+      assertArrayEquals(expected.toByteArray(), output.toByteArray());
+    }
+
+    // a cached compound is reused when nested, and edits are encoded afresh
+    final CompoundBinaryTag edited = item.putByte("Count", (byte) 2);
+    final CompoundBinaryTag holder = CompoundBinaryTag.builder().put("item", item).put("edited", edited).build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    writer.write(holder, output);
+    assertEquals(holder, BinaryTagIO.reader().read(new ByteArrayInputStream(output.toByteArray())));
+  }
+
+  @Test
+  void testWriteNamedCachedEncoding() throws IOException {
+    final CompoundBinaryTag item = CompoundBinaryTag.builder()
+      .putString("id", "minecraft:stone")
+      .putByte("Count", (byte) 1)
+      .build();
+    final Map.Entry<String, CompoundBinaryTag> named = new AbstractMap.SimpleImmutableEntry<>("item", item);
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    BinaryTagIO.writer().writeNamed(named, expected);
+    assertNull(((CompoundBinaryTagImpl) item).cachedEncoding());
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().cacheEncoding().writeNamed(named, output);
+    assertArrayEquals(expected.toByteArray(), output.toByteArray());
+    assertNotNull(((CompoundBinaryTagImpl) item).cachedEncoding());
+  }
+
+  @Test
+  void testWriteChannel() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "test")
+      .putLongArray("longs", new long[20000]) // larger than the channel buffer
+      .putByteArray("bytes", new byte[100000])
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+
+    final ByteArrayOutputStream channelOutput = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, Channels.newChannel(channelOutput));
+    assertArrayEquals(output.toByteArray(), channelOutput.toByteArray());
+  }
+
+  @Test
+  void testReadByteBuffer() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "test")
+      .putLongArray("longs", new long[]{1, 2, 3})
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    output.write(42); // leading data before the tag
+    BinaryTagIO.writer().write(tag, output);
+    output.write(43); // trailing data after the tag
+    final ByteBuffer buffer = ByteBuffer.wrap(output.toByteArray());
+    buffer.position(1);
+    assertEquals(tag, BinaryTagIO.reader().read(buffer));
+    assertEquals(1, buffer.remaining());
+    assertEquals(43, buffer.get());
+  }
+
+  @Test
+  void testReadByteBufferTruncated() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(CompoundBinaryTag.builder().putString("name", "test").build(), output);
+    final byte[] bytes = output.toByteArray();
+    assertThrows(IOException.class, () -> BinaryTagIO.reader().read(ByteBuffer.wrap(bytes, 0, bytes.length - 2)));
+  }
+
+  @Test
+  void testReadByteBufferSizeLimit() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(CompoundBinaryTag.builder().putByteArray("bytes", new byte[128]).build(), output);
+    assertThrows(IOException.class, () -> BinaryTagIO.reader(64).read(ByteBuffer.wrap(output.toByteArray())));
+  }
+
+  @Test
+  void testReadWriteLargeArrays() throws IOException {
+    final int[] ints = new int[5000];
+    final long[] longs = new long[5000];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = i * 0x01010101;
+      longs[i] = i * 0x0101010101010101L;
+    }
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putIntArray("ints", ints)
+      .putLongArray("longs", longs)
+      .put("list", ListBinaryTag.builder().add(IntBinaryTag.of(1)).add(IntBinaryTag.of(-2)).build())
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+    final byte[] bytes = output.toByteArray();
+    assertEquals(tag, BinaryTagIO.reader().read(new ByteArrayInputStream(bytes)));
+    assertEquals(tag, BinaryTagIO.reader().read(ByteBuffer.wrap(bytes)));
+
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+    assertEquals(tag, BinaryTagIO.reader().read(direct));
+    assertEquals(0, direct.remaining());
+  }
+
+  @Test
+  void testReadMapped(@TempDir final Path directory) throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "test")
+      .putInt("value", 1)
+      .build();
+    final Path file = directory.resolve("test.nbt");
+    BinaryTagIO.writer().write(tag, file);
+    assertEquals(tag, BinaryTagIO.reader().readMapped(file));
+  }
+
+  @Test
+  void testReadLazy() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "test")
+      .put("nested", CompoundBinaryTag.builder().putInt("value", 1).putIntArray("ints", new int[]{1, 2}).build())
+      .put("items", ListBinaryTag.builder()
+        .add(CompoundBinaryTag.builder().putString("id", "stone").build())
+        .add(CompoundBinaryTag.builder().putString("id", "dirt").build())
+        .build())
+      .put("pos", ListBinaryTag.builder().add(DoubleBinaryTag.of(1)).add(DoubleBinaryTag.of(2)).build())
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+    final byte[] bytes = output.toByteArray();
+
+    final CompoundBinaryTag lazy = BinaryTagIO.reader().lazy().read(ByteBuffer.wrap(bytes));
+    assertEquals(tag.keySet(), lazy.keySet());
+    assertEquals(1, lazy.getCompound("nested").getInt("value"));
+    assertEquals("dirt", lazy.getList("items").getCompound(1).getString("id"));
+    assertEquals(2d, lazy.getList("pos").getDouble(1));
+    assertEquals(tag, lazy);
+    assertEquals(lazy, tag);
+    assertEquals(tag.hashCode(), lazy.hashCode());
+    assertEquals(tag.putInt("extra", 2), lazy.putInt("extra", 2));
+    assertEquals(tag, BinaryTagIO.materialize(lazy));
+    assertEquals(new ArrayList<>(tag.keySet()), new ArrayList<>(lazy.keySet()));
+    assertEquals(new ArrayList<>(tag.keySet()), new ArrayList<>(BinaryTagIO.materialize(lazy).keySet()));
+    assertSame(tag, BinaryTagIO.materialize(tag));
+    assertEquals(tag, BinaryTagIO.reader().lazy().read(new ByteArrayInputStream(bytes)));
+
+    final ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(lazy, rewritten);
+    assertArrayEquals(bytes, rewritten.toByteArray());
+  }
+
+  @Test
+  void testReadInternKeys() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .put("a", CompoundBinaryTag.builder().putString("id", "stone").build())
+      .put("b", CompoundBinaryTag.builder().putString("id", "dirt").build())
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+    final byte[] bytes = output.toByteArray();
+
+    final BinaryTagIO.Reader reader = BinaryTagIO.reader().internKeys();
+    final CompoundBinaryTag first = reader.read(new ByteArrayInputStream(bytes));
+    final CompoundBinaryTag second = reader.lazy().read(ByteBuffer.wrap(bytes));
+    assertEquals(tag, first);
+    assertEquals(tag, second);
+    final String key = first.getCompound("a").keySet().iterator().next();
+    assertSame(key, first.getCompound("b").keySet().iterator().next());
+    assertSame(key, second.getCompound("b").keySet().iterator().next());
+  }
+
+  @Test
+  void testReadDeduplicate() throws IOException {
+    final CompoundBinaryTag enchantment = CompoundBinaryTag.builder().putString("id", "sharpness").putShort("lvl", (short) 5).build();
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .put("a", CompoundBinaryTag.builder().put("Enchantments", ListBinaryTag.builder().add(enchantment).build()).build())
+      .put("b", CompoundBinaryTag.builder().put("Enchantments", ListBinaryTag.builder().add(enchantment).build()).build())
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+    final byte[] bytes = output.toByteArray();
+
+    final BinaryTagIO.Reader reader = BinaryTagIO.reader().deduplicate();
+    final CompoundBinaryTag first = reader.read(new ByteArrayInputStream(bytes));
+    final CompoundBinaryTag second = reader.read(ByteBuffer.wrap(bytes));
+    assertEquals(tag, first);
+    assertSame(first.getCompound("a"), first.getCompound("b"));
+    assertSame(first.getCompound("a"), second.getCompound("a"));
+
+    final CompoundBinaryTag plain = BinaryTagIO.reader().read(new ByteArrayInputStream(bytes));
+    assertNotSame(plain.getCompound("a"), plain.getCompound("b"));
+  }
+
+  @Test
+  void testReadDeduplicateKeepsEntryOrder() throws IOException {
+    final CompoundBinaryTag forward = CompoundBinaryTag.builder().putString("id", "unbreaking").putShort("lvl", (short) 3).build();
+    final CompoundBinaryTag backward = CompoundBinaryTag.builder().putShort("lvl", (short) 3).putString("id", "unbreaking").build();
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .put("a", forward)
+      .put("b", backward)
+      .put("c", CompoundBinaryTag.builder().put("e", forward).build())
+      .put("d", CompoundBinaryTag.builder().put("e", backward).build())
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+    final byte[] bytes = output.toByteArray();
+
+    final CompoundBinaryTag read = BinaryTagIO.reader().deduplicate().read(ByteBuffer.wrap(bytes));
+    assertNotSame(read.getCompound("a"), read.getCompound("b"));
+    assertNotSame(read.getCompound("c"), read.getCompound("d"));
+    final ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(read, rewritten);
+    assertArrayEquals(bytes, rewritten.toByteArray());
+  }
+
+  @Test
+  void testReadSharesSmallNumbers() throws IOException {
+    final CompoundBinaryTag item = CompoundBinaryTag.builder()
+      .putByte("Count", (byte) 64)
+      .putShort("lvl", (short) 5)
+      .putInt("Damage", 12)
+      .putLong("Seed", 0L)
+      .putFloat("Chance", 1f)
+      .putDouble("Scale", 0.5d)
+      .putInt("Big", 100_000)
+      .putFloat("NegativeZero", -0f)
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(item, output);
+    final CompoundBinaryTag first = BinaryTagIO.reader().read(new ByteArrayInputStream(output.toByteArray()));
+    final CompoundBinaryTag second = BinaryTagIO.reader().read(ByteBuffer.wrap(output.toByteArray()));
+    assertEquals(item, first);
+    for (final String key : new String[]{"Count", "lvl", "Damage", "Seed", "Chance", "Scale"}) {
+      assertSame(first.get(key), second.get(key), key);
+    }
+    assertNotSame(first.get("Big"), second.get("Big"));
+    assertNotSame(FloatBinaryTag.of(0f), first.get("NegativeZero"));
+    assertEquals(FloatBinaryTag.of(-0f), first.get("NegativeZero"));
+    assertSame(ByteBinaryTag.ZERO, ByteBinaryTag.of((byte) 0));
+    assertSame(ByteBinaryTag.ONE, ByteBinaryTag.of((byte) 1));
+  }
+
+  @Test
+  void testReadLazyValidates() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(CompoundBinaryTag.builder().put("nested", CompoundBinaryTag.builder().putString("name", "test").build()).build(), output);
+    final byte[] bytes = output.toByteArray();
+    assertThrows(IOException.class, () -> BinaryTagIO.reader().lazy().read(ByteBuffer.wrap(bytes, 0, bytes.length - 3)));
+    assertThrows(IOException.class, () -> BinaryTagIO.reader(16).lazy().read(ByteBuffer.wrap(bytes)));
+  }
+
+  @Test
+  void testReadPaths() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "test")
+      .put("Pos", ListBinaryTag.builder().add(DoubleBinaryTag.of(1)).add(DoubleBinaryTag.of(2)).build())
+      .put("Inventory", ListBinaryTag.builder()
+        .add(CompoundBinaryTag.builder().putString("id", "stone").putByte("Count", (byte) 1).build())
+        .add(CompoundBinaryTag.builder().putByte("Count", (byte) 2).build())
+        .build())
+      .put("nested", CompoundBinaryTag.builder().putInt("value", 1).putInt("other", 2).build())
+      .build();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+
+    final CompoundBinaryTag expected = CompoundBinaryTag.builder()
+      .put("Pos", tag.get("Pos"))
+      .put("Inventory", ListBinaryTag.builder()
+        .add(CompoundBinaryTag.builder().putString("id", "stone").build())
+        .add(CompoundBinaryTag.empty())
+        .build())
+      .put("nested", CompoundBinaryTag.builder().putInt("value", 1).build())
+      .build();
+    assertEquals(expected, BinaryTagIO.reader().readPaths(new ByteArrayInputStream(output.toByteArray()), BinaryTagIO.Compression.NONE, "Inventory[].id", "Pos", "nested.value", "missing.value"));
+    final CompoundBinaryTag all = BinaryTagIO.reader().readPaths(ByteBuffer.wrap(output.toByteArray()), "name", "Pos", "Inventory", "nested");
+    assertEquals(tag, all);
+    assertEquals(new ArrayList<>(tag.keySet()), new ArrayList<>(all.keySet()));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagIO.reader().readPaths(ByteBuffer.wrap(output.toByteArray()), "nested..value"));
+  }
+
+  // a stream that is never closed by its writer, so reading past its data would block
+  private static final class OpenInputStream extends InputStream {
+    private final byte[] data;
+    private int position;
+
+    OpenInputStream(final byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public int read() {
+      if (this.position == this.data.length) throw new AssertionError("read would block");
+      return this.data[this.position++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+      if (len == 0) return 0;
+      if (this.position == this.data.length) throw new AssertionError("read would block");
+      final int count = Math.min(len, this.data.length - this.position);
+      System.arraycopy(this.data, this.position, b, off, count);
+      this.position += count;
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return this.data.length - this.position;
+    }
+  }
 }
@@ -0,0 +1,183 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryTagVisitorTest {
+  private static final CompoundBinaryTag TAG = CompoundBinaryTag.builder()
+    .putString("name", "tést☃")
+    .putInt("count", 3)
+    .putIntArray("ints", new int[]{7, -8})
+    .putLongArray("longs", new long[]{1, 2})
+    .put("nested", CompoundBinaryTag.builder().putInt("value", 4).putByteArray("bytes", new byte[]{5}).build())
+    .put("items", ListBinaryTag.builder()
+      .add(CompoundBinaryTag.builder().putInt("slot", 5).build())
+      .add(CompoundBinaryTag.builder().putInt("slot", 6).build())
+      .build())
+    .build();
+
+  @Test
+  void testCopy() throws IOException {
+    final byte[] bytes = write(TAG);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.reader().visit(new ByteArrayInputStream(bytes), BinaryTagIO.Compression.NONE, BinaryTagIO.writer().visitor(new DataOutputStream(output)));
+    assertArrayEquals(bytes, output.toByteArray());
+
+    final ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+    BinaryTagIO.reader().visit(new ByteArrayInputStream(bytes), BinaryTagIO.Compression.NONE, BinaryTagIO.writer().visitor(new ByteBufferDataOutput(buffer)));
+    assertArrayEquals(bytes, buffer.array());
+  }
+
+  @Test
+  void testSkip() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final BinaryTagVisitor writer = BinaryTagIO.writer().visitor(new DataOutputStream(output));
+    BinaryTagIO.reader().visit(new ByteArrayInputStream(write(TAG)), BinaryTagIO.Compression.NONE, new ForwardingVisitor(writer) {
+      @Override
+      public @NotNull Result visitKey(final @NotNull String key, final @NotNull BinaryTagType<? extends BinaryTag> type) throws IOException {
+        return type == BinaryTagTypes.LIST ? Result.SKIP : super.visitKey(key, type);
+      }
+    });
+    assertEquals(TAG.remove("items"), BinaryTagIO.reader().read(new ByteArrayInputStream(output.toByteArray())));
+  }
+
+  @Test
+  void testHalt() throws IOException {
+    final List<Integer> ints = new ArrayList<>();
+    BinaryTagIO.reader().visit(new ByteArrayInputStream(write(TAG)), BinaryTagIO.Compression.NONE, new BinaryTagVisitor() {
+      @Override
+      public @NotNull Result visitInt(final int value) {
+        ints.add(value);
+        return ints.size() == 2 ? Result.HALT : Result.CONTINUE;
+      }
+    });
+    assertEquals(2, ints.size());
+  }
+
+  @Test
+  void testVisitTree() throws IOException {
+    final CompoundBinaryTag tag = TAG.put("doubles", ListBinaryTag.builder().add(DoubleBinaryTag.of(1.5d)).add(DoubleBinaryTag.of(-2d)).build());
+    final byte[] bytes = write(tag);
+    for (final CompoundBinaryTag source : new CompoundBinaryTag[]{tag, BinaryTagIO.reader().read(new ByteArrayInputStream(bytes))}) {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      assertTrue(source.visit(BinaryTagIO.writer().visitor(new DataOutputStream(output))));
+      assertArrayEquals(bytes, output.toByteArray());
+    }
+  }
+
+  @Test
+  void testVisitTreeSkipAndHalt() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    assertTrue(TAG.visit(new ForwardingVisitor(BinaryTagIO.writer().visitor(new DataOutputStream(output))) {
+      @Override
+      public @NotNull Result visitKey(final @NotNull String key, final @NotNull BinaryTagType<? extends BinaryTag> type) throws IOException {
+        return type == BinaryTagTypes.LIST ? Result.SKIP : super.visitKey(key, type);
+      }
+    }));
+    assertEquals(TAG.remove("items"), BinaryTagIO.reader().read(new ByteArrayInputStream(output.toByteArray())));
+
+    final List<Integer> ints = new ArrayList<>();
+    assertFalse(TAG.visit(new BinaryTagVisitor() {
+      @Override
+      public @NotNull Result visitInt(final int value) {
+        ints.add(value);
+        return ints.size() == 2 ? Result.HALT : Result.CONTINUE;
+      }
+    }));
+    assertEquals(2, ints.size());
+  }
+
+  private static byte[] write(final CompoundBinaryTag tag) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writer().write(tag, output);
+    return output.toByteArray();
+  }
+
+  private static class ForwardingVisitor implements BinaryTagVisitor {
+    private final BinaryTagVisitor delegate;
+
+    ForwardingVisitor(final BinaryTagVisitor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public @NotNull Result visitCompoundStart() throws IOException {
+      return this.delegate.visitCompoundStart();
+    }
+
+    @Override
+    public @NotNull Result visitKey(final @NotNull String key, final @NotNull BinaryTagType<? extends BinaryTag> type) throws IOException {
+      return this.delegate.visitKey(key, type);
+    }
+
+    @Override
+    public @NotNull Result visitCompoundEnd() throws IOException {
+      return this.delegate.visitCompoundEnd();
+    }
+
+    @Override
+    public @NotNull Result visitListStart(final @NotNull BinaryTagType<? extends BinaryTag> elementType, final int size) throws IOException {
+      return this.delegate.visitListStart(elementType, size);
+    }
+
+    @Override
+    public @NotNull Result visitInt(final int value) throws IOException {
+      return this.delegate.visitInt(value);
+    }
+
+    @Override
+    public @NotNull Result visitString(final @NotNull String value) throws IOException {
+      return this.delegate.visitString(value);
+    }
+
+    @Override
+    public @NotNull Result visitByteArray(final byte@NotNull[] value) throws IOException {
+      return this.delegate.visitByteArray(value);
+    }
+
+    @Override
+    public @NotNull Result visitIntArray(final int@NotNull[] value) throws IOException {
+      return this.delegate.visitIntArray(value);
+    }
+
+    @Override
+    public @NotNull Result visitLongArray(final long@NotNull[] value) throws IOException {
+      return this.delegate.visitLongArray(value);
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompoundBinaryTagTest {
+  @Test
+  void testPutLeavesOriginalUntouched() {
+    final CompoundBinaryTag c0 = CompoundBinaryTag.builder().putInt("a", 1).build();
+    final CompoundBinaryTag c1 = c0.putInt("b", 2);
+    final CompoundBinaryTag c2 = c1.putInt("a", 3);
+    assertEquals(1, c0.keySet().size());
+    assertEquals(1, c0.getInt("a"));
+    assertEquals(0, c0.getInt("b"));
+    assertEquals(1, c1.getInt("a"));
+    assertEquals(2, c1.getInt("b"));
+    assertEquals(3, c2.getInt("a"));
+    assertEquals(2, c2.getInt("b"));
+  }
+
+  @Test
+  void testRemove() {
+    final CompoundBinaryTag c0 = CompoundBinaryTag.builder().putInt("a", 1).putInt("b", 2).build();
+    final CompoundBinaryTag c1 = c0.remove("a", removed -> assertEquals(IntBinaryTag.of(1), removed));
+    assertNull(c1.get("a"));
+    assertEquals(2, c1.getInt("b"));
+    assertEquals(1, c0.getInt("a"));
+    assertSame(c1, c1.remove("a"));
+  }
+
+  @Test
+  void testManyKeys() {
+    final Map<String, BinaryTag> expected = new HashMap<>();
+    CompoundBinaryTag tag = CompoundBinaryTag.empty();
+    for (int i = 0; i < 2000; i++) {
+      // "Aa" and "BB" have the same hash code
+      final String key = (i % 2 == 0 ? "Aa" : "BB") + i / 2;
+      tag = tag.putInt(key, i);
+      expected.put(key, IntBinaryTag.of(i));
+    }
+    for (int i = 0; i < 2000; i += 3) {
+      final String key = (i % 2 == 0 ? "Aa" : "BB") + i / 2;
+      tag = tag.remove(key);
+      expected.remove(key);
+    }
+    assertEquals(CompoundBinaryTag.from(expected), tag);
+    assertEquals(expected.hashCode(), tag.hashCode());
+    assertEquals(expected.keySet(), tag.keySet());
+  }
+
+  @Test
+  void testSmallCompoundKeepsInsertionOrder() {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("id", "minecraft:stone")
+      .putByte("Count", (byte) 1)
+      .putInt("Damage", 0)
+      .putString("id", "minecraft:dirt")
+      .build();
+    final List<String> keys = new ArrayList<>(tag.keySet());
+    assertEquals(Arrays.asList("id", "Count", "Damage"), keys);
+    assertEquals("minecraft:dirt", tag.getString("id"));
+    assertEquals(Arrays.asList("id", "Damage"), new ArrayList<>(tag.remove("Count").keySet()));
+  }
+
+  @Test
+  void testSmallCompoundPromotesWhenFull() {
+    final Map<String, BinaryTag> expected = new LinkedHashMap<>();
+    CompoundBinaryTag tag = CompoundBinaryTag.empty();
+    for (int i = 0; i <= TagMap.MAX_SMALL_SIZE; i++) {
+      assertTrue(((CompoundBinaryTagImpl) tag).tags() instanceof SmallTagMap);
+      tag = tag.putInt("k" + i, i);
+      expected.put("k" + i, IntBinaryTag.of(i));
+    }
+    assertTrue(((CompoundBinaryTagImpl) tag).tags() instanceof PersistentTagMap);
+    assertEquals(CompoundBinaryTag.from(expected), tag);
+    assertEquals(expected.hashCode(), tag.hashCode());
+    assertTrue(((CompoundBinaryTagImpl) tag.remove("k0")).tags() instanceof PersistentTagMap);
+  }
+
+  @Test
+  void testSmallCompoundFootprint() {
+    final Map<String, BinaryTag> tags = new LinkedHashMap<>();
+    tags.put("id", StringBinaryTag.of("minecraft:stone"));
+    tags.put("Count", ByteBinaryTag.of((byte) 1));
+    tags.put("Damage", IntBinaryTag.of(0));
+    final CompoundBinaryTagImpl small = (CompoundBinaryTagImpl) CompoundBinaryTag.from(tags);
+    final CompoundBinaryTagImpl trie = new CompoundBinaryTagImpl(PersistentTagMap.of(tags));
+    assertTrue(small.tags() instanceof SmallTagMap);
+    // all three graphs include the same key and value instances
+    final long smallSize = GraphLayout.parseInstance(small).totalSize();
+    assertTrue(smallSize < GraphLayout.parseInstance(trie).totalSize(), GraphLayout.parseInstance(small, trie).toFootprint());
+    assertTrue(smallSize < GraphLayout.parseInstance(Collections.unmodifiableMap(new HashMap<>(tags))).totalSize());
+  }
+
+  @Test
+  void testEdit() {
+    final CompoundBinaryTag display = CompoundBinaryTag.builder().putString("Name", "Sword").build();
+    final CompoundBinaryTag item = CompoundBinaryTag.builder()
+      .putString("id", "minecraft:diamond_sword")
+      .putByte("Count", (byte) 1)
+      .put("tag", CompoundBinaryTag.builder().putInt("Damage", 3).put("display", display).build())
+      .build();
+    final CompoundBinaryTag edited = item.edit(mutable -> {
+      mutable.putByte("Count", (byte) 2);
+      mutable.editCompound("tag").putInt("Damage", 4).putInt("RepairCost", 1).remove("missing");
+      mutable.editCompound("tag").editCompound("BlockEntityTag").putString("id", "minecraft:chest");
+      assertEquals(IntBinaryTag.of(4), mutable.editCompound("tag").get("Damage"));
+    });
+    final CompoundBinaryTag expected = item
+      .putByte("Count", (byte) 2)
+      .put("tag", item.getCompound("tag")
+        .putInt("Damage", 4)
+        .putInt("RepairCost", 1)
+        .put("BlockEntityTag", CompoundBinaryTag.builder().putString("id", "minecraft:chest").build()));
+    assertEquals(expected, edited);
+    assertEquals(Arrays.asList("id", "Count", "tag"), new ArrayList<>(edited.keySet()));
+    assertSame(display, edited.getCompound("tag").getCompound("display"));
+    assertEquals(1, item.getByte("Count"));
+    assertEquals(3, item.getCompound("tag").getInt("Damage"));
+  }
+
+  @Test
+  void testEditWithoutChanges() {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder().putString("a", "b").put("c", CompoundBinaryTag.builder().putInt("d", 1).build()).build();
+    assertSame(tag, tag.edit(mutable -> {
+      mutable.put("a", tag.get("a"));
+      mutable.editCompound("c").putInt("e", 2).remove("e");
+    }));
+    final CompoundBinaryTag removed = tag.edit(mutable -> mutable.editCompound("c").remove("d"));
+    assertSame(CompoundBinaryTag.empty(), removed.getCompound("c"));
+  }
+
+  @Test
+  void testEditLargeCompound() {
+    CompoundBinaryTag tag = CompoundBinaryTag.empty();
+    final Map<String, BinaryTag> expected = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      tag = tag.putInt("k" + i, i);
+      expected.put("k" + i, IntBinaryTag.of(i));
+    }
+    final CompoundBinaryTag edited = tag.edit(mutable -> {
+      for (int i = 0; i < 100; i += 2) {
+        mutable.remove("k" + i);
+        mutable.putInt("k" + (i + 1), -i);
+      }
+    });
+    for (int i = 0; i < 100; i += 2) {
+      expected.remove("k" + i);
+      expected.put("k" + (i + 1), IntBinaryTag.of(-i));
+    }
+    assertEquals(CompoundBinaryTag.from(expected), edited);
+    assertEquals(0, tag.getInt("k0", -1)); // nodes of the original are copied, never changed in place
+    assertEquals(1, tag.getInt("k1"));
+
+    final CompoundBinaryTag again = edited.edit(mutable -> {
+      for (int i = 0; i < 200; i++) {
+        mutable.putInt("k" + i, i * 2);
+      }
+    });
+    assertEquals(200, again.keySet().size());
+    assertEquals(198, again.getInt("k99"));
+    assertEquals(50, edited.keySet().size());
+    assertEquals(-98, edited.getInt("k99"));
+  }
+
+  @Test
+  void testEditReadsNestedChanges() {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder().put("nested", CompoundBinaryTag.builder().putInt("n", 0).build()).build();
+    final CompoundBinaryTag edited = tag.edit(mutable -> {
+      final CompoundBinaryTag.Mutable nested = mutable.editCompound("nested");
+      for (int i = 1; i <= 3; i++) {
+        nested.putInt("n", i);
+        assertEquals(i, ((CompoundBinaryTag) mutable.get("nested")).getInt("n"));
+      }
+      assertSame(mutable.get("nested"), mutable.get("nested")); // frozen once until the next change
+      nested.editCompound("deeper").putInt("x", 1);
+      assertEquals(1, ((CompoundBinaryTag) mutable.get("nested")).getCompound("deeper").getInt("x"));
+      nested.remove("n");
+      assertEquals(-1, ((CompoundBinaryTag) mutable.get("nested")).getInt("n", -1));
+    });
+    assertEquals(CompoundBinaryTag.builder().put("nested", CompoundBinaryTag.builder().put("deeper", CompoundBinaryTag.builder().putInt("x", 1).build()).build()).build(), edited);
+  }
+
+  @Test
+  void testEditMissingCompound() {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder().putInt("number", 1).build();
+    assertSame(tag, tag.edit(mutable -> {
+      mutable.editCompound("missing").editCompound("deeper");
+      assertNull(mutable.get("missing"));
+    }));
+    assertEquals(tag.put("missing", CompoundBinaryTag.builder().putInt("a", 1).build()), tag.edit(mutable -> mutable.editCompound("missing").putInt("a", 1)));
+    assertSame(CompoundBinaryTag.empty(), tag.edit(mutable -> mutable.editCompound("number")).get("number"));
+  }
+
+  @Test
+  void testEditOutsideScope() {
+    final CompoundBinaryTag.Mutable[] escaped = new CompoundBinaryTag.Mutable[2];
+    CompoundBinaryTag.empty().edit(mutable -> {
+      escaped[0] = mutable;
+      escaped[1] = mutable.editCompound("nested");
+    });
+    assertThrows(IllegalStateException.class, () -> escaped[0].putInt("a", 1));
+    assertThrows(IllegalStateException.class, () -> escaped[1].get("a"));
+  }
+
+  @Test
+  void testTypedAccessors() {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putShort("short", (short) 7)
+      .putString("string", "value")
+      .put("strings", ListBinaryTag.builder().add(StringBinaryTag.of("a")).build())
+      .build();
+    assertEquals(7, tag.getInt("short"));
+    assertEquals(7d, tag.getDouble("short"));
+    assertEquals(3, tag.getInt("string", 3));
+    assertEquals("fallback", tag.getString("short", "fallback"));
+    assertEquals(1, tag.getList("strings", BinaryTagTypes.STRING).size());
+    assertSame(ListBinaryTag.empty(), tag.getList("strings", BinaryTagTypes.INT, ListBinaryTag.empty()));
+    assertEquals(0, tag.getIntArray("missing").length);
+  }
+}
@@ -24,6 +24,13 @@
 package net.kyori.adventure.nbt;
 
 import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -94,4 +101,62 @@ class ListBinaryTagTest {
     assertEquals(i1, l3.get(1));
     assertEquals(i2, l3.get(2));
   }
+
+  @Test
+  void testManyEdits() {
+    final List<BinaryTag> expected = new ArrayList<>();
+    ListBinaryTag list = ListBinaryTag.empty();
+    for (int i = 0; i < 40000; i++) {
+      list = list.add(IntBinaryTag.of(i));
+      expected.add(IntBinaryTag.of(i));
+    }
+    final ListBinaryTag full = list;
+    for (int i = 0; i < 40000; i += 7) {
+      list = list.set(i, IntBinaryTag.of(-i), null);
+      expected.set(i, IntBinaryTag.of(-i));
+    }
+    assertEquals(ListBinaryTag.of(BinaryTagTypes.INT, expected), list);
+    assertEquals(expected.hashCode(), list.hashCode());
+    while (list.size() > 1000) {
+      list = list.remove(list.size() - 1, null);
+      expected.remove(expected.size() - 1);
+    }
+    list = list.remove(500, null).remove(0, null);
+    expected.remove(500);
+    expected.remove(0);
+    assertEquals(ListBinaryTag.of(BinaryTagTypes.INT, expected), list);
+    assertEquals(expected, list.stream().collect(ArrayList::new, ArrayList::add, ArrayList::addAll));
+    assertEquals(40000, full.size());
+    assertEquals(IntBinaryTag.of(39999), full.get(39999));
+  }
+
+  @Test
+  void testReadNumericList() throws IOException {
+    final ListBinaryTag original = ListBinaryTag.builder()
+      .add(DoubleBinaryTag.of(-1.5))
+      .add(DoubleBinaryTag.of(64))
+      .add(DoubleBinaryTag.of(Double.NaN))
+      .build();
+    final ListBinaryTag read = roundTrip(original);
+    assertEquals(original, read);
+    assertEquals(read, original);
+    assertEquals(original.hashCode(), read.hashCode());
+    assertEquals(-2, read.getInt(0));
+    assertEquals(64d, read.getDouble(1));
+    assertEquals(DoubleBinaryTag.of(-1.5), read.get(0));
+    assertEquals(original, roundTrip(read));
+
+    final ListBinaryTag set = read.set(1, DoubleBinaryTag.of(3), removed -> assertEquals(DoubleBinaryTag.of(64), removed));
+    assertEquals(3d, set.getDouble(1));
+    assertEquals(64d, read.getDouble(1));
+    assertEquals(ListBinaryTag.builder().add(DoubleBinaryTag.of(-1.5)).add(DoubleBinaryTag.of(Double.NaN)).build(), read.remove(1, null));
+    assertEquals(4, read.add(DoubleBinaryTag.of(0)).size());
+    assertThrows(IllegalArgumentException.class, () -> read.add(IntBinaryTag.of(0)));
+  }
+
+  private static ListBinaryTag roundTrip(final ListBinaryTag tag) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BinaryTagTypes.LIST.write(tag, new DataOutputStream(bytes));
+    return BinaryTagTypes.LIST.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
 }
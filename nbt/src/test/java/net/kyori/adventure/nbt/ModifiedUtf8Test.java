@@ -0,0 +1,66 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ModifiedUtf8Test {
+  private static final String[] STRINGS = {"", "minecraft:stone", "\u0000null", "héllo", "☃ snow", "😀 emoji"};
+
+  @Test
+  void testMatchesDataOutput() throws IOException {
+    final ModifiedUtf8 utf = new ModifiedUtf8();
+    for (final String string : STRINGS) {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      new DataOutputStream(output).writeUTF(string);
+      final byte[] expected = output.toByteArray();
+
+      assertEquals(expected.length - 2, ModifiedUtf8.length(string));
+      final byte[] encoded = new byte[expected.length];
+      encoded[0] = expected[0];
+      encoded[1] = expected[1];
+      assertEquals(expected.length, ModifiedUtf8.encode(string, encoded, 2));
+      assertArrayEquals(expected, encoded);
+      assertEquals(string, utf.read(new DataInputStream(new ByteArrayInputStream(expected))));
+    }
+  }
+
+  @Test
+  void testMalformed() {
+    final ModifiedUtf8 utf = new ModifiedUtf8();
+    assertThrows(UTFDataFormatException.class, () -> utf.decode(new byte[]{'a', (byte) 0xc3}, 0, 2));
+    assertThrows(UTFDataFormatException.class, () -> utf.decode(new byte[]{(byte) 0xe2, (byte) 0x98, 'a'}, 0, 3));
+    assertThrows(UTFDataFormatException.class, () -> utf.decode(new byte[]{(byte) 0xf0, (byte) 0x80}, 0, 2));
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2021 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionFileTest {
+  private static CompoundBinaryTag chunk(final int x, final int z, final int size) {
+    final long[] data = new long[size];
+    final Random random = new Random(x * 31L + z);
+    for (int i = 0; i < size; i++) {
+      data[i] = random.nextLong();
+    }
+    return CompoundBinaryTag.builder().putInt("xPos", x).putInt("zPos", z).putLongArray("data", data).build();
+  }
+
+  @Test
+  void testWriteAndRead(@TempDir final Path directory) throws IOException {
+    final Path path = directory.resolve("r.0.0.mca");
+    try(final RegionFile region = RegionFile.open(path)) {
+      assertFalse(region.contains(0, 0));
+      assertNull(region.read(0, 0));
+      region.write(0, 0, chunk(0, 0, 16));
+      region.write(1, 2, chunk(1, 2, 1024), BinaryTagIO.Compression.GZIP);
+      region.write(31, 31, chunk(31, 31, 4), BinaryTagIO.Compression.NONE);
+      region.write(2, 2, chunk(2, 2, 4));
+      assertTrue(region.remove(2, 2));
+      assertFalse(region.remove(2, 2));
+
+      region.write(0, 0, chunk(0, 0, 8192)); // grows past its sectors
+      assertEquals(chunk(0, 0, 8192), region.read(0, 0));
+      assertTrue(region.timestamp(0, 0) > 0);
+      assertThrows(IllegalArgumentException.class, () -> region.write(0, 0, CompoundBinaryTag.empty(), BinaryTagIO.Compression.of("CUSTOM", input -> input, output -> output)));
+    }
+    assertEquals(0, Files.size(path) % 4096);
+
+    try(final RegionFile region = RegionFile.open(path)) {
+      assertEquals(chunk(0, 0, 8192), region.read(0, 0));
+      assertEquals(chunk(1, 2, 1024), region.read(33, -30));
+      assertEquals(chunk(31, 31, 4), region.read(31, 31));
+      assertFalse(region.contains(2, 2));
+      assertEquals(0, region.timestamp(2, 2));
+    }
+  }
+
+  @Test
+  void testExternalChunk(@TempDir final Path directory) throws IOException {
+    final Path path = directory.resolve("r.0.0.mca");
+    final CompoundBinaryTag large = chunk(3, 4, 160_000); // more than 255 sectors, even compressed
+    try(final RegionFile region = RegionFile.open(path)) {
+      region.write(3, 4, large);
+      assertTrue(Files.exists(path.resolveSibling("c.3.4.mcc")));
+      assertEquals(large, region.read(3, 4));
+      region.write(3, 4, chunk(3, 4, 4));
+      assertFalse(Files.exists(path.resolveSibling("c.3.4.mcc")));
+      assertEquals(chunk(3, 4, 4), region.read(3, 4));
+    }
+    assertTrue(Files.size(path) < 64 * 4096); // the sectors of the large chunk were never used
+  }
+
+  @Test
+  void testExternalChunkNamedByAbsoluteCoordinates(@TempDir final Path directory) throws IOException {
+    final Path path = directory.resolve("r.1.-1.mca");
+    final CompoundBinaryTag large = chunk(3, 4, 160_000);
+    try(final RegionFile region = RegionFile.open(path)) {
+      region.write(3, 4, large);
+      assertTrue(Files.exists(path.resolveSibling("c.35.-28.mcc")));
+      assertEquals(large, region.read(35, -28));
+      assertTrue(region.remove(35, -28));
+      assertFalse(Files.exists(path.resolveSibling("c.35.-28.mcc")));
+    }
+  }
+
+  @Test
+  void testConcurrentReads(@TempDir final Path directory) throws Exception {
+    final Path path = directory.resolve("r.0.0.mca");
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try(final RegionFile region = RegionFile.open(path)) {
+      for (int i = 0; i < 32; i++) {
+        region.write(i, i, chunk(i, i, 256));
+      }
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        final int index = i;
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 16; j++) {
+            assertEquals(chunk(index, index, 256), region.read(index, index));
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
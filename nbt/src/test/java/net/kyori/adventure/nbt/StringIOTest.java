@@ -30,6 +30,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -100,6 +101,42 @@ class StringIOTest {
 
   }
 
+  @Test
+  void testWriteLargeTagToWriter() throws IOException {
+    final long[] values = new long[10_000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (long) i * -1_234_567_891L;
+    }
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putLongArray("values", values)
+      .putLong("min", Long.MIN_VALUE)
+      .putString("text", String.join("", Collections.nCopies(5_000, "a\"b\\")))
+      .build();
+
+    final StringWriter writer = new StringWriter();
+    TagStringIO.get().toWriter(tag, writer);
+    assertEquals(TagStringIO.get().asString(tag), writer.toString());
+    assertEquals(tag, TagStringIO.get().asCompound(writer.toString()));
+  }
+
+  @Test
+  void testTruncatedOutput() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putIntArray("values", new int[100_000])
+      .putString("name", "hello")
+      .build();
+    final String full = TagStringIO.get().asString(tag);
+
+    final TagStringIO truncating = TagStringIO.builder().truncateAfter(50).build();
+    assertEquals(full.substring(0, 50) + "...", truncating.asString(tag));
+    final StringWriter writer = new StringWriter();
+    truncating.toWriter(tag, writer);
+    assertEquals(full.substring(0, 50) + "...", writer.toString());
+
+    assertEquals(full, TagStringIO.builder().truncateAfter(full.length()).build().asString(tag));
+    assertThrows(IllegalArgumentException.class, () -> TagStringIO.builder().truncateAfter(-1));
+  }
+
   @Test
   void testStringTag() throws IOException {
     final StringBinaryTag basic = StringBinaryTag.of("hello");
@@ -121,6 +158,20 @@ class StringIOTest {
     assertEquals(StringBinaryTag.of("1.33.28d"), this.stringToTag("1.33.28d"));
   }
 
+  @Test
+  void testReadEscapes() throws IOException {
+    // an escaped character is kept as-is, with no special meaning for letters
+    assertEquals(StringBinaryTag.of("n"), this.stringToTag("\"\\n\""));
+    assertEquals(StringBinaryTag.of("q'q"), this.stringToTag("'q\\'q'"));
+    assertEquals(StringBinaryTag.of("x\\y"), this.stringToTag("\"x\\\\y\""));
+    assertEquals(StringBinaryTag.of("xn"), this.stringToTag("x\\n"));
+
+    // unquoted values with escapes are strings, even if they look like numbers or booleans
+    assertEquals(StringBinaryTag.of("12"), this.stringToTag("1\\2"));
+    assertEquals(StringBinaryTag.of("true"), this.stringToTag("tru\\e"));
+    assertEquals(CompoundBinaryTag.builder().putString("a", "1").build(), this.stringToTag("{a:\\1}"));
+  }
+
   private static final String UNICODE_TEST = "test ä ö";
 
   @Test